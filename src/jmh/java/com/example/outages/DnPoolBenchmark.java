@@ -0,0 +1,72 @@
+package com.example.outages;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/** Delivery-node list loading: a full streaming parse versus a hit on the binary cache. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DnPoolBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int nodes;
+
+    private Path dir;
+    private Path list;
+    private Path cache;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("bench-dn");
+        list = dir.resolve("nodes.json");
+        cache = dir.resolve("dn-pool.bin");
+        // Mix of numeric ids (packed in place) and alphanumeric ids (kept in the arena)
+        try (BufferedWriter out = Files.newBufferedWriter(list)) {
+            out.write('[');
+            for (int i = 0; i < nodes; i++) {
+                if (i > 0) out.write(',');
+                out.write(i % 10 == 0 ? "{\"id\":\"DN-" + i + "\"}" : "{\"id\":\"" + (40_000_000 + i) + "\"}");
+            }
+            out.write(']');
+        }
+        DnPool.load(list, cache);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(cache);
+        Files.deleteIfExists(list);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public DnPool parse() throws IOException {
+        return DnPool.parse(list);
+    }
+
+    @Benchmark
+    public DnPool loadCached() throws IOException {
+        return DnPool.load(list, cache);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.outages;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payload rendering throughput. Run with {@code -prof gc} (the default in the {@code bench} profile) to see the
+ * allocation rate per payload. The sample is padded with an extra top-level field to vary its size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+
+    @Param({"0", "65536"})
+    public int samplePaddingBytes;
+
+    @Param({"5", "20", "100"})
+    public int avgNodesPerFile;
+
+    @Param({"1", "20"})
+    public int outagesPerFile;
+
+    private PayloadTemplate template;
+    private DnPool pool;
+    private PayloadTemplate.Buffer buffer;
+    private long dnOffset;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> sample = mapper.readValue(
+                Paths.get("src/main/resources/sample/OutageSample.json").toFile(), LinkedHashMap.class);
+        sample.put("padding", "x".repeat(samplePaddingBytes));
+        Path samplePath = Files.createTempFile("bench-sample", ".json");
+        samplePath.toFile().deleteOnExit();
+        mapper.writeValue(samplePath.toFile(), sample);
+        template = PayloadTemplate.compile(samplePath);
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) ids.add(Integer.toString(10_000_000 + i));
+        pool = DnPool.of(ids);
+        buffer = new PayloadTemplate.Buffer(64 * 1024);
+    }
+
+    @Benchmark
+    public int render() throws IOException {
+        buffer.reset();
+        template.render(buffer, "outage-2024-01-01T00-00-00-07:00", "2024-01-01T07:00Z",
+                outagesPerFile, avgNodesPerFile, dnOffset, pool);
+        dnOffset += (long) outagesPerFile * avgNodesPerFile;
+        return buffer.size();
+    }
+}
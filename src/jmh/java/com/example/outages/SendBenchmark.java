@@ -0,0 +1,114 @@
+package com.example.outages;
+
+import com.example.outages.config.CampaignConfig;
+import com.example.outages.config.GeneratorProperties;
+import com.example.outages.config.OutputProperties;
+import com.example.outages.config.RetryProperties;
+import com.example.outages.config.SampleProperties;
+import com.example.outages.config.SchedulerProperties;
+import com.example.outages.config.SendProperties;
+import com.example.outages.config.TargetProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop send throughput of a one-target campaign against an in-process Reactor Netty stub that answers 200.
+ * Each operation is a release of the campaign's own sender, so it pays for what a paced run does per send: the corpus
+ * read, the breaker, latency, metrics and journal accounting, and the post itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class SendBenchmark {
+
+    @Param({"20", "2000"})
+    public int avgNodesPerFile;
+
+    private DisposableServer server;
+    private Campaign campaign;
+    private Pacer.Target sender;
+    private int payloads;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(r -> r.post("/feed", (req, res) -> req.receive().then(res.status(200).send())))
+                .bindNow();
+
+        Path dir = Files.createTempDirectory("bench-send");
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) ids.add(Integer.toString(10_000_000 + i));
+        Path nodes = Files.write(dir.resolve("nodes.json"), new ObjectMapper().writeValueAsBytes(ids));
+
+        // 100 payloads over a timeline long enough that the run never ends while it is measured
+        SchedulerProperties schedule = new SchedulerProperties();
+        schedule.setInterval("1m");
+        schedule.setDuration("100m");
+        schedule.setAvgNodesPerFile(avgNodesPerFile);
+        SampleProperties sample = new SampleProperties();
+        sample.setPath("src/main/resources/sample/OutageSample.json");
+        sample.setDeliveryNodeListPath(nodes.toString());
+        OutputProperties output = new OutputProperties();
+        output.setDir(dir.resolve("out").toString());
+        TargetProperties target = new TargetProperties();
+        target.setEndpoint("http://127.0.0.1:" + server.port() + "/feed");
+        SendProperties send = new SendProperties();
+        send.setMode("closed");
+        send.setResume(false);
+        RetryProperties retry = new RetryProperties();
+        retry.setMaxAttempts(0);
+        WebClient webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create()))
+                .build();
+        campaign = new Campaign("bench", webClient,
+                new CampaignConfig(schedule, target, sample, output, retry, send, new GeneratorProperties()),
+                new SimpleMeterRegistry());
+        payloads = campaign.start().getTotalPlanned();
+        sender = campaign.detachSender();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        campaign.close();
+        server.disposeNow();
+    }
+
+    @Benchmark
+    public void send() {
+        sender.release(next, System.nanoTime(), 0);
+        next = (next + 1) % payloads;
+    }
+}
@@ -0,0 +1,1443 @@
+package com.example.outages;
+
+import com.example.outages.config.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * One load profile: its own configuration, corpus, counters and latency histograms. Campaigns are created and looked
+ * up through {@link CampaignService}; all of them share the application's WebClient connection pool (unless a target
+ * has its own), and each sends from its own {@link Pacer} thread. A campaign posts to one or more {@link Targets};
+ * its sent, failed and dropped counts are posts, so a payload mirrored to three targets counts three times.
+ */
+public class Campaign {
+    private static final Logger log = LoggerFactory.getLogger(Campaign.class);
+    private static final ZoneId PHOENIX = ZoneId.of("America/Phoenix");
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH-mm-ssXXX");
+    // {"dnId":"..."} with at least a one-character id and its separating comma
+    private static final int MIN_NODE_BYTES = 13;
+    // One render buffer per generator thread, reset between payloads
+    private static final ThreadLocal<PayloadTemplate.Buffer> RENDER_BUFFER =
+            ThreadLocal.withInitial(() -> new PayloadTemplate.Buffer(64 * 1024));
+
+    private final String id;
+    private final Targets targets;
+    private final SchedulerProperties schedulerProps;
+    private final SampleProperties sampleProps;
+    private final OutputProperties outputProps;
+    private final RetryProperties retryProps;
+    private final SendProperties sendProps;
+    private final GeneratorProperties generatorProps;
+    private final CampaignMetrics metrics;
+    private final PayloadCodec codec;
+
+    /** Every target posts through {@code webClient}; targets with their own pool use Reactor Netty's defaults. */
+    public Campaign(String id, WebClient webClient, CampaignConfig config, MeterRegistry meterRegistry) {
+        this(id, new TargetClients(webClient, null, null), config, meterRegistry);
+    }
+
+    public Campaign(String id, TargetClients clients, CampaignConfig config, MeterRegistry meterRegistry) {
+        this.id = id;
+        this.targets = Targets.of(config.getTarget(), clients);
+        this.schedulerProps = config.getScheduler();
+        this.sampleProps = config.getSample();
+        this.outputProps = config.getOutput();
+        this.retryProps = config.getRetry();
+        this.sendProps = config.getSend();
+        this.generatorProps = config.getGenerator();
+        this.codec = PayloadCodec.of(generatorProps.getCompression().getCodec(),
+                generatorProps.getCompression().getLevel());
+        this.metrics = new CampaignMetrics(meterRegistry, id, inFlight::get, () -> {
+            PayloadCorpus c = corpus;
+            return c instanceof StreamingCorpus ? ((StreamingCorpus) c).buffered() : 0;
+        }, () -> {
+            RetryQueue q = retryQueue;
+            return q == null ? 0 : q.size();
+        }, targets::worstBreakerState);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getOutputDir() {
+        return outputProps.getDir();
+    }
+
+    /** Java 11-friendly status DTO (no records). */
+    public static class Status {
+        private final String id;
+        private final boolean running;
+        private final int sentCount;
+        private final int totalPlanned;
+        private final String endpoint;
+        private final Instant startedAt;
+        private final Instant endsAt;
+        private final int failedCount;
+        private final int droppedCount;
+        private final int inFlight;
+        private final int generatedCount;
+        private final int firstAttempts;
+        private final int retryAttempts;
+        private final int retryQueued;
+        private final String breaker;
+        private final List<TargetStatus> targets;
+
+        public Status(String id, boolean running, int sentCount, int totalPlanned, String endpoint,
+                      Instant startedAt, Instant endsAt,
+                      int failedCount, int droppedCount, int inFlight, int generatedCount,
+                      int firstAttempts, int retryAttempts, int retryQueued, String breaker,
+                      List<TargetStatus> targets) {
+            this.id = id;
+            this.running = running;
+            this.sentCount = sentCount;
+            this.totalPlanned = totalPlanned;
+            this.endpoint = endpoint;
+            this.startedAt = startedAt;
+            this.endsAt = endsAt;
+            this.failedCount = failedCount;
+            this.droppedCount = droppedCount;
+            this.inFlight = inFlight;
+            this.generatedCount = generatedCount;
+            this.firstAttempts = firstAttempts;
+            this.retryAttempts = retryAttempts;
+            this.retryQueued = retryQueued;
+            this.breaker = breaker;
+            this.targets = targets;
+        }
+        public String getId() { return id; }
+        public boolean isRunning() { return running; }
+        public int getSentCount() { return sentCount; }
+        public int getTotalPlanned() { return totalPlanned; }
+        public String getEndpoint() { return endpoint; }
+        public Instant getStartedAt() { return startedAt; }
+        public Instant getEndsAt() { return endsAt; }
+        public int getFailedCount() { return failedCount; }
+        public int getDroppedCount() { return droppedCount; }
+        public int getInFlight() { return inFlight; }
+        public int getGeneratedCount() { return generatedCount; }
+        public int getFirstAttempts() { return firstAttempts; }
+        public int getRetryAttempts() { return retryAttempts; }
+        public int getRetryQueued() { return retryQueued; }
+        /** The breaker's state, or {@code name=state} for each target when there are several. */
+        public String getBreaker() { return breaker; }
+        public List<TargetStatus> getTargets() { return targets; }
+    }
+
+    /** One target's share of the status; latencies in milliseconds from the intended send time. */
+    public static class TargetStatus {
+        private final String name;
+        private final String endpoint;
+        private final int sentCount;
+        private final int failedCount;
+        private final int droppedCount;
+        private final String breaker;
+        private final double p50;
+        private final double p99;
+
+        public TargetStatus(String name, String endpoint, int sentCount, int failedCount, int droppedCount,
+                            String breaker, double p50, double p99) {
+            this.name = name;
+            this.endpoint = endpoint;
+            this.sentCount = sentCount;
+            this.failedCount = failedCount;
+            this.droppedCount = droppedCount;
+            this.breaker = breaker;
+            this.p50 = p50;
+            this.p99 = p99;
+        }
+        public String getName() { return name; }
+        public String getEndpoint() { return endpoint; }
+        public int getSentCount() { return sentCount; }
+        public int getFailedCount() { return failedCount; }
+        public int getDroppedCount() { return droppedCount; }
+        public String getBreaker() { return breaker; }
+        public double getP50Ms() { return p50; }
+        public double getP99Ms() { return p99; }
+    }
+
+    private volatile Pacer pacer;
+    private volatile boolean running = false;
+    private volatile Instant startedAt;
+    private volatile Instant endsAt;
+    private final AtomicInteger sent = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger firstAttempts = new AtomicInteger();
+    private final AtomicInteger retryAttempts = new AtomicInteger();
+    // Replaced on every start, like each target's breaker; the retry queue outlives the schedule so pending retries
+    // still complete
+    private volatile RetryQueue retryQueue;
+    private volatile OutcomeJournal journal;
+    private final LatencyRecorder latency = new LatencyRecorder();
+    // Completed by stop() so every open-loop post still in flight is cancelled
+    private volatile Sinks.Empty<Void> cancelSignal = Sinks.empty();
+    private final AtomicInteger generated = new AtomicInteger();
+    private volatile int totalPlanned;
+    private volatile PayloadCorpus corpus;
+    private volatile DnPool dnPool;
+    private final Object dnLock = new Object();
+    private volatile Shard shard;
+    // Fingerprint of the corpus being sent and the state checkpointed to send.cursor
+    private volatile String fingerprint;
+    private volatile Instant timelineStart;
+    private final AtomicInteger released = new AtomicInteger();
+    private final Object cursorLock = new Object();
+    private long lastCheckpointNanos;
+
+    /**
+     * This instance's slice of a distributed campaign: every {@code count}-th payload of the global timeline starting
+     * at {@code index}, a disjoint part of the delivery-node pool, and a start instant shared by all workers.
+     */
+    public static class Shard {
+        final int index;
+        final int count;
+        final Instant startAt;
+        final DnPool dnPool;
+
+        public Shard(int index, int count, Instant startAt, DnPool dnPool) {
+            if (count < 1 || index < 0 || index >= count) {
+                throw new IllegalArgumentException("Invalid shard " + index + " of " + count);
+            }
+            this.index = index;
+            this.count = count;
+            this.startAt = Objects.requireNonNull(startAt, "startAt is required");
+            this.dnPool = dnPool;
+        }
+
+        /** How many of the N global payloads fall into this shard. */
+        int size(int N) {
+            return N > index ? (N - index + count - 1) / count : 0;
+        }
+    }
+
+    /** Turn this campaign into one shard of a distributed run; takes effect on the next start(). */
+    public synchronized void assignShard(Shard shard) {
+        if (running) throw new IllegalStateException("Campaign " + id + " is running");
+        this.shard = shard;
+        if (shard.dnPool != null) this.dnPool = shard.dnPool;
+    }
+
+    /**
+     * Start a campaign: pre-generate everything first, or (generator.mode=streaming) render payloads just in time a
+     * bounded window ahead of the sender, or (generator.mode=replay) read recorded payloads just in time and send them
+     * on their recorded timeline. Sending is scheduled only if send.enabled=true.
+     */
+    public synchronized Status start() {
+        if (running) return status();
+
+        boolean replaying = isReplay();
+        if (!replaying) {
+            required(sampleProps.getPath(), "sample.path");
+            required(sampleProps.getDeliveryNodeListPath(), "sample.deliveryNodeListPath");
+        }
+        required(outputProps.getDir(), "output.dir");
+
+        boolean sending = sendProps.isEnabled(); // assumes boolean + isEnabled()
+        if (sending) {
+            for (Targets.Target t : targets.all()) {
+                if (t.endpoint == null || t.endpoint.isBlank()) {
+                    throw new IllegalArgumentException(t.property + ".endpoint is required when send.enabled=true");
+                }
+            }
+        }
+
+        ReplaySource replay = replaying ? openReplay() : null;
+        WorkloadSchedule schedule = replay != null ? replay.schedule(generatorProps.getReplay().getTimeScale()) : workload();
+        int N = schedule.size();
+        Shard shard = this.shard;
+        totalPlanned = shard == null ? N : shard.size(N);
+        fingerprint = fingerprint(replay);
+        Path outDir = Paths.get(outputProps.getDir());
+        SendCursor cursor = sending && sendProps.isResume() ? resumable(SendCursor.load(outDir), schedule) : null;
+        if (cursor == null) SendCursor.delete(outDir);
+        sent.set(cursor == null ? 0 : cursor.getSent());
+        failed.set(cursor == null ? 0 : cursor.getFailed());
+        dropped.set(cursor == null ? 0 : cursor.getDropped());
+        startedAt = cursor != null ? cursor.getStartedAt() : shard == null ? Instant.now() : shard.startAt;
+        endsAt    = startedAt.plus(schedule.duration());
+
+        int resumeAt = cursor == null ? 0 : cursor.getNext();
+        if (replay != null) {
+            if (!sending) {
+                log.info("Campaign {}: sending disabled, {} recordings in {} would replay over {}", id, N,
+                        generatorProps.getReplay().getSource(), schedule.duration());
+                try {
+                    replay.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close {}", generatorProps.getReplay().getSource(), e);
+                }
+                running = false;
+                return status();
+            }
+            replaceCorpus(replayCorpus(replay, schedule, resumeAt));
+            log.info("Campaign {}: replaying {} recordings from {} ({} to {}) at {}x over {}", id, totalPlanned,
+                    generatorProps.getReplay().getSource(), replay.recordedAt(0), replay.recordedAt(N - 1),
+                    generatorProps.getReplay().getTimeScale(), schedule.duration());
+        } else if (sending && isStreaming()) {
+            // A resumed stream renders with the original timestamps, from where the run stopped
+            replaceCorpus(cursor == null ? streamingCorpus(schedule, null, 0)
+                    : streamingCorpus(schedule, startedAt.atZone(PHOENIX).toOffsetDateTime(), resumeAt));
+            log.info("Campaign {}: streaming {} payloads with a lookahead of {}", id, totalPlanned, generatorProps.getLookahead());
+        } else {
+            replaceCorpus(preGenerateAll(schedule, fingerprint));
+            log.info("Campaign {}: {} payloads ready in {}", id, totalPlanned, outputProps.getDir());
+        }
+
+        if (sending && totalPlanned > 0) {
+            cancelSignal = Sinks.empty();
+            if (retryQueue != null) retryQueue.stop();
+            retryQueue = new RetryQueue("retry-" + id, retryProps.getQueueCapacity(), retryProps.getConcurrency(),
+                    retryProps.getBudgetRatio(), retryProps.getBudgetMin());
+            RetryProperties.Breaker b = retryProps.getBreaker();
+            for (Targets.Target t : targets.all()) {
+                t.breaker = b.isEnabled() ? new CircuitBreaker(b.getWindow(), b.getMinCalls(), b.getFailureRate(),
+                        parseDuration(b.getOpenFor()).toNanos(), b.getProbes()) : null;
+                t.sent.set(0);
+                t.failed.set(0);
+                t.dropped.set(0);
+            }
+            firstAttempts.set(0);
+            retryAttempts.set(0);
+            // A shard sends every count-th payload of the global schedule, starting at its index
+            int first = shard == null ? 0 : shard.index;
+            int stride = shard == null ? 1 : shard.count;
+            int from = cursor == null ? 0 : cursor.getNext();
+            Instant t0 = cursor != null ? cursor.getStartedAt() : shard == null ? Instant.now() : shard.startAt;
+            // The timeline starts after generation, so the end is measured from here
+            startedAt = t0;
+            endsAt = t0.plus(schedule.duration());
+            Instant firstSend = t0.plusNanos(schedule.offsetNanos(first + from * stride));
+            long delayNanos = Duration.between(Instant.now(), firstSend).toNanos();
+            if (cursor != null) {
+                log.info("Campaign {}: resuming at payload {}/{} of the run started {}", id, from + 1, totalPlanned, t0);
+            } else if (shard != null && delayNanos <= 0) {
+                log.warn("Campaign {}: shard start time {} has already passed, late payloads follow send.pacing.lagPolicy",
+                        id, firstSend);
+            }
+            // Local payload i is intended for t0Nanos + offset(first + i * stride)
+            long t0Nanos = System.nanoTime() + Duration.between(Instant.now(), t0).toNanos();
+            latency.reset(t0Nanos + schedule.offsetNanos(first + from * stride), firstSend);
+            for (Targets.Target t : targets.all()) {
+                t.latency.reset(t0Nanos + schedule.offsetNanos(first + from * stride), firstSend);
+            }
+            timelineStart = t0;
+            released.set(from);
+            openJournal(t0, t0Nanos, cursor != null);
+            pacer = new Pacer("pacer-" + id, schedule, first, stride, from, totalPlanned, t0Nanos,
+                    sendProps.getPacing(), new Sender(isOpenLoop()));
+            running = true;
+            checkpoint(true);
+            pacer.start();
+            log.info("Campaign {}: sending enabled, {}-loop sender on a {} schedule of {} payloads from {}",
+                    id, sendProps.getMode(), schedule.isShaped() ? "profiled" : "fixed-rate", totalPlanned, firstSend);
+        } else {
+            running = false; // generation-only mode
+            log.info("Campaign {}: sending disabled, generation complete, no HTTP posts will be made.", id);
+        }
+
+        return status();
+    }
+    public synchronized Status stop() {
+        finish();
+        abandonRetries();
+        cancelSignal.tryEmitEmpty();
+        return status();
+    }
+
+    /**
+     * Stop the pacer of a started campaign and hand back a closed-loop sender in its place, for benchmarks that drive
+     * sends themselves: each {@code release} posts one payload to the targets it routes to through the same breaker,
+     * latency, metrics, journal and retry accounting as a paced run, and returns once its outcomes are accounted.
+     * Like the pacer's, its callbacks must come from one thread at a time.
+     */
+    synchronized Pacer.Target detachSender() {
+        if (pacer == null || !running) throw new IllegalStateException("Campaign " + id + " is not sending");
+        pacer.stop();
+        return new Sender(false);
+    }
+
+    private void openJournal(Instant t0, long t0Nanos, boolean resumed) {
+        if (journal != null) journal.close();
+        journal = null;
+        if (!outputProps.getJournal().isEnabled()) return;
+        try {
+            journal = OutcomeJournal.open(Paths.get(outputProps.getDir()), t0, t0Nanos, resumed,
+                    outputProps.getJournal(), "journal-" + id);
+        } catch (IOException e) {
+            log.warn("Campaign {}: sending without an outcome journal: {}", id, e.toString());
+        }
+    }
+
+    /** Per-second throughput and latency of the current or last run, read back from its outcome journal. */
+    public JournalSummary journalSummary() {
+        try {
+            return JournalSummary.read(Paths.get(outputProps.getDir()));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read the outcome journal in " + outputProps.getDir(), e);
+        }
+    }
+
+    /** Queued retries of a stopped campaign are given up and counted as failed. */
+    private void abandonRetries() {
+        if (retryQueue != null) failed.addAndGet(retryQueue.stop());
+    }
+
+    /**
+     * Stop sending and release the corpus; called on shutdown and when the campaign is removed from the registry.
+     * A run still in progress keeps its send cursor, so the next start can resume it.
+     */
+    public synchronized void close() {
+        if (running) {
+            halt();
+            checkpoint(true);
+        }
+        abandonRetries();
+        cancelSignal.tryEmitEmpty();
+        if (journal != null) journal.close();
+        replaceCorpus(null);
+        targets.close();
+        metrics.close();
+    }
+
+    /** The run is over (completed or stopped): stop sending and forget the send cursor. */
+    private synchronized void finish() {
+        halt();
+        if (outputProps.getDir() != null) SendCursor.delete(Paths.get(outputProps.getDir()));
+    }
+
+    /** Stop scheduling new sends but let posts already in flight complete. */
+    private synchronized void halt() {
+        if (pacer != null) pacer.stop();
+        running = false;
+    }
+
+    /** True if a run of this campaign was interrupted (the process went away) and start() would resume it. */
+    public boolean hasInterruptedRun() {
+        return sendProps.isEnabled() && sendProps.isResume() && outputProps.getDir() != null
+                && SendCursor.exists(Paths.get(outputProps.getDir()));
+    }
+
+    /** The cursor if it belongs to this corpus and its run still has payloads left inside its window. */
+    private SendCursor resumable(SendCursor cursor, WorkloadSchedule schedule) {
+        if (cursor == null) return null;
+        if (!cursor.getFingerprint().equals(fingerprint)) {
+            log.info("Campaign {}: not resuming, the corpus inputs changed since the interrupted run", id);
+            return null;
+        }
+        if (cursor.getNext() >= totalPlanned || Instant.now().isAfter(cursor.getStartedAt().plus(schedule.duration()))) {
+            log.info("Campaign {}: not resuming, the interrupted run started {} is already over", id,
+                    cursor.getStartedAt());
+            return null;
+        }
+        return cursor;
+    }
+
+    /** Save the send cursor at most every send.checkpointInterval, or now if {@code force}. */
+    private void checkpoint(boolean force) {
+        if (!sendProps.isResume()) return;
+        synchronized (cursorLock) {
+            long now = System.nanoTime();
+            if (!force && now - lastCheckpointNanos < parseDuration(sendProps.getCheckpointInterval()).toNanos()) return;
+            lastCheckpointNanos = now;
+            try {
+                new SendCursor(fingerprint, timelineStart, released.get(), sent.get(), failed.get(), dropped.get())
+                        .save(Paths.get(outputProps.getDir()));
+            } catch (IOException e) {
+                log.warn("Campaign {}: could not checkpoint the send cursor: {}", id, e.toString());
+            }
+        }
+    }
+
+    public Status status() {
+        // Read before the counters: once a snapshot shows the run over and nothing in flight, its counts are final
+        boolean running = this.running;
+        int inFlight = this.inFlight.get();
+        List<TargetStatus> byTarget = new ArrayList<>(targets.all().size());
+        for (Targets.Target t : targets.all()) {
+            LatencyRecorder.Stats stats = t.latency.report(running).getOverall();
+            byTarget.add(new TargetStatus(t.name, t.endpoint, t.sent.get(), t.failed.get(), t.dropped.get(),
+                    t.breakerState(), stats.getP50Ms(), stats.getP99Ms()));
+        }
+        String breaker = targets.all().size() == 1 ? targets.first().breakerState()
+                : targets.all().stream().map(t -> t.name + "=" + t.breakerState()).collect(Collectors.joining(","));
+        return new Status(id, running, sent.get(), totalPlanned,
+                targets.endpoints(), startedAt, endsAt,
+                failed.get(), dropped.get(), inFlight, generated.get(),
+                firstAttempts.get(), retryAttempts.get(), retryQueue == null ? 0 : retryQueue.size(),
+                breaker, byTarget);
+    }
+
+    /** Latency percentiles, throughput and error counts for the current or last campaign, and per target if several. */
+    public LatencyRecorder.Report report() {
+        if (targets.all().size() == 1) return latency.report(running);
+        Map<String, LatencyRecorder> byTarget = new LinkedHashMap<>();
+        for (Targets.Target t : targets.all()) byTarget.put(t.name, t.latency);
+        return latency.report(running, byTarget);
+    }
+
+    /** HdrHistogram log of the current or last campaign, for merging across runs. */
+    public String histogramLog() {
+        return latency.histogramLog();
+    }
+
+    private boolean isReplay() {
+        return "replay".equalsIgnoreCase(generatorProps.getMode());
+    }
+
+    private ReplaySource openReplay() {
+        try {
+            return ReplaySource.open(generatorProps.getReplay());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not index " + generatorProps.getReplay().getSource(), e);
+        }
+    }
+
+    /**
+     * Recorded payloads read by the producer thread a lookahead window ahead of the sender. Local payload i is this
+     * shard's share of the recordings; with {@code generator.replay.rewrite} its ids get a per-run suffix and its
+     * startedAt moves by how much later than recorded it is sent.
+     */
+    private PayloadCorpus replayCorpus(ReplaySource replay, WorkloadSchedule schedule, int from) {
+        Shard shard = this.shard;
+        int first = shard == null ? 0 : shard.index;
+        int stride = shard == null ? 1 : shard.count;
+        boolean rewrite = generatorProps.getReplay().isRewrite();
+        Instant t0 = startedAt;
+        String suffix = "-r" + t0.getEpochSecond();
+        generated.set(from);
+        StreamingCorpus.Renderer reader = new StreamingCorpus.Renderer() {
+            @Override public ByteBuffer render(int i) throws IOException {
+                ByteBuffer payload = rerender(i);
+                generated.incrementAndGet();
+                return payload;
+            }
+
+            // A retry reads its recording again; it was already counted towards progress
+            @Override public ByteBuffer rerender(int i) throws IOException {
+                int g = first + i * stride;
+                byte[] payload = replay.read(g);
+                if (rewrite) {
+                    Instant sendAt = t0.plusNanos(schedule.offsetNanos(g));
+                    payload = ReplaySource.rewrite(payload, suffix, Duration.between(replay.recordedAt(g), sendAt));
+                }
+                return ByteBuffer.wrap(codec == PayloadCodec.NONE ? payload : codec.encode(ByteBuffer.wrap(payload)));
+            }
+        };
+        return new StreamingCorpus(totalPlanned, from, generatorProps.getLookahead(), reader,
+                i -> replay.name(first + i * stride)) {
+            @Override
+            public void close() {
+                super.close();
+                try {
+                    replay.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close {}", generatorProps.getReplay().getSource(), e);
+                }
+            }
+        };
+    }
+
+    private boolean isStreaming() {
+        return "streaming".equalsIgnoreCase(generatorProps.getMode());
+    }
+
+    private boolean isOpenLoop() {
+        return !"closed".equalsIgnoreCase(sendProps.getMode());
+    }
+
+    /** One-shot: generate all files immediately, no scheduling, no sending. */
+    public synchronized int generateAllNow() {
+        required(sampleProps.getPath(), "sample.path");
+        required(outputProps.getDir(), "output.dir");
+        required(sampleProps.getDeliveryNodeListPath(), "sample.deliveryNodeListPath");
+
+        WorkloadSchedule schedule = workload();
+        int N = schedule.size();
+        int planned = shard == null ? N : shard.size(N);
+
+        finish();
+        totalPlanned = planned;
+        fingerprint = fingerprint(null);
+        replaceCorpus(preGenerateAll(schedule, fingerprint));
+        sent.set(0);
+        failed.set(0);
+        dropped.set(0);
+        pacer = null;
+        log.info("Campaign {}: {} payloads ready in {}", id, planned, outputProps.getDir());
+        return planned;
+    }
+
+    /** The global send plan: {@code scheduler.profile} when set, otherwise one payload every interval. */
+    private WorkloadSchedule workload() {
+        List<SchedulerProperties.Phase> profile = schedulerProps.getProfile();
+        if (profile != null && !profile.isEmpty()) {
+            WorkloadSchedule schedule = WorkloadSchedule.compile(profile, schedulerProps.getSeed());
+            log.info("Campaign {}: profile of {} phases plans {} payloads over {}", id, profile.size(),
+                    schedule.size(), schedule.duration());
+            return schedule;
+        }
+        Duration duration = parseDuration(schedulerProps.getDuration());
+        Duration period   = parseDuration(schedulerProps.getInterval());
+        return WorkloadSchedule.fixedRate(computeTotalPlanned(duration, period), period, duration);
+    }
+
+    /**
+     * SHA-256 over everything a generated corpus depends on: the sample, the delivery-node pool, the scheduler
+     * settings, the compression and this instance's shard. Two runs with the same fingerprint render the same payloads
+     * (apart from the timestamp base, which the manifest records).
+     */
+    private String fingerprint(ReplaySource replay) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            StringBuilder inputs = new StringBuilder();
+            if (replay != null) {
+                replay.digest(sha);
+                inputs.append("replay:").append(generatorProps.getReplay().getTimeScale())
+                        .append(',').append(generatorProps.getReplay().isRewrite());
+            } else {
+                sha.update(Files.readAllBytes(Paths.get(sampleProps.getPath())));
+                ensureDnPool().digest(sha);
+                inputs.append(schedulerProps.getInterval()).append('|').append(schedulerProps.getDuration())
+                        .append('|').append(schedulerProps.getMaxOutagesTotal())
+                        .append('|').append(schedulerProps.getMaxReachPctByMaxHour())
+                        .append('|').append(schedulerProps.getAvgNodesPerFile())
+                        .append('|').append(schedulerProps.getRamp().getShape())
+                        .append('|').append(schedulerProps.getRamp().getA())
+                        .append('|').append(schedulerProps.getRamp().getK())
+                        .append('|').append(schedulerProps.getSeed());
+                for (SchedulerProperties.Phase p : schedulerProps.getProfile()) {
+                    inputs.append("|phase:").append(p.getType()).append(',').append(p.getDuration())
+                            .append(',').append(p.getRate()).append(',').append(p.getFrom()).append(',').append(p.getTo())
+                            .append(',').append(p.getPeak()).append(',').append(p.getPeakDuration())
+                            .append(',').append(p.getSteps()).append(',').append(p.getArrivals());
+                }
+            }
+            GeneratorProperties.Lifecycle lifecycle = generatorProps.getLifecycle();
+            if (replay == null && lifecycle.isEnabled()) {
+                inputs.append("|lifecycle:").append(lifecycle.getFeed()).append(',').append(lifecycle.getMeanRestore())
+                        .append(',').append(lifecycle.getMaxActive());
+            }
+            inputs.append("|codec:").append(codec.getName())
+                    .append(',').append(generatorProps.getCompression().getLevel());
+            Shard shard = this.shard;
+            if (shard != null) {
+                inputs.append("|shard:").append(shard.index).append('/').append(shard.count).append('@').append(shard.startAt);
+            }
+            sha.update(inputs.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : sha.digest()) hex.append(String.format("%02x", b));
+            return hex.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the corpus inputs", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void replaceCorpus(PayloadCorpus next) {
+        PayloadCorpus previous = corpus;
+        corpus = next;
+        if (previous != null) {
+            try {
+                previous.close();
+            } catch (IOException e) {
+                log.warn("Failed to close previous corpus", e);
+            }
+        }
+    }
+
+    /**
+     * Generate all N payloads on a fork-join pool, either as one file each or into a single memory-mapped segment
+     * ({@code generator.corpus}). Every input a payload depends on (its timestamp and its slice of the
+     * delivery-node pool) is a pure function of its index, so the output is byte-identical to a sequential run.
+     */
+    private PayloadCorpus preGenerateAll(WorkloadSchedule schedule, String fingerprint) {
+        ForkJoinPool pool = null;
+        try {
+            Path outDir = Paths.get(outputProps.getDir());
+            Files.createDirectories(outDir);
+            String corpusType = "segment".equalsIgnoreCase(generatorProps.getCorpus()) ? "segment" : "files";
+            if (generatorProps.isReuse()) {
+                CorpusManifest manifest = CorpusManifest.load(outDir);
+                PayloadCorpus reused = manifest == null ? null : manifest.open(outDir, fingerprint, corpusType);
+                if (reused != null) {
+                    generated.set(reused.size());
+                    log.info("Campaign {}: reusing the {} payloads generated into {} at {}", id, reused.size(),
+                            outDir, manifest.getBase());
+                    return reused;
+                }
+            }
+            CorpusManifest.delete(outDir);
+            PayloadPlan plan = new PayloadPlan(schedule, null);
+            generated.set(0);
+
+            int parallelism = generatorProps.getParallelism() > 0
+                    ? generatorProps.getParallelism() : Runtime.getRuntime().availableProcessors();
+            pool = new ForkJoinPool(parallelism);
+            PayloadCorpus corpus = "segment".equals(corpusType)
+                    ? writeSegment(plan, outDir, pool, parallelism)
+                    : writeFiles(plan, outDir, pool);
+            plan.logCompression();
+            List<String> names = new ArrayList<>();
+            if (corpus instanceof FileCorpus) {
+                for (int i = 0; i < corpus.size(); i++) names.add(corpus.name(i));
+            }
+            try {
+                new CorpusManifest(fingerprint, corpusType, plan.base, names, plan.checksums).write(outDir);
+            } catch (IOException e) {
+                log.warn("Campaign {}: could not write the corpus manifest, the next start regenerates: {}", id,
+                        e.toString());
+            }
+            return corpus;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to pre-generate files", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while pre-generating files", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to pre-generate files", e.getCause());
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+    }
+
+    private PayloadCorpus writeFiles(PayloadPlan plan, Path outDir, ForkJoinPool pool)
+            throws InterruptedException, ExecutionException {
+        List<Path> files = pool.submit(() -> IntStream.rangeClosed(1, plan.size)
+                .parallel()
+                .mapToObj(t -> {
+                    try {
+                        Path file = outDir.resolve(plan.fileName(t) + codec.getFileSuffix());
+                        if (plan.estimatedBytes(t) > streamAboveBytes()) {
+                            writeStreamed(plan, t, outDir, file);
+                            return file;
+                        }
+                        PayloadTemplate.Buffer buf = renderTracked(plan, t);
+                        if (codec == PayloadCodec.NONE) {
+                            plan.checksums[t - 1] = CorpusManifest.checksum(buf.asByteBuffer());
+                            long start = System.nanoTime();
+                            buf.writeTo(file);
+                            metrics.written(System.nanoTime() - start, buf.size());
+                            return file;
+                        }
+                        byte[] encoded = encode(plan, buf);
+                        plan.checksums[t - 1] = CorpusManifest.checksum(ByteBuffer.wrap(encoded));
+                        long start = System.nanoTime();
+                        if (generatorProps.getCompression().isKeepRaw()) {
+                            buf.writeTo(outDir.resolve(plan.fileName(t)));
+                        }
+                        Files.write(file, encoded);
+                        metrics.written(System.nanoTime() - start, encoded.length);
+                        return file;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .collect(Collectors.toList())).get();
+        return new FileCorpus(files);
+    }
+
+    /**
+     * Render payload t straight into its file through a send.body.chunkKb buffer, compressing on the way, for payloads
+     * too large to render into memory first. Writing overlaps rendering and is counted as generation time; these
+     * payloads are left out of the compression ratio.
+     */
+    private void writeStreamed(PayloadPlan plan, int t, Path outDir, Path file) throws IOException {
+        boolean keepRaw = codec != PayloadCodec.NONE && generatorProps.getCompression().isKeepRaw();
+        Path raw = outDir.resolve(plan.fileName(t));
+        if (keepRaw) {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(raw), chunkBytes())) {
+                renderTracked(plan, t, out);
+            }
+        }
+        CheckedOutputStream stored = new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), chunkBytes()), new CRC32C());
+        try (OutputStream out = codec.wrap(stored)) {
+            if (keepRaw) {
+                Files.copy(raw, out);
+            } else {
+                renderTracked(plan, t, out);
+            }
+        }
+        plan.checksums[t - 1] = (int) stored.getChecksum().getValue();
+        metrics.written(Files.size(file));
+    }
+
+    /**
+     * Nothing touches the disk: payloads are rendered on demand from the same deterministic plan, starting at local
+     * payload {@code from} (where a resumed run picks up). Payloads larger
+     * than send.body.streamAboveKb only hold an empty place in the lookahead window; they are rendered chunk by chunk
+     * into the request body as it is sent.
+     */
+    private PayloadCorpus streamingCorpus(WorkloadSchedule schedule, OffsetDateTime base, int from) {
+        try {
+            PayloadPlan plan = new PayloadPlan(schedule, base);
+            generated.set(from);
+            long streamAbove = streamAboveBytes();
+            // Placeholders for payloads rendered into the request body: a first attempt and a retry
+            ByteBuffer deferred = ByteBuffer.allocate(0);
+            ByteBuffer deferredAgain = ByteBuffer.allocate(0);
+            StreamingCorpus.Renderer renderer = new StreamingCorpus.Renderer() {
+                @Override public ByteBuffer render(int i) throws IOException {
+                    return plan.estimatedBytes(i + 1) > streamAbove ? deferred
+                            : ByteBuffer.wrap(encode(plan, renderTracked(plan, i + 1)));
+                }
+
+                // A retry renders its payload again; it was already counted towards progress
+                @Override public ByteBuffer rerender(int i) throws IOException {
+                    return plan.estimatedBytes(i + 1) > streamAbove ? deferredAgain
+                            : ByteBuffer.wrap(encode(plan, renderUntracked(plan, i + 1)));
+                }
+            };
+            return new StreamingCorpus(plan.size, from, generatorProps.getLookahead(), renderer,
+                    i -> plan.outageId(i + 1)) {
+                @Override
+                public boolean isLargerThan(int index, long bytes) {
+                    return plan.estimatedBytes(index + 1) > bytes;
+                }
+
+                @Override
+                public Flux<DataBuffer> chunks(int index, int chunkSize) throws IOException {
+                    ByteBuffer rendered = payload(index);
+                    if (rendered != deferred && rendered != deferredAgain) return RequestBody.slices(rendered, chunkSize);
+                    boolean retry = rendered == deferredAgain;
+                    return RequestBody.render(out -> {
+                        try (OutputStream encoded = codec.wrap(out)) {
+                            if (retry) {
+                                plan.render(index + 1, encoded);
+                            } else {
+                                renderTracked(plan, index + 1, encoded);
+                            }
+                        }
+                    }, chunkSize);
+                }
+            };
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to prepare payload generation", e);
+        }
+    }
+
+    /** Render in parallel batches, then append each batch in index order to the segment. */
+    private PayloadCorpus writeSegment(PayloadPlan plan, Path outDir, ForkJoinPool pool, int parallelism)
+            throws IOException, InterruptedException, ExecutionException {
+        int batch = parallelism * 64;
+        int written = 0;
+        try (SegmentCorpus.Writer writer = new SegmentCorpus.Writer(outDir)) {
+            for (int from = 1; from <= plan.size; from += batch) {
+                int first = from;
+                int last = Math.min(plan.size, from + batch - 1);
+                List<byte[]> rendered = pool.submit(() -> IntStream.rangeClosed(first, last)
+                        .parallel()
+                        .mapToObj(t -> {
+                            try {
+                                // Too large to hold a batch of in memory: rendered below, straight into the segment
+                                if (plan.estimatedBytes(t) > streamAboveBytes()) return null;
+                                return encode(plan, renderTracked(plan, t));
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        })
+                        .collect(Collectors.toList())).get();
+                for (byte[] payload : rendered) {
+                    if (payload == null) {
+                        CheckedOutputStream stored = new CheckedOutputStream(writer.append(chunkBytes()), new CRC32C());
+                        try (OutputStream out = codec.wrap(stored)) {
+                            renderTracked(plan, written + 1, out);
+                        }
+                        plan.checksums[written++] = (int) stored.getChecksum().getValue();
+                        metrics.written(writer.lastSize());
+                        continue;
+                    }
+                    plan.checksums[written++] = CorpusManifest.checksum(ByteBuffer.wrap(payload));
+                    long start = System.nanoTime();
+                    writer.append(ByteBuffer.wrap(payload));
+                    metrics.written(System.nanoTime() - start, payload.length);
+                }
+            }
+            writer.commit();
+        }
+        return SegmentCorpus.open(outDir);
+    }
+
+    /** Render local payload j into this thread's reusable buffer and count it towards progress. */
+    private PayloadTemplate.Buffer renderTracked(PayloadPlan plan, int j) throws IOException {
+        PayloadTemplate.Buffer buf = RENDER_BUFFER.get();
+        buf.reset();
+        renderTracked(plan, j, buf);
+        return buf;
+    }
+
+    /** Render local payload j into {@code out} and count it towards progress. */
+    private void renderTracked(PayloadPlan plan, int j, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        plan.render(j, out);
+        metrics.generated(System.nanoTime() - start);
+        int done = generated.incrementAndGet();
+        if (done % plan.progressStep == 0) log.info("Generated {}/{} payloads", done, plan.size);
+    }
+
+    /** Render local payload j into this thread's reusable buffer without counting it. */
+    private static PayloadTemplate.Buffer renderUntracked(PayloadPlan plan, int j) throws IOException {
+        PayloadTemplate.Buffer buf = RENDER_BUFFER.get();
+        buf.reset();
+        plan.render(j, buf);
+        return buf;
+    }
+
+    /** Apply generator.compression to a rendered payload; the returned array is owned by the caller. */
+    private byte[] encode(PayloadPlan plan, PayloadTemplate.Buffer raw) throws IOException {
+        byte[] encoded = codec.encode(raw.asByteBuffer());
+        plan.rawBytes.add(raw.size());
+        plan.encodedBytes.add(encoded.length);
+        return encoded;
+    }
+
+    /**
+     * Everything needed to render this instance's payloads of an N-payload campaign; safe to share across threads.
+     * Local payload j (1-based) is global payload t = globalIndex(j): the same as j unless the campaign is a shard.
+     */
+    private final class PayloadPlan {
+        final int N;
+        final int size;
+        final int shardIndex;
+        final int shardCount;
+        final WorkloadSchedule schedule;
+        final PayloadTemplate template;
+        final DnPool dnPool;
+        // Per local payload (index j - 1): outages in the file and delivery nodes per outage
+        final int[] outages;
+        final int[] nodes;
+        final long[] dnOffsets;
+        final OffsetDateTime base;
+        final int progressStep;
+        // CRC32C of each stored payload, for the corpus manifest
+        final int[] checksums;
+        final LongAdder rawBytes = new LongAdder();
+        final LongAdder encodedBytes = new LongAdder();
+        // Set with generator.lifecycle: outages[] are then the outages each payload opens
+        final OutageLifecycle lifecycle;
+
+        PayloadPlan(WorkloadSchedule schedule, OffsetDateTime base) throws IOException {
+            Shard shard = Campaign.this.shard;
+            this.N = schedule.size();
+            this.shardIndex = shard == null ? 0 : shard.index;
+            this.shardCount = shard == null ? 1 : shard.count;
+            this.size = shard == null ? N : shard.size(N);
+            this.schedule = schedule;
+            this.template = PayloadTemplate.compile(Paths.get(sampleProps.getPath()));
+            this.dnPool = ensureDnPool();
+            this.outages = new int[size];
+            this.nodes = new int[size];
+            sizePayloads();
+            this.dnOffsets = dnOffsets();
+            // Shards share the coordinator's start instant so their timestamps line up
+            this.base = base != null ? base
+                    : shard == null ? OffsetDateTime.now(PHOENIX) : shard.startAt.atZone(PHOENIX).toOffsetDateTime();
+            this.checksums = new int[size];
+            this.progressStep = Math.max(1, size / 10);
+            this.lifecycle = generatorProps.getLifecycle().isEnabled() ? lifecycle() : null;
+        }
+
+        private OutageLifecycle lifecycle() {
+            long[] offsets = new long[size];
+            for (int j = 1; j <= size; j++) offsets[j - 1] = schedule.offsetNanos(globalIndex(j) - 1);
+            // Shards share the base instant, so their outage ids need the shard to stay unique
+            String idPrefix = "outage-" + base.format(FILE_STAMP) + (shardCount > 1 ? "-s" + shardIndex : "") + "-";
+            OutageLifecycle lifecycle = new OutageLifecycle(generatorProps.getLifecycle(), schedulerProps.getSeed(),
+                    offsets, outages, nodes, dnOffsets, base, idPrefix);
+            log.info("Campaign {}: {} outages open over the run and are restored after {} on average, {} feed", id,
+                    lifecycle.totalOutages(), generatorProps.getLifecycle().getMeanRestore(),
+                    generatorProps.getLifecycle().getFeed());
+            return lifecycle;
+        }
+
+        void logCompression() {
+            if (codec == PayloadCodec.NONE || encodedBytes.sum() == 0) return;
+            log.info("Campaign {}: {} compressed {} bytes to {} ({}x)", id, codec.getName(), rawBytes.sum(),
+                    encodedBytes.sum(), String.format("%.1f", (double) rawBytes.sum() / encodedBytes.sum()));
+        }
+
+        int globalIndex(int j) {
+            return shardIndex + 1 + (j - 1) * shardCount;
+        }
+
+        /**
+         * Fixed-rate plans keep the classic sizing: the outage budget spread evenly and nodes following
+         * {@code scheduler.ramp}. Profiled plans follow the load curve instead: each payload's share of
+         * {@code maxOutagesTotal} and its node count grow with the rate it is sent at, and node counts are scaled down
+         * if the payloads up to the peak would touch more than {@code maxReachPctByMaxHour} of the pool.
+         */
+        private void sizePayloads() {
+            if (!schedule.isShaped()) {
+                int perFile = outagesPerFile(N);
+                for (int j = 1; j <= size; j++) {
+                    outages[j - 1] = perFile;
+                    nodes[j - 1] = nodesPerOutage(globalIndex(j), N);
+                }
+                return;
+            }
+            int avgNodes = Math.max(1, schedulerProps.getAvgNodesPerFile());
+            double totalIntensity = 0;
+            for (int g = 0; g < N; g++) totalIntensity += schedule.intensity(g);
+            double outageScale = schedulerProps.getMaxOutagesTotal() / Math.max(Double.MIN_VALUE, totalIntensity);
+
+            // Every shard sizes the global timeline the same way, so the reach cap uses the whole pool
+            int peak = schedule.peakIndex();
+            double reached = 0;
+            for (int g = 0; g <= peak; g++) {
+                reached += outagesFor(g, outageScale) * (avgNodes * (0.5 + schedule.intensity(g)));
+            }
+            double reachCap = schedulerProps.getMaxReachPctByMaxHour() * dnPool.size() * shardCount;
+            double nodeScale = reached > reachCap ? reachCap / reached : 1;
+            if (nodeScale < 1) {
+                log.info("Campaign {}: scaling nodes per outage by {} to reach at most {} of the pool by the peak",
+                        id, String.format("%.3f", nodeScale), schedulerProps.getMaxReachPctByMaxHour());
+            }
+            for (int j = 1; j <= size; j++) {
+                int g = globalIndex(j) - 1;
+                outages[j - 1] = outagesFor(g, outageScale);
+                nodes[j - 1] = Math.max(1, (int) Math.round(avgNodes * (0.5 + schedule.intensity(g)) * nodeScale));
+            }
+        }
+
+        private int outagesFor(int g, double outageScale) {
+            return Math.max(1, (int) Math.round(schedule.intensity(g) * outageScale));
+        }
+
+        /**
+         * Prefix sums of delivery nodes consumed per payload: local payload j starts at offset [j - 1] in the pool.
+         * Pre-partitioning the pool this way replaces a shared cursor and lets payloads be generated in any order.
+         */
+        private long[] dnOffsets() {
+            long[] offsets = new long[size + 1];
+            for (int j = 1; j <= size; j++) {
+                offsets[j] = offsets[j - 1] + (long) outages[j - 1] * nodes[j - 1];
+            }
+            return offsets;
+        }
+
+        OffsetDateTime scheduledLocal(int j) {
+            return base.plusNanos(schedule.offsetNanos(globalIndex(j) - 1));
+        }
+
+        String outageId(int j) {
+            return "outage-" + scheduledLocal(j).format(FILE_STAMP);
+        }
+
+        /**
+         * Lower-bound guess of local payload j's uncompressed size, from its delivery-node entries alone; payloads
+         * guessed above send.body.streamAboveKb are never rendered whole into memory.
+         */
+        long estimatedBytes(int j) {
+            if (lifecycle != null) return lifecycle.minNodes(j) * MIN_NODE_BYTES;
+            return (long) outages[j - 1] * nodes[j - 1] * MIN_NODE_BYTES;
+        }
+
+        String fileName(int j) {
+            return String.format("%03d-%s.json", globalIndex(j), outageId(j));
+        }
+
+        void render(int j, OutputStream out) throws IOException {
+            if (lifecycle != null) {
+                lifecycle.render(j, out, template, dnPool);
+                return;
+            }
+            // Derived from the payload's scheduled slot (not the wall clock) so regeneration is reproducible
+            String timestamp = scheduledLocal(j).withOffsetSameInstant(ZoneOffset.UTC).toString();
+            template.render(out, outageId(j), timestamp, outages[j - 1], nodes[j - 1], dnOffsets[j - 1], dnPool);
+        }
+    }
+
+    private int outagesPerFile(int N) {
+        return Math.max(1, (int) Math.round(schedulerProps.getMaxOutagesTotal() * (1.0 / N)));
+    }
+
+    private int nodesPerOutage(int t, int N) {
+        double r = ramp(t, N,
+                schedulerProps.getRamp().getShape(),
+                schedulerProps.getRamp().getA(),
+                schedulerProps.getRamp().getK());
+        int avgNodes = Math.max(1, schedulerProps.getAvgNodesPerFile());
+        return Math.max(1, (int) Math.round(avgNodes * (0.5 + r)));
+    }
+
+    private DnPool ensureDnPool() throws IOException {
+        if (dnPool == null) {
+            synchronized (dnLock) {
+                if (dnPool == null) {
+                    Path source = Paths.get(required(sampleProps.getDeliveryNodeListPath(),
+                            "sample.deliveryNodeListPath"));
+                    String cache = sampleProps.getDeliveryNodeCachePath();
+                    dnPool = DnPool.load(source, cache == null
+                            ? Paths.get(outputProps.getDir(), "dn-pool.bin")
+                            : cache.isBlank() ? null : Paths.get(cache));
+                }
+            }
+        }
+        return dnPool;
+    }
+
+    /** Turns the pacer's releases into first attempts; runs on the pacer thread. */
+    private class Sender implements Pacer.Target {
+        private final boolean openLoop;
+        private final boolean pauseWhenOpen = "pause".equalsIgnoreCase(retryProps.getBreaker().getMode());
+
+        Sender(boolean openLoop) {
+            this.openLoop = openLoop;
+        }
+
+        @Override public void release(int next, long intended, long lagNanos) {
+            try {
+                if (Instant.now().isAfter(endsAt)) { finish(); return; }
+                if (next >= corpus.size()) { finish(); return; }
+                metrics.scheduleLag(lagNanos);
+                latency.recordLag(lagNanos);
+                // Read once and shared by every target the payload goes to; each post wraps its own view
+                Mono<RequestBody> body = Mono.fromCallable(() -> body(next)).cache();
+                List<Targets.Target> route = targets.route(next);
+                if (openLoop) {
+                    for (Targets.Target target : route) {
+                        if (admit(target)) dispatch(target, next, intended, body);
+                    }
+                } else {
+                    // Only the first attempts block; a failure is retried from the retry queue
+                    List<Mono<Void>> posts = new ArrayList<>(route.size());
+                    for (Targets.Target target : route) {
+                        if (admit(target)) posts.add(attempt(target, next, 0, intended, body));
+                    }
+                    Mono.when(posts).block();
+                }
+            } catch (Exception e) {
+                completed(null, LatencyRecorder.classOf(e), intended);
+                metrics.error(e);
+                failed.incrementAndGet();
+                log.error("Sender error", e);
+            }
+            released.set(next + 1);
+            checkpoint(false);
+        }
+
+        @Override public void skip(int next, long intended, long lagNanos) {
+            latency.recordLag(lagNanos);
+            List<Targets.Target> route = targets.route(next);
+            int total = 0;
+            for (Targets.Target target : route) total = dropped(target);
+            if ((total - 1) % 1000 < route.size()) {
+                log.warn("Campaign {}: dropping payloads more than send.pacing.maxLag behind schedule ({} ms late)",
+                        id, lagNanos / 1_000_000);
+            }
+            released.set(next + 1);
+            checkpoint(false);
+        }
+
+        @Override public void shifted(long lagNanos) {
+            endsAt = endsAt.plusNanos(lagNanos);
+            // A resumed run continues the shifted timeline
+            timelineStart = timelineStart.plusNanos(lagNanos);
+        }
+
+        @Override public void finished() {
+            finish();
+        }
+
+        /**
+         * Circuit-breaker gate for first attempts to {@code target}. While its breaker is open a post is shed (counted
+         * as dropped), or with {@code retry.breaker.mode: pause} the pacer waits until probes may go out, so the sends
+         * held back become late and follow send.pacing.lagPolicy.
+         */
+        private boolean admit(Targets.Target target) throws InterruptedException {
+            CircuitBreaker breaker = target.breaker;
+            if (breaker == null) return true;
+            while (!breaker.allowRequest()) {
+                if (!pauseWhenOpen) {
+                    dropped(target);
+                    return false;
+                }
+                Thread.sleep(Math.max(1, TimeUnit.NANOSECONDS.toMillis(breaker.remainingOpenNanos())));
+                if (!running) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Count a post to {@code target} that was due but never went out, for the campaign and the target, next to
+         * their latency; returns the campaign's dropped count.
+         */
+        private int dropped(Targets.Target target) {
+            latency.recordDropped();
+            target.latency.recordDropped();
+            target.dropped.incrementAndGet();
+            return dropped.incrementAndGet();
+        }
+
+        /** Fire-and-forget: the release returns immediately, completion is accounted asynchronously. */
+        private void dispatch(Targets.Target target, int next, long intended, Mono<RequestBody> body) {
+            if (inFlight.get() >= sendProps.getMaxInFlight()) {
+                dropped(target);
+                log.warn("Dropped {} to {}: {} posts already in flight", corpus.name(next), target.name, inFlight.get());
+                return;
+            }
+            inFlight.incrementAndGet();
+            attempt(target, next, 0, intended, body)
+                    .takeUntilOther(cancelSignal.asMono())
+                    .doFinally(s -> inFlight.decrementAndGet())
+                    .subscribe();
+        }
+    }
+
+    /**
+     * One post of payload {@code index} to {@code target}; the returned Mono completes once its outcome is accounted.
+     * A failure worth retrying is handed to the retry queue instead of being counted, so latency is recorded once per
+     * post, when it finally succeeds or gives up, and still measured from the intended time of its first attempt.
+     */
+    private Mono<Void> attempt(Targets.Target target, int index, int attempt, long intended, Mono<RequestBody> body) {
+        if (attempt == 0) {
+            firstAttempts.incrementAndGet();
+            retryQueue.firstAttempt();
+        } else {
+            retryAttempts.incrementAndGet();
+        }
+        return body
+                .flatMap(shared -> {
+                    RequestBody view = shared.view();
+                    long sentAt = System.nanoTime();
+                    return post(target, view)
+                            .doOnNext(resp -> {
+                                CircuitBreaker breaker = target.breaker;
+                                if (breaker != null) breaker.record(false);
+                                outcome(target, index, attempt, intended, sentAt, view.bytes(),
+                                        resp.getStatusCodeValue());
+                                sent.incrementAndGet();
+                                target.sent.incrementAndGet();
+                            })
+                            .onErrorResume(e -> {
+                                failedAttempt(target, index, attempt, intended, sentAt, view.bytes(), e);
+                                return Mono.empty();
+                            });
+                })
+                .onErrorResume(e -> {
+                    // The payload could not be read; nothing was sent
+                    failedAttempt(target, index, attempt, intended, System.nanoTime(), 0, e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /** Payload {@code index} whole, or in send.body.chunkKb chunks if it is larger than send.body.streamAboveKb. */
+    private RequestBody body(int index) throws IOException {
+        PayloadCorpus c = corpus;
+        if (c.isLargerThan(index, streamAboveBytes())) {
+            return RequestBody.chunked(c.chunks(index, chunkBytes()));
+        }
+        return RequestBody.whole(c.payload(index));
+    }
+
+    private int chunkBytes() {
+        return Math.max(1, sendProps.getBody().getChunkKb()) * 1024;
+    }
+
+    private long streamAboveBytes() {
+        return Math.max(0, sendProps.getBody().getStreamAboveKb()) * 1024L;
+    }
+
+    private void failedAttempt(Targets.Target target, int index, int attempt, long intended, long sentAt, int bytes,
+                               Throwable e) {
+        boolean targetFailure = isTargetFailure(e);
+        CircuitBreaker breaker = target.breaker;
+        if (breaker != null) breaker.record(targetFailure);
+        if (targetFailure && attempt < retryProps.getMaxAttempts()
+                && retryQueue.offer(() -> retry(target, index, attempt + 1, intended), backoffNanos(attempt, e,
+                        TimeUnit.SECONDS.toNanos(retryProps.getBackoffSeconds()),
+                        parseDuration(retryProps.getMaxBackoff()).toNanos()))) {
+            metrics.retry(e);
+            return;
+        }
+        outcome(target, index, attempt, intended, sentAt, bytes, LatencyRecorder.statusOf(e));
+        metrics.error(e);
+        failed.incrementAndGet();
+        target.failed.incrementAndGet();
+        log.error("Post to {} failed for {}: {}", target.name, corpus.name(index), e.toString());
+    }
+
+    /**
+     * Started by the retry queue once the backoff has elapsed; waits out an open breaker without using budget. The
+     * payload is read again, so retries to different targets do not share a body.
+     */
+    private void retry(Targets.Target target, int index, int attempt, long intended) {
+        RetryQueue queue = retryQueue;
+        CircuitBreaker breaker = target.breaker;
+        if (breaker != null && !breaker.allowRequest()) {
+            queue.defer(() -> retry(target, index, attempt, intended),
+                    Math.max(1_000_000, breaker.remainingOpenNanos()));
+            queue.done();
+            return;
+        }
+        Mono<Void> post = attempt(target, index, attempt, intended, Mono.fromCallable(() -> body(index)))
+                .takeUntilOther(cancelSignal.asMono())
+                .doFinally(s -> {
+                    inFlight.decrementAndGet();
+                    queue.done();
+                });
+        // Counted once the post is built: a retry that fails before then is logged by the queue, not left in flight
+        inFlight.incrementAndGet();
+        post.subscribe();
+    }
+
+    /** 5xx, 408, 429 and anything that is not an HTTP response (refused, reset, timed out): the target is struggling. */
+    static boolean isTargetFailure(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof WebClientResponseException) {
+                int status = ((WebClientResponseException) t).getRawStatusCode();
+                return status >= 500 || status == 408 || status == 429;
+            }
+            if (t.getCause() == t) break;
+        }
+        return true;
+    }
+
+    /**
+     * The target's Retry-After if it sent one, otherwise exponential backoff with jitter from {@code base}; either way
+     * capped at {@code max} (retry.maxBackoff).
+     */
+    static long backoffNanos(int attempt, Throwable error, long base, long max) {
+        if (error instanceof WebClientResponseException) {
+            String retryAfter = ((WebClientResponseException) error).getHeaders().getFirst("Retry-After");
+            if (retryAfter != null && retryAfter.trim().matches("\\d+")) {
+                String seconds = retryAfter.trim();
+                return seconds.length() > 9 ? max : Math.min(max, TimeUnit.SECONDS.toNanos(Long.parseLong(seconds)));
+            }
+        }
+        long backoff = attempt >= 30 ? max : Math.min(max, base << attempt);
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    /** Record a completion for the campaign and, unless it never got as far as a target, for {@code target}. */
+    private long completed(Targets.Target target, int statusClass, long intendedNanos) {
+        long now = System.nanoTime();
+        latency.record(statusClass, intendedNanos, now);
+        if (target != null) target.latency.record(statusClass, intendedNanos, now);
+        metrics.completed(statusClass, intendedNanos, now);
+        return now;
+    }
+
+    /** Account the final outcome of a post, and journal it with the attempt that produced it. */
+    private void outcome(Targets.Target target, int index, int attempt, long intended, long sentAt, int bytes,
+                         int status) {
+        long now = completed(target, LatencyRecorder.classOf(status), intended);
+        OutcomeJournal j = journal;
+        if (j != null) j.record(index, attempt + 1, intended, sentAt, now, status, bytes, target.ordinal);
+    }
+
+    /**
+     * Post a whole body with its Content-Length, or a chunked one with chunked transfer encoding. Bodies are handed to
+     * Reactor Netty as buffers wrapped over the corpus, never as Strings.
+     */
+    private Mono<ResponseEntity<Void>> post(Targets.Target target, RequestBody body) {
+        WebClient.RequestBodySpec req = target.client.post().uri(target.endpoint)
+                .header("Content-Type", "application/json");
+        if (codec.getContentEncoding() != null) {
+            req = req.header("Content-Encoding", codec.getContentEncoding());
+        }
+
+        TargetProperties.Auth auth = target.auth;
+        String type = Optional.ofNullable(auth).map(TargetProperties.Auth::getType).orElse("none");
+
+        if ("bearer".equalsIgnoreCase(type) && auth.getToken() != null) {
+            req = req.header("Authorization", "Bearer " + auth.getToken());
+        } else if ("header".equalsIgnoreCase(type) && auth.getHeaderName() != null) {
+            req = req.header(auth.getHeaderName(), auth.getHeaderValue());
+        }
+
+        if (!body.isChunked()) {
+            req = req.contentLength(body.contentLength());
+        }
+        return req.body(BodyInserters.fromDataBuffers(body.publisher(metrics::sent)))
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    private static double ramp(int t, int N, String shape, double a, double k) {
+        double x = Math.max(0, Math.min(1, (double) t / (double) N));
+        switch (shape.toLowerCase()) {
+            case "linear": return x;
+            case "exp":
+                double ek = Math.expm1(k);
+                return Math.expm1(k * x) / (ek == 0 ? 1 : ek);
+            default: // sigmoid
+                double s  = 1.0 / (1.0 + Math.exp(-a * (x - 0.5)));
+                double s0 = 1.0 / (1.0 + Math.exp(-a * (0 - 0.5)));
+                double s1 = 1.0 / (1.0 + Math.exp(-a * (1 - 0.5)));
+                return (s - s0) / (s1 - s0);
+        }
+    }
+
+    /** A setting the campaign cannot run without; missing or blank is a configuration error, not a bug. */
+    private static String required(String value, String setting) {
+        if (value == null || value.isBlank()) throw new IllegalArgumentException(setting + " is required");
+        return value;
+    }
+
+    public static Duration parseDuration(String s) {
+        if (s == null) throw new IllegalArgumentException("A duration is required");
+        s = s.trim().toLowerCase();
+        if (s.equals("0")) return Duration.ZERO;
+        if (s.endsWith("ns")) return Duration.ofNanos(Long.parseLong(s.substring(0, s.length() - 2)));
+        if (s.endsWith("us") || s.endsWith("\u00b5s")) {
+            return Duration.ofNanos(Long.parseLong(s.substring(0, s.length() - 2)) * 1000);
+        }
+        if (s.endsWith("ms")) return Duration.ofMillis(Long.parseLong(s.substring(0, s.length() - 2)));
+        if (s.endsWith("s"))  return Duration.ofSeconds(Long.parseLong(s.substring(0, s.length() - 1)));
+        if (s.endsWith("m"))  return Duration.ofMinutes(Long.parseLong(s.substring(0, s.length() - 1)));
+        if (s.endsWith("h"))  return Duration.ofHours(Long.parseLong(s.substring(0, s.length() - 1)));
+        if (s.endsWith("d"))  return Duration.ofDays(Long.parseLong(s.substring(0, s.length() - 1)));
+        try {
+            return Duration.parse(s);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Not a duration: " + s, e);
+        }
+    }
+
+    static int computeTotalPlanned(Duration duration, Duration period) {
+        if (period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("scheduler.interval must be greater than zero");
+        }
+        double ratio = (double) duration.toNanos() / (double) period.toNanos();
+        double bounded = Math.max(1.0d, ratio);
+        return (int) Math.ceil(bounded);
+    }
+}
@@ -1,12 +1,18 @@
 package com.example.outages;
 
-import com.example.outages.config.OutputProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -14,35 +20,208 @@ import java.util.Map;
 public class CampaignController {
 
     private final CampaignService service;
-    private final OutputProperties outputProps;
+    private final Coordinator coordinator;
+    private final CapacitySearch capacitySearch;
 
-    public CampaignController(CampaignService service, OutputProperties outputProps) {
+    public CampaignController(CampaignService service, Coordinator coordinator, CapacitySearch capacitySearch) {
         this.service = service;
-        this.outputProps = outputProps;
+        this.coordinator = coordinator;
+        this.capacitySearch = capacitySearch;
     }
 
+    // --- Default campaign (application.yml) ---
+
     @PostMapping("/start")
-    public ResponseEntity<CampaignService.Status> start() {
+    public ResponseEntity<Campaign.Status> start() {
         return ResponseEntity.ok(service.start());
     }
 
     @GetMapping("/status")
-    public ResponseEntity<CampaignService.Status> status() {
+    public ResponseEntity<Campaign.Status> status() {
         return ResponseEntity.ok(service.status());
     }
 
     @PostMapping("/stop")
-    public ResponseEntity<CampaignService.Status> stop() {
+    public ResponseEntity<Campaign.Status> stop() {
         return ResponseEntity.ok(service.stop());
     }
 
+    @GetMapping("/report")
+    public ResponseEntity<LatencyRecorder.Report> report() {
+        return ResponseEntity.ok(service.report());
+    }
+
+    // HdrHistogram log of the last campaign; merge several with HistogramLogProcessor
+    @GetMapping(value = "/report/histogram", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> histogramLog() {
+        return ResponseEntity.ok(service.histogramLog());
+    }
+
+    // Per-second throughput and latency timeline read back from <output.dir>/journal
+    @GetMapping("/journal")
+    public ResponseEntity<JournalSummary> journal() {
+        return ResponseEntity.ok(service.journalSummary());
+    }
+
     // ✅ New endpoint for one-shot generation
     @PostMapping("/generateOnce")
     public ResponseEntity<Map<String, Object>> generateOnce() {
-        int generated = service.generateAllNow();
+        return generateOnce(CampaignService.DEFAULT_ID);
+    }
+
+    // --- Registry: campaigns with their own config overlay ---
+
+    // Body (optional) overrides application.yml keys, e.g. {"scheduler": {"interval": "1s"}, "output": {"dir": "..."}}
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> create(@RequestBody(required = false) Map<String, Object> overlay) {
+        try {
+            Campaign campaign = service.create(overlay);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", campaign.getId()));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<Campaign.Status>> list() {
+        return ResponseEntity.ok(service.list());
+    }
+
+    @PostMapping("/{id}/start")
+    public ResponseEntity<Campaign.Status> start(@PathVariable String id) {
+        return ResponseEntity.ok(campaign(id).start());
+    }
+
+    @GetMapping("/{id}/status")
+    public ResponseEntity<Campaign.Status> status(@PathVariable String id) {
+        return ResponseEntity.ok(campaign(id).status());
+    }
+
+    @PostMapping("/{id}/stop")
+    public ResponseEntity<Campaign.Status> stop(@PathVariable String id) {
+        return ResponseEntity.ok(campaign(id).stop());
+    }
+
+    @GetMapping("/{id}/report")
+    public ResponseEntity<LatencyRecorder.Report> report(@PathVariable String id) {
+        return ResponseEntity.ok(campaign(id).report());
+    }
+
+    @GetMapping(value = "/{id}/report/histogram", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> histogramLog(@PathVariable String id) {
+        return ResponseEntity.ok(campaign(id).histogramLog());
+    }
+
+    @GetMapping("/{id}/journal")
+    public ResponseEntity<JournalSummary> journal(@PathVariable String id) {
+        return ResponseEntity.ok(campaign(id).journalSummary());
+    }
+
+    @PostMapping("/{id}/generateOnce")
+    public ResponseEntity<Map<String, Object>> generateOnce(@PathVariable String id) {
+        Campaign campaign = campaign(id);
+        int generated = campaign.generateAllNow();
         return ResponseEntity.ok(Map.of(
                 "generated", generated,
-                "outputDir", outputProps.getDir()
+                "outputDir", campaign.getOutputDir()
         ));
     }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> remove(@PathVariable String id) {
+        try {
+            if (!service.remove(id)) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No campaign " + id);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // --- Capacity search: highest rate the target sustains within an SLO ---
+
+    // Body (optional): campaign overlay plus a "search" section, e.g. {"search": {"startRate": "50/s", "slo": {"p99": "200ms"}}}
+    @PostMapping("/search")
+    public ResponseEntity<CapacitySearch.Search> search(@RequestBody(required = false) Map<String, Object> overlay) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(capacitySearch.start(overlay));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/search/{searchId}")
+    public ResponseEntity<CapacitySearch.Search> searchReport(@PathVariable String searchId) {
+        return ResponseEntity.ok(search(searchId));
+    }
+
+    @PostMapping("/search/{searchId}/stop")
+    public ResponseEntity<CapacitySearch.Search> searchStop(@PathVariable String searchId) {
+        return ResponseEntity.ok(capacitySearch.stop(search(searchId)));
+    }
+
+    private CapacitySearch.Search search(String searchId) {
+        return capacitySearch.find(searchId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No search " + searchId));
+    }
+
+    // --- Distributed: one campaign sharded across worker instances ---
+
+    // Body: {"url": "http://host-a:8081"}
+    @PostMapping("/workers")
+    public ResponseEntity<List<String>> registerWorker(@RequestBody Map<String, String> body) {
+        try {
+            coordinator.registerWorker(body.get("url"));
+            return ResponseEntity.ok(coordinator.workers());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/workers")
+    public ResponseEntity<List<String>> workers() {
+        return ResponseEntity.ok(coordinator.workers());
+    }
+
+    // Worker side: called by the coordinator, creates a campaign that runs only its shard
+    @PostMapping("/shards")
+    public ResponseEntity<Map<String, Object>> createShard(@RequestBody ShardSpec spec) {
+        try {
+            Campaign campaign = service.createShard(spec);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", campaign.getId()));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    // Body (optional): same overlay as POST /campaign, applied on every worker
+    @PostMapping("/distributed")
+    public ResponseEntity<Coordinator.Run> launch(@RequestBody(required = false) Map<String, Object> overlay) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(coordinator.launch(overlay));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    @GetMapping("/distributed/{runId}")
+    public ResponseEntity<Coordinator.DistributedStatus> distributedStatus(@PathVariable String runId) {
+        return ResponseEntity.ok(coordinator.status(run(runId)));
+    }
+
+    @PostMapping("/distributed/{runId}/stop")
+    public ResponseEntity<Coordinator.DistributedStatus> distributedStop(@PathVariable String runId) {
+        return ResponseEntity.ok(coordinator.stop(run(runId)));
+    }
+
+    private Coordinator.Run run(String runId) {
+        return coordinator.find(runId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No distributed run " + runId));
+    }
+
+    private Campaign campaign(String id) {
+        return service.find(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No campaign " + id));
+    }
 }
@@ -0,0 +1,150 @@
+package com.example.outages;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for one campaign, all tagged {@code campaign=<id>} so several campaigns can be told apart on
+ * {@code /actuator/metrics}. Cause-tagged counters are created on first use and cached; every meter is removed again on
+ * {@link #close()} when the campaign leaves the registry.
+ */
+class CampaignMetrics implements AutoCloseable {
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final List<Meter> meters = new ArrayList<>();
+    // Cause-tagged counters by "name|cause", so a failure only builds and registers its counter once
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final Timer generation;
+    private final Timer write;
+    private final Counter bytesWritten;
+    private final Counter bytesSent;
+    private final Timer[] sendLatency = new Timer[LatencyRecorder.STATUS_CLASSES.length];
+    private final AtomicLong scheduleLagNanos = new AtomicLong();
+
+    CampaignMetrics(MeterRegistry registry, String campaignId, Supplier<Number> inFlight, Supplier<Number> queueDepth,
+                    Supplier<Number> retryQueue, Supplier<Number> breakerState) {
+        this.registry = registry;
+        this.tags = Tags.of("campaign", campaignId);
+        generation = register(Timer.builder("outages.generate")
+                .description("Time to render one payload")
+                .tags(tags).register(registry));
+        write = register(Timer.builder("outages.write")
+                .description("Time to write one payload to the corpus")
+                .tags(tags).register(registry));
+        bytesWritten = register(Counter.builder("outages.bytes.written").baseUnit("bytes")
+                .tags(tags).register(registry));
+        bytesSent = register(Counter.builder("outages.bytes.sent").baseUnit("bytes")
+                .description("Request body bytes handed to the connection, retries included")
+                .tags(tags).register(registry));
+        for (int i = 0; i < sendLatency.length; i++) {
+            sendLatency[i] = register(Timer.builder("outages.send.latency")
+                    .description("Time from intended send to response")
+                    .tags(tags).tag("status", LatencyRecorder.STATUS_CLASSES[i])
+                    .publishPercentiles(0.5, 0.9, 0.99, 0.999)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        register(Gauge.builder("outages.send.inflight", inFlight)
+                .description("Posts sent and not yet completed")
+                .tags(tags).register(registry));
+        register(Gauge.builder("outages.queue.depth", queueDepth)
+                .description("Payloads rendered ahead of the sender (streaming mode)")
+                .tags(tags).register(registry));
+        register(Gauge.builder("outages.retry.queue", retryQueue)
+                .description("Failed posts waiting out their backoff")
+                .tags(tags).register(registry));
+        register(Gauge.builder("outages.breaker.state", breakerState)
+                .description("Circuit breaker: 0 closed, 1 half-open, 2 open")
+                .tags(tags).register(registry));
+        register(Gauge.builder("outages.schedule.lag", scheduleLagNanos, v -> v.get() / 1e9)
+                .description("How late the most recent send left compared to its intended time")
+                .baseUnit("seconds")
+                .tags(tags).register(registry));
+    }
+
+    private <M extends Meter> M register(M meter) {
+        meters.add(meter);
+        return meter;
+    }
+
+    void generated(long nanos) {
+        generation.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void written(long nanos, long bytes) {
+        write.record(nanos, TimeUnit.NANOSECONDS);
+        bytesWritten.increment(bytes);
+    }
+
+    /** A payload rendered straight into the corpus: writing overlaps rendering, so only its bytes are counted. */
+    void written(long bytes) {
+        bytesWritten.increment(bytes);
+    }
+
+    void sent(long bytes) {
+        bytesSent.increment(bytes);
+    }
+
+    void completed(int statusClass, long intendedNanos, long completedNanos) {
+        sendLatency[statusClass].record(Math.max(0, completedNanos - intendedNanos), TimeUnit.NANOSECONDS);
+    }
+
+    void scheduleLag(long nanos) {
+        scheduleLagNanos.set(Math.max(0, nanos));
+    }
+
+    void retry(Throwable cause) {
+        counter("outages.send.retries", cause);
+    }
+
+    void error(Throwable cause) {
+        counter("outages.send.errors", cause);
+    }
+
+    private void counter(String name, Throwable cause) {
+        String tag = causeOf(cause);
+        counters.computeIfAbsent(name + '|' + tag, key -> {
+            Counter c = Counter.builder(name).tags(tags).tag("cause", tag).register(registry);
+            synchronized (meters) {
+                meters.add(c);
+            }
+            return c;
+        }).increment();
+    }
+
+    /** {@code http_503} for HTTP errors, otherwise the simple class name of the innermost cause. */
+    static String causeOf(Throwable error) {
+        Throwable last = error;
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof WebClientResponseException) {
+                return "http_" + ((WebClientResponseException) t).getRawStatusCode();
+            }
+            last = t;
+            if (t.getCause() == t) break;
+        }
+        return last == null ? "unknown" : last.getClass().getSimpleName();
+    }
+
+    @Override
+    public void close() {
+        synchronized (meters) {
+            meters.forEach(registry::remove);
+            meters.clear();
+            counters.clear();
+        }
+    }
+}
@@ -1,391 +1,170 @@
 package com.example.outages;
 
 import com.example.outages.config.*;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.TaskScheduler;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.util.retry.Retry;
 
-import java.io.IOException;
-import java.nio.file.*;
-import java.time.*;
-import java.time.format.DateTimeFormatter;
+import javax.annotation.PreDestroy;
+import java.nio.file.Paths;
 import java.util.*;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
+/**
+ * Registry of campaigns. The {@value #DEFAULT_ID} campaign is bound to application.yml and backs the original
+ * {@code /campaign/start|stop|status} routes; further campaigns are created with their own config overlay and run
+ * side by side on the shared connection pool, each paced by its own thread.
+ */
 @Service
 public class CampaignService {
     private static final Logger log = LoggerFactory.getLogger(CampaignService.class);
-    private static final ZoneId PHOENIX = ZoneId.of("America/Phoenix");
-
-    private final TaskScheduler scheduler;
-    private final WebClient webClient;
-    private final SchedulerProperties schedulerProps;
-    private final TargetProperties targetProps;
-    private final SampleProperties sampleProps;
-    private final OutputProperties outputProps;
-    private final RetryProperties retryProps;
-    private final SendProperties sendProps;
-
-    public CampaignService(TaskScheduler scheduler,
-                           WebClient webClient,
+    public static final String DEFAULT_ID = "default";
+
+    private final TargetClients targetClients;
+    private final Environment env;
+    private final RegistryProperties registryProps;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Campaign> campaigns = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    public CampaignService(TargetClients targetClients,
+                           Environment env,
+                           RegistryProperties registryProps,
+                           MeterRegistry meterRegistry,
                            SchedulerProperties schedulerProps,
                            TargetProperties targetProps,
                            SampleProperties sampleProps,
                            OutputProperties outputProps,
                            RetryProperties retryProps,
-                           SendProperties sendProps) {
-        this.scheduler = scheduler;
-        this.webClient = webClient;
-        this.schedulerProps = schedulerProps;
-        this.targetProps = targetProps;
-        this.sampleProps = sampleProps;
-        this.outputProps = outputProps;
-        this.retryProps = retryProps;
-        this.sendProps = sendProps;
-    }
-
-    /** Java 11-friendly status DTO (no records). */
-    public static class Status {
-        private final boolean running;
-        private final int sentCount;
-        private final int totalPlanned;
-        private final String endpoint;
-        private final Instant startedAt;
-        private final Instant endsAt;
-
-        public Status(boolean running, int sentCount, int totalPlanned, String endpoint,
-                      Instant startedAt, Instant endsAt) {
-            this.running = running;
-            this.sentCount = sentCount;
-            this.totalPlanned = totalPlanned;
-            this.endpoint = endpoint;
-            this.startedAt = startedAt;
-            this.endsAt = endsAt;
+                           SendProperties sendProps,
+                           GeneratorProperties generatorProps) {
+        this.targetClients = targetClients;
+        this.env = env;
+        this.registryProps = registryProps;
+        this.meterRegistry = meterRegistry;
+        CampaignConfig defaults = new CampaignConfig(schedulerProps, targetProps, sampleProps, outputProps,
+                retryProps, sendProps, generatorProps);
+        campaigns.put(DEFAULT_ID, new Campaign(DEFAULT_ID, targetClients, defaults, meterRegistry));
+    }
+
+    /** Register a new campaign whose config is application.yml with {@code overlay} applied on top. */
+    public synchronized Campaign create(Map<String, Object> overlay) {
+        if (campaigns.size() >= registryProps.getMax()) {
+            throw new IllegalStateException("Campaign limit reached (campaigns.max=" + registryProps.getMax() + ")");
         }
-        public boolean isRunning() { return running; }
-        public int getSentCount() { return sentCount; }
-        public int getTotalPlanned() { return totalPlanned; }
-        public String getEndpoint() { return endpoint; }
-        public Instant getStartedAt() { return startedAt; }
-        public Instant getEndsAt() { return endsAt; }
-    }
-
-    private volatile ScheduledFuture<?> future;
-    private volatile boolean running = false;
-    private volatile Instant startedAt;
-    private volatile Instant endsAt;
-    private final AtomicInteger sent = new AtomicInteger();
-    private int totalPlanned;
-    private List<Path> pregenFiles;
-    private volatile List<String> dnPool;
-    private final Object dnLock = new Object();
-    private int dnCursor = 0;
-
-    /** Start a campaign: always pre-generate; schedule sending only if send.enabled=true. */
-    public synchronized Status start() {
-        if (running) return status();
-
-        Objects.requireNonNull(sampleProps.getPath(), "sample.path is required");
-        Objects.requireNonNull(outputProps.getDir(), "output.dir is required");
-        Objects.requireNonNull(sampleProps.getDeliveryNodeListPath(), "sample.deliveryNodeListPath is required");
-
-        boolean sending = sendProps.isEnabled(); // assumes boolean + isEnabled()
-        if (sending) {
-            Objects.requireNonNull(targetProps.getEndpoint(),
-                    "target.endpoint is required when send.enabled=true");
+        String id = "c" + nextId.incrementAndGet();
+        CampaignConfig config = CampaignConfig.bind(env, overlay);
+        if (!overridesOutputDir(overlay)) {
+            // Keep each campaign's corpus apart unless the overlay says otherwise
+            config.getOutput().setDir(Paths.get(config.getOutput().getDir(), id).toString());
         }
+        Campaign campaign = new Campaign(id, targetClients, config, meterRegistry);
+        campaigns.put(id, campaign);
+        log.info("Created campaign {} with overlay {}", id, overlay == null ? Map.of() : overlay.keySet());
+        return campaign;
+    }
 
-        Duration duration = parseDuration(schedulerProps.getDuration());
-        Duration period   = parseDuration(schedulerProps.getInterval());
-        totalPlanned = computeTotalPlanned(duration, period);
-        sent.set(0);
-        startedAt = Instant.now();
-        endsAt    = startedAt.plus(duration);
-
-        pregenFiles = preGenerateAll(totalPlanned, period);
-        log.info("Pre-generated {} files into {}", totalPlanned, outputProps.getDir());
-
-        if (sending) {
-            future = scheduler.scheduleAtFixedRate(new Sender(), period);
-            running = true;
-            log.info("Sending enabled: scheduling sender every {}", period);
-        } else {
-            running = false; // generation-only mode
-            log.info("Sending disabled: generation complete, no HTTP posts will be made.");
+    /** Worker side of a distributed campaign: register a campaign that runs only its shard of the timeline. */
+    public synchronized Campaign createShard(ShardSpec spec) {
+        Campaign campaign = create(spec.getOverlay());
+        List<String> ids = spec.getDeliveryNodeIds();
+        try {
+            campaign.assignShard(new Campaign.Shard(spec.getShardIndex(), spec.getShardCount(), spec.getStartAt(),
+                    ids == null || ids.isEmpty() ? null : DnPool.of(ids)));
+        } catch (RuntimeException e) {
+            campaigns.remove(campaign.getId());
+            throw e;
         }
-
-        return status();
-    }
-    public synchronized Status stop() {
-        if (future != null) future.cancel(false);
-        running = false;
-        return status();
+        log.info("Campaign {} is shard {}/{} starting {}", campaign.getId(), spec.getShardIndex(),
+                spec.getShardCount(), spec.getStartAt());
+        return campaign;
     }
 
-    public Status status() {
-        return new Status(running, sent.get(), totalPlanned,
-                targetProps.getEndpoint(), startedAt, endsAt);
+    private static boolean overridesOutputDir(Map<String, Object> overlay) {
+        Object output = overlay == null ? null : overlay.get("output");
+        return output instanceof Map && ((Map<?, ?>) output).containsKey("dir");
     }
 
-    /** One-shot: generate all files immediately, no scheduling, no sending. */
-    public synchronized int generateAllNow() {
-        Objects.requireNonNull(sampleProps.getPath(), "sample.path is required");
-        Objects.requireNonNull(outputProps.getDir(), "output.dir is required");
-        Objects.requireNonNull(sampleProps.getDeliveryNodeListPath(), "sample.deliveryNodeListPath is required");
-
-        Duration duration = parseDuration(schedulerProps.getDuration());
-        Duration period   = parseDuration(schedulerProps.getInterval());
-        int planned = computeTotalPlanned(duration, period);
-
-        pregenFiles = preGenerateAll(planned, period);
-        totalPlanned = planned;
-        sent.set(0);
-        running = false;
-        if (future != null) {
-            future.cancel(false);
-            future = null;
-        }
-        log.info("Pre-generated {} campaign payloads into {}", planned, outputProps.getDir());
-        return planned;
+    /** The campaign with this id, or empty if there is none. */
+    public Optional<Campaign> find(String id) {
+        return Optional.ofNullable(campaigns.get(id));
     }
 
-    private List<Path> preGenerateAll(int N, Duration period) {
-        try {
-            var mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            Path samplePath = Paths.get(sampleProps.getPath());
-            String json = Files.readString(samplePath);
-            @SuppressWarnings("unchecked")
-            Map<String,Object> sample = mapper.readValue(json, Map.class);
-
-            Path outDir = Paths.get(outputProps.getDir());
-            Files.createDirectories(outDir);
-
-            return IntStream.rangeClosed(1, N)
-                    .mapToObj(t -> {
-                        try {
-                            OffsetDateTime scheduledLocal =
-                                    OffsetDateTime.now(PHOENIX).plusSeconds(period.getSeconds() * (long)(t - 1));
-                            String outageId = "outage-" + scheduledLocal.format(
-                                    DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH-mm-ssXXX"));
-                            Map<String,Object> payload = generateFromSample(sample, t, N, outageId);
-                            Path file = outDir.resolve(String.format("%03d-%s.json", t, outageId));
-                            Files.writeString(file, mapper.writerWithDefaultPrettyPrinter().writeValueAsString(payload));
-                            return file;
-                        } catch (Exception e) {
-                            throw new RuntimeException(e);
-                        }
-                    })
-                    .collect(Collectors.toList());
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to pre-generate files", e);
-        }
+    public List<Campaign.Status> list() {
+        return campaigns.values().stream()
+                .map(Campaign::status)
+                .sorted(Comparator.comparing(Campaign.Status::getId))
+                .collect(Collectors.toList());
     }
 
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> generateFromSample(Map<String, Object> sample, int t, int N, String outageIdPrefix) throws Exception {
-        var mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-        Map<String, Object> root = mapper.readValue(mapper.writeValueAsBytes(sample), Map.class);
-
-        List<Map<String, Object>> outages = (List<Map<String, Object>>) root.get("outages");
-        if (outages == null) {
-            outages = new ArrayList<>();
-            root.put("outages", outages);
-        } else {
-            outages.clear();
-        }
-
-        double r = ramp(t, N,
-                schedulerProps.getRamp().getShape(),
-                schedulerProps.getRamp().getA(),
-                schedulerProps.getRamp().getK());
-        int maxOutagesTotal = schedulerProps.getMaxOutagesTotal();
-        int outagesThisFile = Math.max(1, (int) Math.round(maxOutagesTotal * (1.0 / N)));
-        int avgNodes = Math.max(1, schedulerProps.getAvgNodesPerFile());
-        int nodesThisFile = Math.max(1, (int) Math.round(avgNodes * (0.5 + r)));
-
-        for (int i = 0; i < outagesThisFile; i++) {
-            String outageId = outageIdPrefix + "-" + String.format("%03d", i + 1);
-
-            Map<String, Object> outageObj = new HashMap<>();
-            outageObj.put("id", outageId);
-            outageObj.putIfAbsent("startedAt", OffsetDateTime.now(ZoneOffset.UTC).toString());
-            outageObj.putIfAbsent("updatedAt", OffsetDateTime.now(ZoneOffset.UTC).toString());
-
-            List<String> dnIds = takeDnIds(nodesThisFile);
-            List<Map<String, Object>> affected = dnIds.stream()
-                    .map(dn -> {
-                        Map<String, Object> m = new HashMap<>();
-                        m.put("dnId", dn);
-                        return m;
-                    })
-                    .collect(Collectors.toList());
-
-            outageObj.put("affectedDeliveryNodes", affected);
-            outages.add(outageObj);
+    /** Stop and forget a campaign. The default campaign cannot be removed. */
+    public boolean remove(String id) {
+        if (DEFAULT_ID.equals(id)) {
+            throw new IllegalArgumentException("The default campaign cannot be removed");
         }
-        return root;
+        Campaign campaign = campaigns.remove(id);
+        if (campaign == null) return false;
+        campaign.stop();
+        campaign.close();
+        return true;
     }
 
-    // imports you may need:
-
-
-    private List<String> loadDnPool() throws IOException {
-        Path path = Paths.get(
-                Objects.requireNonNull(
-                        sampleProps.getDeliveryNodeListPath(),
-                        "sample.deliveryNodeListPath is required"
-                )
-        );
-
-        String json = Files.readString(path);
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = mapper.readTree(json);
-
-        List<String> ids = new ArrayList<>();
-
-        if (root.isArray()) {
-            // Accept ["id", ...] or [{ "id": "..." }, ...]
-            for (JsonNode n : root) {
-                if (n.isTextual()) {
-                    ids.add(n.asText());
-                } else if (n.isObject() && n.hasNonNull("id")) {
-                    ids.add(n.get("id").asText());
-                }
-            }
-        } else if (root.isObject()) {
-            // Accept { "nodes": [ { "id": "..." }, ... ] }
-            JsonNode nodes = root.get("nodes");
-            if (nodes == null || !nodes.isArray()) {
-                throw new IllegalArgumentException("Expected field 'nodes' to be an array in " + path);
-            }
-            for (JsonNode n : nodes) {
-                if (n.hasNonNull("id")) {
-                    ids.add(n.get("id").asText());
-                }
-            }
-        } else {
-            throw new IllegalArgumentException("Expected JSON array or an object with 'nodes' array in " + path);
-        }
-
-        // Clean up: trim, drop empties, de-duplicate while preserving order
-        List<String> unique = ids.stream()
-                .map(s -> s == null ? "" : s.trim())
-                .filter(s -> !s.isEmpty())
-                .distinct()
-                .collect(java.util.stream.Collectors.toList());
-
-        if (unique.isEmpty()) {
-            throw new IllegalArgumentException("No delivery node IDs found in " + path);
-        }
-        return unique;
+    public Campaign defaultCampaign() {
+        return campaigns.get(DEFAULT_ID);
     }
 
-    private List<String> ensureDnPool() throws IOException {
-        if (dnPool == null) {
-            synchronized (dnLock) {
-                if (dnPool == null) {
-                    dnPool = loadDnPool();
-                    if (dnPool.isEmpty()) {
-                    throw new IllegalStateException("Delivery node pool is empty: " + sampleProps.getDeliveryNodeListPath());
-                    }
-                }
-            }
-        }
-        return dnPool;
+    public Campaign.Status start() {
+        return defaultCampaign().start();
     }
 
-    private List<String> takeDnIds(int count) throws IOException {
-        List<String> pool = ensureDnPool();
-        List<String> out = new ArrayList<>(count);
-        synchronized (dnLock) {
-            for (int i = 0; i < count; i++) {
-                if (dnCursor >= pool.size()) dnCursor = 0;
-                out.add(pool.get(dnCursor++));
-            }
-        }
-        return out;
+    public Campaign.Status stop() {
+        return defaultCampaign().stop();
     }
 
-    private class Sender implements Runnable {
-        private int idx = 0;
-        @Override public void run() {
-            try {
-                if (Instant.now().isAfter(endsAt)) { stop(); return; }
-                if (idx >= pregenFiles.size()) { stop(); return; }
-                Path next = pregenFiles.get(idx++);
-                String body = Files.readString(next);
-                postPayload(body);
-                sent.incrementAndGet();
-                log.info("Posted {}", next.getFileName());
-            } catch (Exception e) {
-                log.error("Sender error", e);
-            }
-        }
+    public Campaign.Status status() {
+        return defaultCampaign().status();
     }
 
-    private void postPayload(String payloadJson) {
-        WebClient.RequestBodySpec req = webClient.post().uri(targetProps.getEndpoint())
-                .header("Content-Type", "application/json");
-
-        String type = Optional.ofNullable(targetProps.getAuth())
-                .map(TargetProperties.Auth::getType).orElse("none");
-
-        if ("bearer".equalsIgnoreCase(type) && targetProps.getAuth().getToken() != null) {
-            req = req.header("Authorization", "Bearer " + targetProps.getAuth().getToken());
-        } else if ("header".equalsIgnoreCase(type) && targetProps.getAuth().getHeaderName() != null) {
-            req = req.header(targetProps.getAuth().getHeaderName(), targetProps.getAuth().getHeaderValue());
-        }
+    public LatencyRecorder.Report report() {
+        return defaultCampaign().report();
+    }
 
-        req.bodyValue(payloadJson)
-                .retrieve()
-                .toBodilessEntity()
-                .retryWhen(Retry.backoff(retryProps.getMaxAttempts(),
-                        Duration.ofSeconds(retryProps.getBackoffSeconds()))
-                        .maxBackoff(Duration.ofSeconds(30)))
-                .block();
+    public String histogramLog() {
+        return defaultCampaign().histogramLog();
     }
 
-    private static double ramp(int t, int N, String shape, double a, double k) {
-        double x = Math.max(0, Math.min(1, (double) t / (double) N));
-        switch (shape.toLowerCase()) {
-            case "linear": return x;
-            case "exp":
-                double ek = Math.expm1(k);
-                return Math.expm1(k * x) / (ek == 0 ? 1 : ek);
-            default: // sigmoid
-                double s  = 1.0 / (1.0 + Math.exp(-a * (x - 0.5)));
-                double s0 = 1.0 / (1.0 + Math.exp(-a * (0 - 0.5)));
-                double s1 = 1.0 / (1.0 + Math.exp(-a * (1 - 0.5)));
-                return (s - s0) / (s1 - s0);
-        }
+    public JournalSummary journalSummary() {
+        return defaultCampaign().journalSummary();
     }
 
-    private static Duration parseDuration(String s) {
-        s = s.trim().toLowerCase();
-        if (s.endsWith("ms")) return Duration.ofMillis(Long.parseLong(s.substring(0, s.length() - 2)));
-        if (s.endsWith("s"))  return Duration.ofSeconds(Long.parseLong(s.substring(0, s.length() - 1)));
-        if (s.endsWith("m"))  return Duration.ofMinutes(Long.parseLong(s.substring(0, s.length() - 1)));
-        if (s.endsWith("h"))  return Duration.ofHours(Long.parseLong(s.substring(0, s.length() - 1)));
-        if (s.endsWith("d"))  return Duration.ofDays(Long.parseLong(s.substring(0, s.length() - 1)));
-        return Duration.parse(s);
+    public int generateAllNow() {
+        return defaultCampaign().generateAllNow();
     }
 
-    private static int computeTotalPlanned(Duration duration, Duration period) {
-        if (period.isZero() || period.isNegative()) {
-            throw new IllegalArgumentException("scheduler.interval must be greater than zero");
+    /**
+     * Resume the default campaign if the previous process stopped in the middle of its run (a send cursor is left in
+     * its output.dir). Campaigns created over the API are resumed when they are started again with the same config.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        Campaign campaign = defaultCampaign();
+        if (!registryProps.isResumeOnStartup() || !campaign.hasInterruptedRun()) return;
+        try {
+            log.info("Found an interrupted run of campaign {}, resuming it", campaign.getId());
+            campaign.start();
+        } catch (RuntimeException e) {
+            log.error("Could not resume campaign {}", campaign.getId(), e);
         }
-        double ratio = (double) duration.toNanos() / (double) period.toNanos();
-        double bounded = Math.max(1.0d, ratio);
-        return (int) Math.ceil(bounded);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        campaigns.values().forEach(Campaign::close);
     }
 }
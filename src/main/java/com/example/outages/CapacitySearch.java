@@ -0,0 +1,291 @@
+package com.example.outages;
+
+import com.example.outages.config.CampaignConfig;
+import com.example.outages.config.SearchProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds the highest send rate the target sustains within an SLO. Each step is a registry campaign holding one rate
+ * for {@code search.stepDuration}; while steps pass, the rate grows by {@code search.growth}, and after the first
+ * failing step the rate is bisected between the best passing and the lowest failing one until they are within
+ * {@code search.precision}. Every step's rate, throughput, errors and latency end up in the search report.
+ */
+@Service
+public class CapacitySearch {
+    private static final Logger log = LoggerFactory.getLogger(CapacitySearch.class);
+    // How long a finished step may take to drain posts and retries before it is stopped
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final CampaignService campaigns;
+    private final Environment env;
+    private final Map<String, Search> searches = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    public CapacitySearch(CampaignService campaigns, Environment env) {
+        this.campaigns = campaigns;
+        this.env = env;
+    }
+
+    public Optional<Search> find(String id) {
+        return Optional.ofNullable(searches.get(id));
+    }
+
+    /**
+     * Start a search in the background. {@code overlay} configures the step campaigns like {@code POST /campaign}
+     * (target, sample, send mode, ...), and its {@code search} section overrides application.yml's.
+     */
+    public Search start(Map<String, Object> overlay) {
+        SearchProperties props = CampaignConfig.binder(env, overlay)
+                .bind("search", SearchProperties.class).orElseGet(SearchProperties::new);
+        double startRate = WorkloadSchedule.parseRate(props.getStartRate());
+        double maxRate = WorkloadSchedule.parseRate(props.getMaxRate());
+        if (startRate <= 0 || maxRate < startRate) {
+            throw new IllegalArgumentException("search.startRate must be positive and at most search.maxRate");
+        }
+        if (props.getGrowth() <= 1) throw new IllegalArgumentException("search.growth must be greater than 1");
+        Search search = new Search("s" + nextId.incrementAndGet(), props);
+        searches.put(search.getId(), search);
+        Thread thread = new Thread(() -> run(search, overlay, startRate, maxRate), "search-" + search.getId());
+        thread.setDaemon(true);
+        thread.start();
+        return search;
+    }
+
+    public Search stop(Search search) {
+        search.stopping = true;
+        String current = search.currentCampaign;
+        if (current != null) campaigns.find(current).ifPresent(Campaign::stop);
+        return search;
+    }
+
+    private void run(Search search, Map<String, Object> overlay, double startRate, double maxRate) {
+        SearchProperties props = search.props;
+        double passing = 0;
+        double failing = Double.POSITIVE_INFINITY;
+        try {
+            // Grow until the SLO breaks or the ceiling is reached
+            for (double rate = startRate; search.steps.size() < props.getMaxSteps() && !search.stopping; ) {
+                if (!step(search, overlay, "grow", rate).isPassed()) {
+                    failing = rate;
+                    break;
+                }
+                passing = rate;
+                if (rate >= maxRate) break;
+                rate = Math.min(rate * props.getGrowth(), maxRate);
+            }
+            // Bisect between the best passing and the lowest failing rate
+            while (failing < Double.POSITIVE_INFINITY && failing - passing > props.getPrecision() * failing
+                    && search.steps.size() < props.getMaxSteps() && !search.stopping) {
+                double rate = (passing + failing) / 2;
+                if (step(search, overlay, "bisect", rate).isPassed()) {
+                    passing = rate;
+                } else {
+                    failing = rate;
+                }
+            }
+            search.finish(search.stopping ? "stopped" : "done", passing, failing, null);
+        } catch (RuntimeException e) {
+            log.error("Search {} failed", search.getId(), e);
+            search.finish("failed", passing, failing, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            search.finish("stopped", passing, failing, null);
+        }
+        log.info("Search {} {}: highest sustainable rate {}/s after {} steps", search.getId(), search.state,
+                String.format("%.2f", passing), search.steps.size());
+    }
+
+    /** Run one step at {@code rate} per second as its own campaign and judge it against the SLO. */
+    private Step step(Search search, Map<String, Object> overlay, String phase, double rate)
+            throws InterruptedException {
+        SearchProperties props = search.props;
+        if (!search.steps.isEmpty()) Thread.sleep(Campaign.parseDuration(props.getCooldown()).toMillis());
+        Campaign campaign = campaigns.create(stepOverlay(overlay, rate, props.getStepDuration()));
+        search.currentCampaign = campaign.getId();
+        try {
+            log.info("Search {}: step {} ({}) at {}/s as campaign {}", search.getId(), search.steps.size() + 1,
+                    phase, String.format("%.2f", rate), campaign.getId());
+            campaign.start();
+            long deadline = System.nanoTime() + Campaign.parseDuration(props.getStepDuration()).toNanos()
+                    + DRAIN_TIMEOUT.toNanos();
+            Campaign.Status status = campaign.status();
+            while (status.isRunning() || status.getInFlight() > 0 || status.getRetryQueued() > 0) {
+                if (search.stopping || System.nanoTime() > deadline) {
+                    status = campaign.stop();
+                    break;
+                }
+                TimeUnit.MILLISECONDS.sleep(250);
+                status = campaign.status();
+            }
+            Step step = judge(search.steps.size() + 1, phase, rate, campaign.getId(), status, campaign.report(),
+                    props.getSlo());
+            search.steps.add(step);
+            log.info("Search {}: {}/s {}: p99 {} ms, errors {}, drops {}{}", search.getId(),
+                    String.format("%.2f", rate), step.isPassed() ? "passed" : "failed", step.getP99Ms(),
+                    String.format("%.4f", step.getErrorRate()), String.format("%.4f", step.getDropRate()),
+                    step.getViolation() == null ? "" : " (" + step.getViolation() + ")");
+            return step;
+        } finally {
+            search.currentCampaign = null;
+            campaigns.remove(campaign.getId());
+        }
+    }
+
+    /** {@code overlay} with the schedule replaced by a single hold at {@code rate}, streamed and never resumed. */
+    static Map<String, Object> stepOverlay(Map<String, Object> overlay, double rate, String duration) {
+        Map<String, Object> step = new LinkedHashMap<>(overlay == null ? Map.of() : overlay);
+        step.remove("search");
+        Map<String, Object> phase = new LinkedHashMap<>();
+        phase.put("type", "hold");
+        phase.put("duration", duration);
+        phase.put("rate", BigDecimal.valueOf(rate).toPlainString() + "/s");
+        step.put("scheduler", merge(step.get("scheduler"), Map.of("profile", List.of(phase))));
+        step.put("generator", merge(step.get("generator"), Map.of("mode", "streaming")));
+        step.put("send", merge(step.get("send"), Map.of("enabled", true, "resume", false)));
+        return step;
+    }
+
+    private static Map<String, Object> merge(Object section, Map<String, Object> values) {
+        Map<String, Object> merged = new LinkedHashMap<>();
+        if (section instanceof Map) ((Map<?, ?>) section).forEach((k, v) -> merged.put(String.valueOf(k), v));
+        merged.putAll(values);
+        return merged;
+    }
+
+    static Step judge(int index, String phase, double rate, String campaignId, Campaign.Status status,
+                      LatencyRecorder.Report report, SearchProperties.Slo slo) {
+        LatencyRecorder.Stats overall = report.getOverall();
+        long attempted = status.getSentCount() + status.getFailedCount();
+        double errorRate = attempted == 0 ? 0 : (double) status.getFailedCount() / attempted;
+        // Counts are posts, which outnumber payloads when they are mirrored to several targets
+        long planned = Math.max(status.getTotalPlanned(), attempted + status.getDroppedCount());
+        double dropRate = planned == 0 ? 0 : (double) status.getDroppedCount() / planned;
+        double p99Limit = Campaign.parseDuration(slo.getP99()).toNanos() / 1e6;
+        String violation = null;
+        if (attempted == 0) {
+            violation = "nothing was sent";
+        } else if (overall.getP99Ms() > p99Limit) {
+            violation = "p99 " + overall.getP99Ms() + " ms > " + slo.getP99();
+        } else if (errorRate > slo.getMaxErrorRate()) {
+            violation = "error rate " + String.format("%.4f", errorRate) + " > " + slo.getMaxErrorRate();
+        } else if (dropRate > slo.getMaxDropRate()) {
+            violation = "drop rate " + String.format("%.4f", dropRate) + " > " + slo.getMaxDropRate();
+        }
+        return new Step(index, phase, rate, campaignId, report.getThroughputPerSecond(), status.getSentCount(),
+                status.getFailedCount(), status.getDroppedCount(), errorRate, dropRate, overall.getP50Ms(),
+                overall.getP90Ms(), overall.getP99Ms(), overall.getMaxMs(), violation == null, violation);
+    }
+
+    /** A search and its report so far. */
+    public static class Search {
+        private final String id;
+        private final Instant startedAt = Instant.now();
+        private final SearchProperties props;
+        private final List<Step> steps = new CopyOnWriteArrayList<>();
+        private volatile String state = "running";
+        private volatile Instant finishedAt;
+        private volatile double maxSustainableRate;
+        private volatile Double lowestFailingRate;
+        private volatile String error;
+        private volatile boolean stopping;
+        private volatile String currentCampaign;
+
+        Search(String id, SearchProperties props) {
+            this.id = id;
+            this.props = props;
+        }
+
+        void finish(String state, double passing, double failing, String error) {
+            this.maxSustainableRate = passing;
+            this.lowestFailingRate = Double.isInfinite(failing) ? null : failing;
+            this.error = error;
+            this.finishedAt = Instant.now();
+            this.state = state;
+        }
+
+        public String getId() { return id; }
+        public String getState() { return state; }
+        public Instant getStartedAt() { return startedAt; }
+        public Instant getFinishedAt() { return finishedAt; }
+        public SearchProperties.Slo getSlo() { return props.getSlo(); }
+        public String getCurrentCampaign() { return currentCampaign; }
+        public double getMaxSustainableRate() { return maxSustainableRate; }
+        public Double getLowestFailingRate() { return lowestFailingRate; }
+        public String getError() { return error; }
+        public List<Step> getSteps() { return Collections.unmodifiableList(new ArrayList<>(steps)); }
+    }
+
+    /** One rate tried by the search; rates are per second, latencies in milliseconds. */
+    public static class Step {
+        private final int index;
+        private final String phase;
+        private final double targetRate;
+        private final String campaignId;
+        private final double achievedRate;
+        private final long sent;
+        private final long failed;
+        private final long dropped;
+        private final double errorRate;
+        private final double dropRate;
+        private final double p50;
+        private final double p90;
+        private final double p99;
+        private final double max;
+        private final boolean passed;
+        private final String violation;
+
+        public Step(int index, String phase, double targetRate, String campaignId, double achievedRate, long sent,
+                    long failed, long dropped, double errorRate, double dropRate, double p50, double p90, double p99,
+                    double max, boolean passed, String violation) {
+            this.index = index;
+            this.phase = phase;
+            this.targetRate = targetRate;
+            this.campaignId = campaignId;
+            this.achievedRate = achievedRate;
+            this.sent = sent;
+            this.failed = failed;
+            this.dropped = dropped;
+            this.errorRate = errorRate;
+            this.dropRate = dropRate;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+            this.passed = passed;
+            this.violation = violation;
+        }
+        public int getIndex() { return index; }
+        public String getPhase() { return phase; }
+        public double getTargetRate() { return targetRate; }
+        public String getCampaignId() { return campaignId; }
+        public double getAchievedRate() { return achievedRate; }
+        public long getSent() { return sent; }
+        public long getFailed() { return failed; }
+        public long getDropped() { return dropped; }
+        public double getErrorRate() { return errorRate; }
+        public double getDropRate() { return dropRate; }
+        public double getP50Ms() { return p50; }
+        public double getP90Ms() { return p90; }
+        public double getP99Ms() { return p99; }
+        public double getMaxMs() { return max; }
+        public boolean isPassed() { return passed; }
+        public String getViolation() { return violation; }
+    }
+}
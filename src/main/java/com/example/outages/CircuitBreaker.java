@@ -0,0 +1,101 @@
+package com.example.outages;
+
+/**
+ * Tracks target health over the last {@code retry.breaker.window} outcomes. Once at least {@code minCalls} were seen
+ * and the failure share reaches {@code failureRate}, the breaker opens for {@code openFor}; then up to {@code probes}
+ * trial posts are let through (half-open) and it closes again only if they all succeed. Only responses that say the
+ * target is struggling (5xx, 408, 429, connection errors and timeouts) count as failures.
+ */
+final class CircuitBreaker {
+    enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final boolean[] window;
+    private final int minCalls;
+    private final double failureRate;
+    private final long openNanos;
+    private final int probes;
+
+    private State state = State.CLOSED;
+    private int position;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private long halfOpenedAt;
+    private int probesIssued;
+    private int probesSucceeded;
+    private long trips;
+
+    CircuitBreaker(int window, int minCalls, double failureRate, long openNanos, int probes) {
+        this.window = new boolean[Math.max(1, window)];
+        this.minCalls = Math.min(minCalls, this.window.length);
+        this.failureRate = failureRate;
+        this.openNanos = openNanos;
+        this.probes = Math.max(1, probes);
+    }
+
+    /** Whether a post may go out now; a half-open breaker admits only its probes. */
+    synchronized boolean allowRequest() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) return false;
+            halfOpen();
+        }
+        if (state == State.HALF_OPEN) {
+            // Probes whose outcome never arrived (cancelled, still queued) must not wedge the breaker
+            if (probesIssued >= probes && System.nanoTime() - halfOpenedAt >= openNanos) halfOpen();
+            if (probesIssued >= probes) return false;
+            probesIssued++;
+        }
+        return true;
+    }
+
+    synchronized void record(boolean failure) {
+        switch (state) {
+            case OPEN:
+                return; // posts sent before the breaker opened say nothing new
+            case HALF_OPEN:
+                if (failure) {
+                    open();
+                } else if (++probesSucceeded >= probes) {
+                    state = State.CLOSED;
+                    position = calls = failures = 0;
+                }
+                return;
+            default:
+                if (calls == window.length) {
+                    if (window[position]) failures--;
+                } else {
+                    calls++;
+                }
+                window[position] = failure;
+                if (failure) failures++;
+                position = (position + 1) % window.length;
+                if (calls >= minCalls && failures >= failureRate * calls) open();
+        }
+    }
+
+    private void halfOpen() {
+        state = State.HALF_OPEN;
+        halfOpenedAt = System.nanoTime();
+        probesIssued = 0;
+        probesSucceeded = 0;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        trips++;
+    }
+
+    /** How long until an open breaker lets probes through; 0 unless open. */
+    synchronized long remainingOpenNanos() {
+        return state == State.OPEN ? Math.max(0, openNanos - (System.nanoTime() - openedAt)) : 0;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized long trips() {
+        return trips;
+    }
+}
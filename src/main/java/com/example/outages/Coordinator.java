@@ -0,0 +1,292 @@
+package com.example.outages;
+
+import com.example.outages.config.CampaignConfig;
+import com.example.outages.config.DistributedProperties;
+import com.example.outages.config.SampleProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shards one campaign across several instances of this service. Worker k of W sends global payloads
+ * k+1, k+1+W, ... from a shared start instant, so together the workers follow the single-instance timeline, and each
+ * worker renders its payloads from a disjoint slice of the delivery-node pool. Status and latency are merged here.
+ * Any instance can coordinate; workers only need the regular {@code /campaign} routes.
+ */
+@Service
+public class Coordinator {
+    private static final Logger log = LoggerFactory.getLogger(Coordinator.class);
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_MAP =
+            new ParameterizedTypeReference<Map<String, Object>>() {};
+
+    private final WebClient webClient;
+    private final Environment env;
+    private final DistributedProperties distributedProps;
+    private final CopyOnWriteArrayList<String> workers = new CopyOnWriteArrayList<>();
+    private final Map<String, Run> runs = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    public Coordinator(WebClient webClient, Environment env, DistributedProperties distributedProps) {
+        this.webClient = webClient;
+        this.env = env;
+        this.distributedProps = distributedProps;
+        distributedProps.getWorkers().forEach(this::registerWorker);
+    }
+
+    /** Add a worker by base URL (e.g. {@code http://host-a:8081}); registering the same URL twice is a no-op. */
+    public void registerWorker(String baseUrl) {
+        String url = Objects.requireNonNull(baseUrl, "worker url is required").trim();
+        if (url.isEmpty()) throw new IllegalArgumentException("worker url is required");
+        while (url.endsWith("/")) url = url.substring(0, url.length() - 1);
+        if (workers.addIfAbsent(url)) log.info("Registered worker {}", url);
+    }
+
+    public List<String> workers() {
+        return Collections.unmodifiableList(workers);
+    }
+
+    public Optional<Run> find(String runId) {
+        return Optional.ofNullable(runs.get(runId));
+    }
+
+    /**
+     * Split the campaign described by {@code overlay} over the registered workers and start every shard.
+     * The delivery-node pool is loaded here and partitioned into contiguous slices, one per worker.
+     * If any shard cannot be created or started, the shards already on their workers are removed again and the run
+     * is dropped, so a failed launch leaves nothing sending.
+     */
+    public synchronized Run launch(Map<String, Object> overlay) {
+        List<String> targets = new ArrayList<>(workers);
+        if (targets.isEmpty()) throw new IllegalStateException("No workers registered");
+        int W = targets.size();
+        DnPool pool = loadPool(CampaignConfig.bind(env, overlay).getSample());
+        if (pool.size() < W) {
+            throw new IllegalStateException("Only " + pool.size() + " delivery nodes for " + W + " workers");
+        }
+
+        Instant startAt = Instant.now().plus(Campaign.parseDuration(distributedProps.getStartDelay()));
+        Run run = new Run("d" + nextId.incrementAndGet(), startAt);
+        runs.put(run.getId(), run);
+        try {
+            for (int k = 0; k < W; k++) {
+                ShardSpec spec = new ShardSpec();
+                spec.setOverlay(overlay);
+                spec.setShardIndex(k);
+                spec.setShardCount(W);
+                spec.setStartAt(startAt);
+                spec.setDeliveryNodeIds(slice(pool, (long) pool.size() * k / W, (long) pool.size() * (k + 1) / W));
+                String worker = targets.get(k);
+                Map<String, Object> created = call(webClient.post().uri(worker + "/campaign/shards")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(spec));
+                String campaignId = String.valueOf(created.get("id"));
+                run.shards.add(new ShardRef(k, worker, campaignId));
+                log.info("Run {}: shard {}/{} is campaign {} on {}", run.getId(), k, W, campaignId, worker);
+            }
+        } catch (RuntimeException e) {
+            abort(run);
+            throw new IllegalStateException("Run " + run.getId() + ": could not create every shard: " + e, e);
+        }
+
+        // Pre-generation happens inside start(), so start all workers at once: each one then only has to be ready
+        // by startAt, not wait for the shards before it
+        Map<Integer, String> failures = new ConcurrentHashMap<>();
+        Flux.fromIterable(run.shards)
+                .flatMap(shard -> webClient.post()
+                        .uri(shard.worker + "/campaign/" + shard.campaignId + "/start")
+                        .retrieve()
+                        .bodyToMono(JSON_MAP)
+                        .timeout(timeout())
+                        .then()
+                        .onErrorResume(e -> {
+                            failures.put(shard.index, shard.worker + ": " + e);
+                            return Mono.empty();
+                        }), W)
+                .blockLast();
+        if (!failures.isEmpty()) {
+            abort(run);
+            throw new IllegalStateException("Run " + run.getId() + ": shards did not start: " + new TreeMap<>(failures));
+        }
+        log.info("Run {}: {} shards start at {}", run.getId(), W, startAt);
+        return run;
+    }
+
+    /** Remove every shard of a failed launch from its worker (which stops it) and forget the run. */
+    private void abort(Run run) {
+        runs.remove(run.getId());
+        for (ShardRef shard : run.shards) {
+            try {
+                webClient.delete().uri(shard.worker + "/campaign/" + shard.campaignId)
+                        .retrieve()
+                        .toBodilessEntity()
+                        .block(timeout());
+            } catch (RuntimeException e) {
+                log.warn("Run {}: could not remove shard {} on {}: {}", run.getId(), shard.index, shard.worker,
+                        e.toString());
+            }
+        }
+    }
+
+    /** Summed counters of every shard plus latency merged from their histogram logs. */
+    public DistributedStatus status(Run run) {
+        List<Map<String, Object>> statuses = new ArrayList<>();
+        List<String> logs = new ArrayList<>();
+        boolean running = false;
+        long sent = 0, planned = 0, failed = 0, dropped = 0, inFlight = 0;
+        for (ShardRef shard : run.shards) {
+            String base = shard.worker + "/campaign/" + shard.campaignId;
+            Map<String, Object> s = call(webClient.get().uri(base + "/status"));
+            statuses.add(s);
+            running |= Boolean.TRUE.equals(s.get("running"));
+            sent += number(s, "sentCount");
+            planned += number(s, "totalPlanned");
+            failed += number(s, "failedCount");
+            dropped += number(s, "droppedCount");
+            inFlight += number(s, "inFlight");
+            logs.add(webClient.get().uri(base + "/report/histogram")
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .defaultIfEmpty("")
+                    .block(timeout()));
+        }
+        LatencyRecorder.Report report = LatencyRecorder.merge(logs).report(running);
+        return new DistributedStatus(run.getId(), run.getStartAt(), running, sent, planned, failed, dropped,
+                inFlight, report, run.getShards(), statuses);
+    }
+
+    public DistributedStatus stop(Run run) {
+        for (ShardRef shard : run.shards) {
+            try {
+                call(webClient.post().uri(shard.worker + "/campaign/" + shard.campaignId + "/stop"));
+            } catch (RuntimeException e) {
+                log.warn("Run {}: could not stop shard {} on {}: {}", run.getId(), shard.index, shard.worker,
+                        e.toString());
+            }
+        }
+        return status(run);
+    }
+
+    private Map<String, Object> call(WebClient.RequestHeadersSpec<?> request) {
+        return request.retrieve().bodyToMono(JSON_MAP).block(timeout());
+    }
+
+    private Duration timeout() {
+        return Campaign.parseDuration(distributedProps.getRequestTimeout());
+    }
+
+    private static long number(Map<String, Object> status, String key) {
+        Object v = status.get(key);
+        return v instanceof Number ? ((Number) v).longValue() : 0;
+    }
+
+    private static DnPool loadPool(SampleProperties sample) {
+        Path source = Paths.get(Objects.requireNonNull(
+                sample.getDeliveryNodeListPath(), "sample.deliveryNodeListPath is required"));
+        String cache = sample.getDeliveryNodeCachePath();
+        try {
+            return DnPool.load(source, cache == null || cache.isBlank() ? null : Paths.get(cache));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load delivery nodes from " + source, e);
+        }
+    }
+
+    private static List<String> slice(DnPool pool, long from, long to) {
+        List<String> ids = new ArrayList<>((int) (to - from));
+        for (long i = from; i < to; i++) ids.add(pool.get(i));
+        return ids;
+    }
+
+    /** One shard of a run: which worker holds it and under which campaign id. */
+    public static class ShardRef {
+        private final int index;
+        private final String worker;
+        private final String campaignId;
+
+        public ShardRef(int index, String worker, String campaignId) {
+            this.index = index;
+            this.worker = worker;
+            this.campaignId = campaignId;
+        }
+        public int getIndex() { return index; }
+        public String getWorker() { return worker; }
+        public String getCampaignId() { return campaignId; }
+    }
+
+    public static class Run {
+        private final String id;
+        private final Instant startAt;
+        private final List<ShardRef> shards = new CopyOnWriteArrayList<>();
+
+        Run(String id, Instant startAt) {
+            this.id = id;
+            this.startAt = startAt;
+        }
+        public String getId() { return id; }
+        public Instant getStartAt() { return startAt; }
+        public List<ShardRef> getShards() { return Collections.unmodifiableList(shards); }
+    }
+
+    public static class DistributedStatus {
+        private final String runId;
+        private final Instant startAt;
+        private final boolean running;
+        private final long sentCount;
+        private final long totalPlanned;
+        private final long failedCount;
+        private final long droppedCount;
+        private final long inFlight;
+        private final LatencyRecorder.Report report;
+        private final List<ShardRef> shards;
+        private final List<Map<String, Object>> shardStatus;
+
+        public DistributedStatus(String runId, Instant startAt, boolean running, long sentCount, long totalPlanned,
+                                 long failedCount, long droppedCount, long inFlight, LatencyRecorder.Report report,
+                                 List<ShardRef> shards, List<Map<String, Object>> shardStatus) {
+            this.runId = runId;
+            this.startAt = startAt;
+            this.running = running;
+            this.sentCount = sentCount;
+            this.totalPlanned = totalPlanned;
+            this.failedCount = failedCount;
+            this.droppedCount = droppedCount;
+            this.inFlight = inFlight;
+            this.report = report;
+            this.shards = shards;
+            this.shardStatus = shardStatus;
+        }
+        public String getRunId() { return runId; }
+        public Instant getStartAt() { return startAt; }
+        public boolean isRunning() { return running; }
+        public long getSentCount() { return sentCount; }
+        public long getTotalPlanned() { return totalPlanned; }
+        public long getFailedCount() { return failedCount; }
+        public long getDroppedCount() { return droppedCount; }
+        public long getInFlight() { return inFlight; }
+        public LatencyRecorder.Report getReport() { return report; }
+        public List<ShardRef> getShards() { return shards; }
+        public List<Map<String, Object>> getShardStatus() { return shardStatus; }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.outages;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Describes a pre-generated corpus so a later start can reuse it instead of rendering everything again.
+ * {@code corpus-manifest.json} holds the fingerprint of every generation input (see {@code Campaign.fingerprint}),
+ * the timestamp base the payloads were rendered with and the payload names; {@code corpus.sums} holds one CRC32C
+ * per payload. Reuse only checks that the files are there; payload bytes are verified against their checksum the
+ * first time each one is sent.
+ */
+public final class CorpusManifest {
+    private static final Logger log = LoggerFactory.getLogger(CorpusManifest.class);
+    static final String MANIFEST_FILE = "corpus-manifest.json";
+    static final String SUMS_FILE = "corpus.sums";
+    private static final int VERSION = 1;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String fingerprint;
+    private final String corpus;
+    private final OffsetDateTime base;
+    private final List<String> names;
+    private final int[] checksums;
+
+    public CorpusManifest(String fingerprint, String corpus, OffsetDateTime base, List<String> names, int[] checksums) {
+        this.fingerprint = fingerprint;
+        this.corpus = corpus;
+        this.base = base;
+        this.names = names;
+        this.checksums = checksums;
+    }
+
+    public String getFingerprint() { return fingerprint; }
+    public OffsetDateTime getBase() { return base; }
+    public int size() { return checksums.length; }
+
+    static int checksum(ByteBuffer payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    /** The manifest in {@code dir}, or null if there is none or it cannot be read. */
+    public static CorpusManifest load(Path dir) {
+        Path file = dir.resolve(MANIFEST_FILE);
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            JsonNode root = MAPPER.readTree(file.toFile());
+            if (root.path("version").asInt() != VERSION) return null;
+            List<String> names = new ArrayList<>();
+            root.path("names").forEach(n -> names.add(n.asText()));
+            int[] sums;
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(dir.resolve(SUMS_FILE))))) {
+                sums = new int[in.readInt()];
+                for (int i = 0; i < sums.length; i++) sums[i] = in.readInt();
+            }
+            return new CorpusManifest(root.path("fingerprint").asText(), root.path("corpus").asText(),
+                    OffsetDateTime.parse(root.path("base").asText()), names, sums);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable corpus manifest {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    /** Written last, after the corpus itself, so a manifest never describes a half-written corpus. */
+    public void write(Path dir) throws IOException {
+        Path sums = dir.resolve(SUMS_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(sums)))) {
+            out.writeInt(checksums.length);
+            for (int c : checksums) out.writeInt(c);
+        }
+        Files.move(sums, dir.resolve(SUMS_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        ObjectNode root = MAPPER.createObjectNode()
+                .put("version", VERSION)
+                .put("fingerprint", fingerprint)
+                .put("corpus", corpus)
+                .put("base", base.toString())
+                .put("count", checksums.length);
+        ArrayNode list = root.putArray("names");
+        names.forEach(list::add);
+        Path tmp = dir.resolve(MANIFEST_FILE + ".tmp");
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(tmp.toFile(), root);
+        Files.move(tmp, dir.resolve(MANIFEST_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Drop the manifest before a corpus is rewritten, so an interrupted generation is never mistaken for a match. */
+    public static void delete(Path dir) throws IOException {
+        Files.deleteIfExists(dir.resolve(MANIFEST_FILE));
+    }
+
+    /**
+     * Open the corpus this manifest describes if it was built from {@code fingerprint} as a {@code corpus} corpus
+     * and its files are still in place; null otherwise.
+     */
+    public PayloadCorpus open(Path dir, String fingerprint, String corpus) throws IOException {
+        if (!this.fingerprint.equals(fingerprint) || !this.corpus.equalsIgnoreCase(corpus)) return null;
+        PayloadCorpus opened;
+        if ("segment".equalsIgnoreCase(corpus)) {
+            if (!SegmentCorpus.exists(dir)) return null;
+            opened = SegmentCorpus.open(dir);
+        } else {
+            List<Path> files = new ArrayList<>(names.size());
+            for (String name : names) {
+                Path file = dir.resolve(name);
+                if (!Files.isRegularFile(file)) return null;
+                files.add(file);
+            }
+            opened = new FileCorpus(files);
+        }
+        if (opened.size() != checksums.length) {
+            opened.close();
+            return null;
+        }
+        return new Verified(opened, checksums);
+    }
+
+    /** Checks each payload against its manifest checksum the first time it is read. */
+    private static final class Verified implements PayloadCorpus {
+        private final PayloadCorpus delegate;
+        private final int[] checksums;
+        // Racy by design: at worst a payload is verified twice
+        private final boolean[] verified;
+
+        Verified(PayloadCorpus delegate, int[] checksums) {
+            this.delegate = delegate;
+            this.checksums = checksums;
+            this.verified = new boolean[checksums.length];
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public ByteBuffer payload(int index) throws IOException {
+            ByteBuffer payload = delegate.payload(index);
+            if (!verified[index]) {
+                if (checksum(payload) != checksums[index]) {
+                    throw new IllegalStateException(delegate.name(index) + " changed since it was generated; "
+                            + "delete " + MANIFEST_FILE + " or set generator.reuse=false to regenerate");
+                }
+                verified[index] = true;
+            }
+            return payload;
+        }
+
+        @Override
+        public String name(int index) {
+            return delegate.name(index);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
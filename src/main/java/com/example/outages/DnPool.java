@@ -0,0 +1,372 @@
+package com.example.outages;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * The delivery-node id list in a compact, immutable form. Each id is one {@code long}: purely numeric ids of up to
+ * 17 digits are stored as their value plus digit count (so leading zeros survive), anything else as the complement
+ * of an index into a packed UTF-8 arena. Ids are read by absolute position, so concurrent generators need no lock.
+ */
+public final class DnPool {
+    private static final Logger log = LoggerFactory.getLogger(DnPool.class);
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final int CACHE_MAGIC = 0x444e5032; // "DNP2"
+    private static final int HASH_BYTES = 32;
+    private static final int MAX_NUMERIC_DIGITS = 17;
+    private static final int WIDTH_SHIFT = 57;
+    private static final long VALUE_MASK = (1L << WIDTH_SHIFT) - 1;
+
+    private final long[] entries;
+    private final byte[] arena;
+    private final int[] arenaOffsets;
+
+    private DnPool(long[] entries, byte[] arena, int[] arenaOffsets) {
+        this.entries = entries;
+        this.arena = arena;
+        this.arenaOffsets = arenaOffsets;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    /** The id at {@code position}, wrapping around the pool. */
+    public String get(long position) {
+        long e = entries[index(position)];
+        if (e < 0) {
+            int s = (int) ~e;
+            return new String(arena, arenaOffsets[s], arenaOffsets[s + 1] - arenaOffsets[s], StandardCharsets.UTF_8);
+        }
+        char[] digits = new char[(int) (e >>> WIDTH_SHIFT)];
+        fillDigits(e, digits);
+        return new String(digits);
+    }
+
+    /** Write the id at {@code position} as a JSON string without materializing a {@code String}. */
+    public void writeId(JsonGenerator gen, long position, char[] scratch) throws IOException {
+        long e = entries[index(position)];
+        if (e < 0) {
+            int s = (int) ~e;
+            gen.writeUTF8String(arena, arenaOffsets[s], arenaOffsets[s + 1] - arenaOffsets[s]);
+        } else {
+            int width = (int) (e >>> WIDTH_SHIFT);
+            fillDigits(e, scratch);
+            gen.writeString(scratch, 0, width);
+        }
+    }
+
+    /** Feed the pool's contents, in order, into {@code digest}; used to fingerprint a generated corpus. */
+    public void digest(MessageDigest digest) {
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        for (long e : entries) {
+            if (!buf.hasRemaining()) {
+                digest.update(buf.flip());
+                buf.clear();
+            }
+            buf.putLong(e);
+        }
+        digest.update(buf.flip());
+        buf.clear();
+        for (int offset : arenaOffsets) {
+            if (!buf.hasRemaining()) {
+                digest.update(buf.flip());
+                buf.clear();
+            }
+            buf.putInt(offset);
+        }
+        digest.update(buf.flip());
+        digest.update(arena);
+    }
+
+    /** Scratch buffer large enough for {@link #writeId}. */
+    public static char[] newScratch() {
+        return new char[MAX_NUMERIC_DIGITS];
+    }
+
+    private int index(long position) {
+        return (int) Math.floorMod(position, (long) entries.length);
+    }
+
+    private static void fillDigits(long e, char[] out) {
+        long v = e & VALUE_MASK;
+        for (int i = (int) (e >>> WIDTH_SHIFT) - 1; i >= 0; i--, v /= 10) {
+            out[i] = (char) ('0' + v % 10);
+        }
+    }
+
+    /**
+     * Load the pool, reusing the binary cache at {@code cacheFile} when it was built from the same source (path and
+     * SHA-256 of its contents) and rewriting it otherwise. Hashing the list is a sequential read, far cheaper than
+     * parsing it, and unlike size and modification time it cannot match a different list. A null cache file disables
+     * caching.
+     */
+    public static DnPool load(Path source, Path cacheFile) throws IOException {
+        if (cacheFile == null) {
+            DnPool pool = parse(source);
+            log.info("Loaded {} delivery nodes from {}", pool.size(), source);
+            return pool;
+        }
+        byte[] sourcePath = source.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8);
+        byte[] sourceHash = sha256(source);
+        if (Files.isRegularFile(cacheFile)) {
+            DnPool cached = readCache(cacheFile, sourcePath, sourceHash);
+            if (cached != null) {
+                log.info("Loaded {} delivery nodes from cache {}", cached.size(), cacheFile);
+                return cached;
+            }
+        }
+        DnPool pool = parse(source);
+        try {
+            pool.writeCache(cacheFile, sourcePath, sourceHash);
+        } catch (IOException e) {
+            log.warn("Could not write delivery node cache {}: {}", cacheFile, e.toString());
+        }
+        log.info("Loaded {} delivery nodes from {}", pool.size(), source);
+        return pool;
+    }
+
+    /** A pool of the given ids, with the same trimming and de-duplication as a parsed file. */
+    public static DnPool of(Iterable<String> ids) {
+        Builder b = new Builder();
+        for (String id : ids) {
+            char[] text = id.toCharArray();
+            b.add(text, 0, text.length);
+        }
+        return b.build();
+    }
+
+    /**
+     * Stream the list without building a tree. Accepts {@code ["id", ...]}, {@code [{"id": "..."}, ...]} or
+     * {@code {"nodes": [{"id": "..."}, ...]}}; ids are trimmed, empties dropped and duplicates removed in order.
+     */
+    static DnPool parse(Path path) throws IOException {
+        Builder b = new Builder();
+        try (JsonParser p = JSON.createParser(path.toFile())) {
+            JsonToken root = p.nextToken();
+            if (root == JsonToken.START_ARRAY) {
+                readArray(p, b, true);
+            } else if (root == JsonToken.START_OBJECT) {
+                boolean found = false;
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.getCurrentName();
+                    JsonToken value = p.nextToken();
+                    if ("nodes".equals(field) && value == JsonToken.START_ARRAY) {
+                        readArray(p, b, false);
+                        found = true;
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+                if (!found) {
+                    throw new IllegalArgumentException("Expected field 'nodes' to be an array in " + path);
+                }
+            } else {
+                throw new IllegalArgumentException("Expected JSON array or an object with 'nodes' array in " + path);
+            }
+        }
+        if (b.count == 0) {
+            throw new IllegalArgumentException("No delivery node IDs found in " + path);
+        }
+        return b.build();
+    }
+
+    private static void readArray(JsonParser p, Builder b, boolean allowBareStrings) throws IOException {
+        JsonToken t;
+        while ((t = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (t == JsonToken.VALUE_STRING && allowBareStrings) {
+                b.add(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            } else if (t == JsonToken.START_OBJECT) {
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.getCurrentName();
+                    JsonToken value = p.nextToken();
+                    if ("id".equals(field) && value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+                        b.add(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            } else {
+                p.skipChildren();
+            }
+        }
+    }
+
+    static byte[] sha256(Path source) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+        try (FileChannel ch = FileChannel.open(source, StandardOpenOption.READ)) {
+            while (ch.read(buf.clear()) >= 0) digest.update(buf.flip());
+        }
+        return digest.digest();
+    }
+
+    /** Cache layout: magic, source path (length + UTF-8), SHA-256 of the source, then the three arrays. */
+    private static DnPool readCache(Path cacheFile, byte[] sourcePath, byte[] sourceHash) throws IOException {
+        try (FileChannel ch = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.remaining() < 8 || buf.getInt() != CACHE_MAGIC || !matches(buf, sourcePath, buf.getInt())
+                    || !matches(buf, sourceHash, HASH_BYTES)) {
+                return null;
+            }
+            long[] entries = new long[buf.getInt()];
+            int[] offsets = new int[buf.getInt()];
+            byte[] arena = new byte[buf.getInt()];
+            buf.asLongBuffer().get(entries);
+            buf.position(buf.position() + entries.length * Long.BYTES);
+            buf.asIntBuffer().get(offsets);
+            buf.position(buf.position() + offsets.length * Integer.BYTES);
+            buf.get(arena);
+            return new DnPool(entries, arena, offsets);
+        } catch (RuntimeException e) {
+            log.warn("Ignoring unreadable delivery node cache {}: {}", cacheFile, e.toString());
+            return null;
+        }
+    }
+
+    private static boolean matches(ByteBuffer buf, byte[] expected, int length) {
+        if (length != expected.length || buf.remaining() < length) return false;
+        byte[] actual = new byte[length];
+        buf.get(actual);
+        return Arrays.equals(actual, expected);
+    }
+
+    private void writeCache(Path cacheFile, byte[] sourcePath, byte[] sourceHash) throws IOException {
+        Path dir = cacheFile.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path tmp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        ByteBuffer buf = ByteBuffer.allocate(8 + sourcePath.length + HASH_BYTES + 12 + entries.length * Long.BYTES
+                + arenaOffsets.length * Integer.BYTES + arena.length);
+        buf.putInt(CACHE_MAGIC).putInt(sourcePath.length).put(sourcePath).put(sourceHash)
+                .putInt(entries.length).putInt(arenaOffsets.length).putInt(arena.length);
+        buf.asLongBuffer().put(entries);
+        buf.position(buf.position() + entries.length * Long.BYTES);
+        buf.asIntBuffer().put(arenaOffsets);
+        buf.position(buf.position() + arenaOffsets.length * Integer.BYTES);
+        buf.put(arena).flip();
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buf.hasRemaining()) ch.write(buf);
+        }
+        Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Accumulates unique ids; the open-addressing dedupe table is dropped once the pool is built. */
+    private static final class Builder {
+        private long[] entries = new long[1024];
+        private int count;
+        private byte[] arena = new byte[1024];
+        private int arenaLength;
+        private int[] arenaOffsets = new int[64];
+        private int strings;
+        private int[] table = new int[2048]; // entry index + 1, 0 = empty
+
+        void add(char[] text, int offset, int length) {
+            int from = offset;
+            int to = offset + length;
+            // Same rule as String.trim()
+            while (from < to && text[from] <= ' ') from++;
+            while (to > from && text[to - 1] <= ' ') to--;
+            int len = to - from;
+            if (len == 0) return;
+
+            long entry = numeric(text, from, len);
+            byte[] utf8 = null;
+            if (entry < 0) utf8 = new String(text, from, len).getBytes(StandardCharsets.UTF_8);
+            int hash = entry >= 0 ? Long.hashCode(entry * 0x9E3779B97F4A7C15L) : Arrays.hashCode(utf8);
+
+            int mask = table.length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int existing = table[slot];
+                if (existing == 0) {
+                    if (entry < 0) entry = appendString(utf8);
+                    table[slot] = append(entry);
+                    if (count * 2 > table.length) rehash();
+                    return;
+                }
+                if (sameId(entries[existing - 1], entry, utf8)) return;
+            }
+        }
+
+        private static long numeric(char[] text, int from, int len) {
+            if (len > MAX_NUMERIC_DIGITS) return -1;
+            long v = 0;
+            for (int i = from; i < from + len; i++) {
+                char c = text[i];
+                if (c < '0' || c > '9') return -1;
+                v = v * 10 + (c - '0');
+            }
+            return v | ((long) len << WIDTH_SHIFT);
+        }
+
+        private boolean sameId(long stored, long entry, byte[] utf8) {
+            if (entry >= 0 || stored >= 0) return stored == entry;
+            int s = (int) ~stored;
+            return Arrays.equals(arena, arenaOffsets[s], arenaOffsets[s + 1], utf8, 0, utf8.length);
+        }
+
+        private long appendString(byte[] utf8) {
+            if (arenaLength + utf8.length > arena.length) {
+                arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaLength + utf8.length));
+            }
+            System.arraycopy(utf8, 0, arena, arenaLength, utf8.length);
+            if (strings + 2 > arenaOffsets.length) arenaOffsets = Arrays.copyOf(arenaOffsets, arenaOffsets.length * 2);
+            arenaOffsets[strings] = arenaLength;
+            arenaLength += utf8.length;
+            arenaOffsets[strings + 1] = arenaLength;
+            return ~(long) strings++;
+        }
+
+        private int append(long entry) {
+            if (count == entries.length) entries = Arrays.copyOf(entries, count * 2);
+            entries[count++] = entry;
+            return count;
+        }
+
+        private void rehash() {
+            int[] next = new int[table.length * 2];
+            int mask = next.length - 1;
+            for (int i = 0; i < count; i++) {
+                long e = entries[i];
+                int hash;
+                if (e >= 0) {
+                    hash = Long.hashCode(e * 0x9E3779B97F4A7C15L);
+                } else {
+                    int s = (int) ~e;
+                    hash = Arrays.hashCode(Arrays.copyOfRange(arena, arenaOffsets[s], arenaOffsets[s + 1]));
+                }
+                int slot = hash & mask;
+                while (next[slot] != 0) slot = (slot + 1) & mask;
+                next[slot] = i + 1;
+            }
+            table = next;
+        }
+
+        DnPool build() {
+            return new DnPool(Arrays.copyOf(entries, count), Arrays.copyOf(arena, arenaLength),
+                    Arrays.copyOf(arenaOffsets, strings + 1));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.outages;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * One {@code NNN-outage-*.json} file per payload, read from disk on every send: whole, or a chunk at a time when it
+ * is too large to hold in heap.
+ */
+public class FileCorpus implements PayloadCorpus {
+    private final List<Path> files;
+
+    public FileCorpus(List<Path> files) {
+        this.files = files;
+    }
+
+    @Override
+    public int size() {
+        return files.size();
+    }
+
+    @Override
+    public ByteBuffer payload(int index) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(files.get(index)));
+    }
+
+    @Override
+    public boolean isLargerThan(int index, long bytes) throws IOException {
+        return Files.size(files.get(index)) > bytes;
+    }
+
+    @Override
+    public Flux<DataBuffer> chunks(int index, int chunkSize) {
+        return RequestBody.read(files.get(index), chunkSize);
+    }
+
+    @Override
+    public String name(int index) {
+        return files.get(index).getFileName().toString();
+    }
+}
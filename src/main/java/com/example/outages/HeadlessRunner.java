@@ -0,0 +1,172 @@
+package com.example.outages;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Headless launcher for batch pipelines: the application context without a servlet container, MVC or actuator
+ * endpoints, which runs the default campaign (or only generates its corpus), prints a JSON summary with startup time
+ * and memory footprint, and exits. Any application.yml key can be given as an argument:
+ * <pre>
+ * java -cp 'WEB-INF/classes:WEB-INF/lib/*:WEB-INF/lib-provided/*' com.example.outages.HeadlessRunner run \
+ *     --target.endpoint=http://feed:8080/outages --scheduler.duration=2m --scheduler.interval=100ms
+ * </pre>
+ * Exit status: 0 when every payload was posted (or generated), 1 when some posts failed, 2 for bad arguments or
+ * configuration and 3 when the run itself failed.
+ */
+public final class HeadlessRunner {
+    private static final Logger log = LoggerFactory.getLogger(HeadlessRunner.class);
+    static final int OK = 0;
+    static final int FAILED_POSTS = 1;
+    static final int BAD_CONFIG = 2;
+    static final int ERROR = 3;
+    private static final List<String> COMMANDS = List.of("run", "generate");
+
+    private HeadlessRunner() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) {
+        List<String> commands = Arrays.stream(args).filter(a -> !a.startsWith("--")).collect(Collectors.toList());
+        String command = commands.isEmpty() ? "run" : commands.get(0);
+        if (commands.size() > 1 || !COMMANDS.contains(command)) {
+            System.err.println("usage: HeadlessRunner [run|generate] [--<application.yml key>=<value> ...]");
+            return BAD_CONFIG;
+        }
+        ConfigurableApplicationContext context;
+        try {
+            context = new SpringApplicationBuilder(MapOutageSchedulerApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .bannerMode(Banner.Mode.OFF)
+                    // Only what the run touches is created: no coordinator, search or controllers
+                    .lazyInitialization(true)
+                    // The run below resumes an interrupted one itself, through send.resume
+                    .properties("campaigns.resumeOnStartup=false")
+                    .run(args);
+        } catch (RuntimeException e) {
+            if (isConfigError(e)) {
+                log.error("Could not start: {}", e.toString());
+                return BAD_CONFIG;
+            }
+            log.error("Could not start", e);
+            return ERROR;
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("command", command);
+        summary.put("startupMs", ManagementFactory.getRuntimeMXBean().getUptime());
+        summary.put("startupHeapMb", heapUsedMb());
+        int exit;
+        try (context) {
+            long start = System.nanoTime();
+            try {
+                Campaign campaign = context.getBean(CampaignService.class).defaultCampaign();
+                Runtime.getRuntime().addShutdownHook(new Thread(campaign::stop, "headless-stop"));
+                exit = "generate".equals(command) ? generate(campaign, summary) : send(campaign, summary);
+            } catch (IllegalArgumentException e) {
+                // Missing or invalid settings surface as this, from building the campaign or starting it; any other
+                // exception is a failure of the run, not of its configuration
+                log.error("Invalid configuration: {}", e.getMessage());
+                summary.put("error", e.getMessage());
+                exit = BAD_CONFIG;
+            } catch (RuntimeException e) {
+                log.error("Headless {} failed", command, e);
+                summary.put("error", e.toString());
+                exit = ERROR;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                summary.put("error", "interrupted");
+                exit = ERROR;
+            }
+            summary.put("runMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            summary.put("peakHeapMb", peakHeapMb());
+            summary.put("peakRssMb", peakRssMb());
+            summary.put("exitCode", exit);
+            // The application's mapper, so the summary reads like the REST responses
+            System.out.println(context.getBean(ObjectMapper.class)
+                    .writerWithDefaultPrettyPrinter()
+                    .writeValueAsString(summary));
+        } catch (IOException e) {
+            log.error("Could not print the summary", e);
+            return ERROR;
+        }
+        return exit;
+    }
+
+    /** Beans that reject their settings while the context starts fail with one of these somewhere in the chain. */
+    private static boolean isConfigError(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof IllegalArgumentException || t instanceof BindException) return true;
+            if (t.getCause() == t) break;
+        }
+        return false;
+    }
+
+    private static int generate(Campaign campaign, Map<String, Object> summary) {
+        summary.put("generated", campaign.generateAllNow());
+        summary.put("outputDir", campaign.getOutputDir());
+        return OK;
+    }
+
+    /** Start the campaign and wait until its schedule has run out and every post and retry has settled. */
+    private static int send(Campaign campaign, Map<String, Object> summary) throws InterruptedException {
+        Campaign.Status status = campaign.start();
+        while (status.isRunning() || status.getInFlight() > 0 || status.getRetryQueued() > 0) {
+            TimeUnit.MILLISECONDS.sleep(100);
+            status = campaign.status();
+        }
+        summary.put("status", status);
+        summary.put("report", campaign.report());
+        return status.getFailedCount() > 0 ? FAILED_POSTS : OK;
+    }
+
+    private static long heapUsedMb() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        return memory.getHeapMemoryUsage().getUsed() / (1024 * 1024);
+    }
+
+    /** Highest heap occupancy any collector pool has seen, summed over pools. */
+    private static long peakHeapMb() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(p -> p.getType() == MemoryType.HEAP)
+                .mapToLong(p -> p.getPeakUsage().getUsed())
+                .sum() / (1024 * 1024);
+    }
+
+    /** Peak resident set size (VmHWM) on Linux; -1 elsewhere. */
+    private static long peakRssMb() {
+        Path status = Paths.get("/proc/self/status");
+        if (!Files.isReadable(status)) return -1;
+        try {
+            return Files.readAllLines(status).stream()
+                    .filter(line -> line.startsWith("VmHWM:"))
+                    .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")) / 1024)
+                    .findFirst()
+                    .orElse(-1);
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+}
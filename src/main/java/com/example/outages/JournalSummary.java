@@ -0,0 +1,174 @@
+package com.example.outages;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline view of an {@link OutcomeJournal}: overall latency and, per second of the run (by completion time), how
+ * many payloads completed, failed or needed retries, the bytes sent and the latency percentiles. Served by
+ * {@code /campaign/journal}, or run against a copied output directory with
+ * {@code java -cp 'WEB-INF/classes:WEB-INF/lib/*' com.example.outages.JournalSummary <output.dir>}.
+ */
+public class JournalSummary {
+    private static final long HIGHEST_TRACKABLE_US = TimeUnit.HOURS.toMicros(1);
+
+    private final Instant startedAt;
+    private final long records;
+    private final long lost;
+    private final long errors;
+    private final long retried;
+    private final LatencyRecorder.Stats overall;
+    private final List<Second> seconds;
+
+    public JournalSummary(Instant startedAt, long records, long lost, long errors, long retried,
+                          LatencyRecorder.Stats overall, List<Second> seconds) {
+        this.startedAt = startedAt;
+        this.records = records;
+        this.lost = lost;
+        this.errors = errors;
+        this.retried = retried;
+        this.overall = overall;
+        this.seconds = seconds;
+    }
+
+    public Instant getStartedAt() { return startedAt; }
+    public long getRecords() { return records; }
+    public long getLost() { return lost; }
+    public long getErrors() { return errors; }
+    public long getRetried() { return retried; }
+    public LatencyRecorder.Stats getOverall() { return overall; }
+    public List<Second> getSeconds() { return seconds; }
+
+    /** One second of the run, counted from the timeline start. */
+    public static class Second {
+        private final long second;
+        private final long completed;
+        private final long errors;
+        private final long retried;
+        private final long bytes;
+        private final double p50;
+        private final double p90;
+        private final double p99;
+        private final double max;
+
+        public Second(long second, long completed, long errors, long retried, long bytes,
+                      double p50, double p90, double p99, double max) {
+            this.second = second;
+            this.completed = completed;
+            this.errors = errors;
+            this.retried = retried;
+            this.bytes = bytes;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+        }
+        public long getSecond() { return second; }
+        public long getCompleted() { return completed; }
+        public long getErrors() { return errors; }
+        public long getRetried() { return retried; }
+        public long getBytes() { return bytes; }
+        public double getP50Ms() { return p50; }
+        public double getP90Ms() { return p90; }
+        public double getP99Ms() { return p99; }
+        public double getMaxMs() { return max; }
+    }
+
+    /** Per-second accumulator; two significant digits keep a long run's timeline small. */
+    private static final class Bucket {
+        final Histogram latency = new Histogram(HIGHEST_TRACKABLE_US, 2);
+        long errors;
+        long retried;
+        long bytes;
+    }
+
+    /** Summarise the journal under {@code outDir}; an empty summary if the campaign never sent. */
+    public static JournalSummary read(Path outDir) throws IOException {
+        Histogram overall = new Histogram(HIGHEST_TRACKABLE_US, 3);
+        Map<Long, Bucket> buckets = new TreeMap<>();
+        Instant startedAt = null;
+        long records = 0, lost = 0, errors = 0, retried = 0;
+        for (Path file : OutcomeJournal.segments(outDir.resolve(OutcomeJournal.DIR))) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buf.remaining() < OutcomeJournal.HEADER_BYTES || buf.getInt() != OutcomeJournal.MAGIC) {
+                    throw new IllegalStateException(file + " is not an outcome journal");
+                }
+                if (buf.getInt() != OutcomeJournal.VERSION) {
+                    throw new IllegalStateException(file + " has an unsupported journal version");
+                }
+                long t0 = buf.getLong();
+                if (startedAt == null) {
+                    startedAt = Instant.ofEpochSecond(0, t0);
+                }
+                long count = Math.min(buf.getLong(), (buf.limit() - OutcomeJournal.HEADER_BYTES)
+                        / OutcomeJournal.RECORD_BYTES);
+                lost = Math.max(lost, buf.getLong());
+                for (long i = 0; i < count; i++) {
+                    long intended = buf.getLong();
+                    buf.getLong(); // actual send
+                    long latencyNanos = buf.getLong();
+                    buf.getInt(); // payload index
+                    int bytes = buf.getInt();
+                    int status = buf.getShort() & 0xffff;
+                    int attempts = buf.getShort() & 0xffff;
+                    buf.getInt(); // target
+                    long us = Math.min(Math.max(0, TimeUnit.NANOSECONDS.toMicros(latencyNanos)), HIGHEST_TRACKABLE_US);
+                    long second = Math.max(0, Math.floorDiv(intended + latencyNanos, 1_000_000_000L));
+                    Bucket b = buckets.computeIfAbsent(second, s -> new Bucket());
+                    b.latency.recordValue(us);
+                    b.bytes += bytes;
+                    overall.recordValue(us);
+                    records++;
+                    if (LatencyRecorder.isError(LatencyRecorder.classOf(status))) {
+                        b.errors++;
+                        errors++;
+                    }
+                    if (attempts > 1) {
+                        b.retried++;
+                        retried++;
+                    }
+                }
+            }
+        }
+        List<Second> seconds = new ArrayList<>(buckets.size());
+        buckets.forEach((second, b) -> seconds.add(new Second(second, b.latency.getTotalCount(), b.errors,
+                b.retried, b.bytes, ms(b.latency.getValueAtPercentile(50)), ms(b.latency.getValueAtPercentile(90)),
+                ms(b.latency.getValueAtPercentile(99)), ms(b.latency.getMaxValue()))));
+        return new JournalSummary(startedAt, records, lost, errors, retried, LatencyRecorder.Stats.of(overall),
+                seconds);
+    }
+
+    private static double ms(long us) {
+        return us / 1000.0;
+    }
+
+    /** Print the timeline as CSV, followed by the totals. */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: JournalSummary <output.dir>");
+            System.exit(2);
+        }
+        JournalSummary s = read(Paths.get(args[0]));
+        System.out.println("second,completed,errors,retried,bytes,p50_ms,p90_ms,p99_ms,max_ms");
+        for (Second r : s.seconds) {
+            System.out.printf("%d,%d,%d,%d,%d,%.3f,%.3f,%.3f,%.3f%n", r.second, r.completed, r.errors, r.retried,
+                    r.bytes, r.p50, r.p90, r.p99, r.max);
+        }
+        System.out.printf("# started %s: %d outcomes (%d errors, %d retried, %d lost), p50 %.3f ms, p99 %.3f ms,"
+                        + " p99.9 %.3f ms, max %.3f ms%n", s.startedAt, s.records, s.errors, s.retried, s.lost,
+                s.overall.getP50Ms(), s.overall.getP99Ms(), s.overall.getP999Ms(), s.overall.getMaxMs());
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.outages;
+
+import org.HdrHistogram.EncodableHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free latency recording for one campaign, split by response status class.
+ * Latencies are measured from the <em>intended</em> send time, not the moment the request actually left,
+ * so a stalled sender or a backed-up connection pool shows up in the percentiles (coordinated-omission correction).
+ * Sends that were due but never went out (dropped) have no latency; they are counted and reported next to the
+ * percentiles, so a saturated target cannot look fast by shedding its slowest sends. Values are recorded in microseconds.
+ * How late the pacer released each send is tracked separately as schedule lag.
+ */
+public class LatencyRecorder {
+    static final String[] STATUS_CLASSES = {"2xx", "3xx", "4xx", "5xx", "error"};
+    static final int ERROR = 4;
+    static final String SCHEDULE_LAG = "schedule-lag";
+
+    private static final long HIGHEST_TRACKABLE_US = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final String DROPPED_COMMENT = "dropped sends (not in the histograms): ";
+
+    private final Recorder[] recorders = new Recorder[STATUS_CLASSES.length];
+    private final Histogram[] recycled = new Histogram[STATUS_CLASSES.length];
+    private final Histogram[] totals = new Histogram[STATUS_CLASSES.length];
+    private final Recorder lagRecorder = new Recorder(HIGHEST_TRACKABLE_US, SIGNIFICANT_DIGITS);
+    private final Histogram lagTotal = new Histogram(HIGHEST_TRACKABLE_US, SIGNIFICANT_DIGITS);
+    private Histogram lagRecycled;
+    private final AtomicLong lastCompletedNanos = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long startNanos;
+    private volatile Instant startedAt;
+
+    public LatencyRecorder() {
+        for (int i = 0; i < STATUS_CLASSES.length; i++) {
+            recorders[i] = new Recorder(HIGHEST_TRACKABLE_US, SIGNIFICANT_DIGITS);
+            totals[i] = new Histogram(HIGHEST_TRACKABLE_US, SIGNIFICANT_DIGITS);
+        }
+    }
+
+    /** Forget everything recorded so far; called when a new campaign starts. */
+    public synchronized void reset(long startNanos, Instant startedAt) {
+        for (int i = 0; i < STATUS_CLASSES.length; i++) {
+            recycled[i] = recorders[i].getIntervalHistogram(recycled[i]);
+            totals[i].reset();
+        }
+        lagRecycled = lagRecorder.getIntervalHistogram(lagRecycled);
+        lagTotal.reset();
+        this.startNanos = startNanos;
+        this.startedAt = startedAt;
+        lastCompletedNanos.set(startNanos);
+        dropped.set(0);
+    }
+
+    /** Record one completed (or failed) send. Safe to call from any thread without locking. */
+    public void record(int statusClass, long intendedNanos, long completedNanos) {
+        long us = TimeUnit.NANOSECONDS.toMicros(Math.max(0, completedNanos - intendedNanos));
+        recorders[statusClass].recordValue(Math.min(us, HIGHEST_TRACKABLE_US));
+        lastCompletedNanos.accumulateAndGet(completedNanos, Math::max);
+    }
+
+    /** Record a send that was due but was dropped instead of posted. */
+    public void recordDropped() {
+        dropped.incrementAndGet();
+    }
+
+    /** Record how late one send was released compared to its intended time. */
+    public void recordLag(long lagNanos) {
+        lagRecorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(Math.max(0, lagNanos)), HIGHEST_TRACKABLE_US));
+    }
+
+    /** 4xx, 5xx and transport errors count as errors; 2xx and 3xx do not. */
+    static boolean isError(int statusClass) {
+        return statusClass >= 2;
+    }
+
+    static int classOf(int httpStatus) {
+        int c = httpStatus / 100;
+        return c >= 2 && c <= 5 ? c - 2 : ERROR;
+    }
+
+    /** Walks the cause chain (retry exhaustion wraps the last failure) looking for an HTTP status. */
+    static int classOf(Throwable error) {
+        return classOf(statusOf(error));
+    }
+
+    /** The HTTP status behind a failed post, or 0 if no response arrived. */
+    static int statusOf(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof WebClientResponseException) {
+                return ((WebClientResponseException) t).getRawStatusCode();
+            }
+            if (t.getCause() == t) break;
+        }
+        return 0;
+    }
+
+    /** Fold everything recorded since the last call into the campaign totals. */
+    private void drain() {
+        for (int i = 0; i < STATUS_CLASSES.length; i++) {
+            recycled[i] = recorders[i].getIntervalHistogram(recycled[i]);
+            totals[i].add(recycled[i]);
+        }
+        lagRecycled = lagRecorder.getIntervalHistogram(lagRecycled);
+        lagTotal.add(lagRecycled);
+    }
+
+    public Report report(boolean running) {
+        return report(running, Map.of());
+    }
+
+    /** The report with {@code targets}' own reports by target name, for a campaign that posts to several. */
+    public synchronized Report report(boolean running, Map<String, LatencyRecorder> targets) {
+        drain();
+        Histogram overall = new Histogram(HIGHEST_TRACKABLE_US, SIGNIFICANT_DIGITS);
+        Map<String, Stats> byClass = new LinkedHashMap<>();
+        long errors = 0;
+        for (int i = 0; i < STATUS_CLASSES.length; i++) {
+            overall.add(totals[i]);
+            if (totals[i].getTotalCount() > 0) byClass.put(STATUS_CLASSES[i], Stats.of(totals[i]));
+            if (isError(i)) errors += totals[i].getTotalCount();
+        }
+        double elapsedSeconds = (lastCompletedNanos.get() - startNanos) / 1e9;
+        double throughput = elapsedSeconds > 0 ? overall.getTotalCount() / elapsedSeconds : 0;
+        Map<String, Report> byTarget = new LinkedHashMap<>();
+        targets.forEach((name, recorder) -> byTarget.put(name, recorder.report(running)));
+        return new Report(running, startedAt, elapsedSeconds, overall.getTotalCount(), errors, dropped.get(),
+                throughput, Stats.of(overall), byClass, Stats.of(lagTotal), byTarget);
+    }
+
+    /**
+     * The campaign totals as an HdrHistogram log, one tagged entry per status class plus one for schedule lag.
+     * Logs from several runs can be merged with {@code HistogramLogReader}/{@code HistogramLogProcessor}.
+     */
+    public synchronized String histogramLog() {
+        drain();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, false, StandardCharsets.UTF_8);
+        HistogramLogWriter writer = new HistogramLogWriter(out);
+        long startMillis = startedAt == null ? 0 : startedAt.toEpochMilli();
+        double endSeconds = (lastCompletedNanos.get() - startNanos) / 1e9;
+        writer.outputComment("map-outage-scheduler send latency, microseconds from intended send time");
+        writer.outputComment(DROPPED_COMMENT + dropped.get());
+        writer.outputLogFormatVersion();
+        writer.outputStartTime(startMillis);
+        writer.outputLegend();
+        for (int i = 0; i < STATUS_CLASSES.length; i++) {
+            if (totals[i].getTotalCount() == 0) continue;
+            Histogram h = totals[i].copy();
+            h.setTag(STATUS_CLASSES[i]);
+            writer.outputIntervalHistogram(0, endSeconds, h, 1000.0);
+        }
+        if (lagTotal.getTotalCount() > 0) {
+            Histogram h = lagTotal.copy();
+            h.setTag(SCHEDULE_LAG);
+            writer.outputIntervalHistogram(0, endSeconds, h, 1000.0);
+        }
+        out.flush();
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Combine histogram logs written by {@link #histogramLog()} on several instances (the shards of a distributed
+     * campaign) into one recorder. Its elapsed time runs from the earliest start to the latest completion, and the
+     * dropped counts noted in the logs are summed.
+     */
+    public static LatencyRecorder merge(Collection<String> logs) {
+        LatencyRecorder merged = new LatencyRecorder();
+        long firstStartMillis = Long.MAX_VALUE;
+        long lastEndMillis = Long.MIN_VALUE;
+        for (String log : logs) {
+            merged.dropped.addAndGet(droppedIn(log));
+            HistogramLogReader reader = new HistogramLogReader(
+                    new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8)));
+            EncodableHistogram h;
+            while ((h = reader.nextIntervalHistogram()) != null) {
+                if (!(h instanceof Histogram)) continue;
+                if (SCHEDULE_LAG.equals(h.getTag())) {
+                    merged.lagTotal.add((Histogram) h);
+                    continue;
+                }
+                int i = Arrays.asList(STATUS_CLASSES).indexOf(h.getTag());
+                if (i < 0) continue;
+                merged.totals[i].add((Histogram) h);
+                firstStartMillis = Math.min(firstStartMillis, h.getStartTimeStamp());
+                lastEndMillis = Math.max(lastEndMillis, h.getEndTimeStamp());
+            }
+        }
+        if (firstStartMillis != Long.MAX_VALUE) {
+            merged.startedAt = Instant.ofEpochMilli(firstStartMillis);
+            merged.startNanos = 0;
+            merged.lastCompletedNanos.set(TimeUnit.MILLISECONDS.toNanos(Math.max(0, lastEndMillis - firstStartMillis)));
+        }
+        return merged;
+    }
+
+    private static long droppedIn(String log) {
+        for (String line : log.split("\n")) {
+            if (line.startsWith("#" + DROPPED_COMMENT)) {
+                return Long.parseLong(line.substring(DROPPED_COMMENT.length() + 1).trim());
+            }
+        }
+        return 0;
+    }
+
+    /** Latency summary for one status class, in milliseconds. */
+    public static class Stats {
+        private final long count;
+        private final double p50;
+        private final double p90;
+        private final double p99;
+        private final double p999;
+        private final double max;
+        private final double mean;
+
+        Stats(long count, double p50, double p90, double p99, double p999, double max, double mean) {
+            this.count = count;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+            this.mean = mean;
+        }
+
+        static Stats of(Histogram h) {
+            return new Stats(h.getTotalCount(),
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)),
+                    ms(h.getValueAtPercentile(99)), ms(h.getValueAtPercentile(99.9)),
+                    ms(h.getMaxValue()), h.getTotalCount() == 0 ? 0 : h.getMean() / 1000.0);
+        }
+
+        private static double ms(long us) { return us / 1000.0; }
+
+        public long getCount() { return count; }
+        public double getP50Ms() { return p50; }
+        public double getP90Ms() { return p90; }
+        public double getP99Ms() { return p99; }
+        public double getP999Ms() { return p999; }
+        public double getMaxMs() { return max; }
+        public double getMeanMs() { return mean; }
+    }
+
+    public static class Report {
+        private final boolean running;
+        private final Instant startedAt;
+        private final double elapsedSeconds;
+        private final long completed;
+        private final long errors;
+        private final long dropped;
+        private final double throughputPerSecond;
+        private final Stats overall;
+        private final Map<String, Stats> byStatusClass;
+        private final Stats scheduleLag;
+        private final Map<String, Report> byTarget;
+
+        Report(boolean running, Instant startedAt, double elapsedSeconds, long completed, long errors, long dropped,
+               double throughputPerSecond, Stats overall, Map<String, Stats> byStatusClass, Stats scheduleLag,
+               Map<String, Report> byTarget) {
+            this.running = running;
+            this.startedAt = startedAt;
+            this.elapsedSeconds = elapsedSeconds;
+            this.completed = completed;
+            this.errors = errors;
+            this.dropped = dropped;
+            this.throughputPerSecond = throughputPerSecond;
+            this.overall = overall;
+            this.byStatusClass = byStatusClass;
+            this.scheduleLag = scheduleLag;
+            this.byTarget = byTarget;
+        }
+        public boolean isRunning() { return running; }
+        public Instant getStartedAt() { return startedAt; }
+        public double getElapsedSeconds() { return elapsedSeconds; }
+        public long getCompleted() { return completed; }
+        public long getErrors() { return errors; }
+        /** Sends that were due but never posted; the percentiles cover only the completed ones. */
+        public long getDropped() { return dropped; }
+        /** Dropped share of all sends that were due, in percent. */
+        public double getDroppedPct() {
+            long due = completed + dropped;
+            return due == 0 ? 0 : 100.0 * dropped / due;
+        }
+        public double getThroughputPerSecond() { return throughputPerSecond; }
+        public Stats getOverall() { return overall; }
+        public Map<String, Stats> getByStatusClass() { return byStatusClass; }
+        /** How late sends were released by the pacer (intended to actual), independent of the response. */
+        public Stats getScheduleLag() { return scheduleLag; }
+        /** Each target's own report, with its drops next to its latency; empty unless the campaign posts to several. */
+        public Map<String, Report> getByTarget() { return byTarget; }
+    }
+}
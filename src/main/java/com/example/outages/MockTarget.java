@@ -0,0 +1,232 @@
+package com.example.outages;
+
+import com.example.outages.config.MockTargetProperties;
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Stub datafeed on its own Reactor Netty server, for measuring the sender without a real target. Every POST to
+ * {@code mock-target.path} is read (optionally throttled), then either answered after an injected latency with
+ * 200, a 5xx or a 429, or dropped with a TCP reset. What was received is counted and exposed on
+ * {@code /mock-target/stats}.
+ */
+@Component
+@Profile("mock-target")
+@Lazy(false) // nothing injects it in a headless run, which initializes beans lazily
+public class MockTarget {
+    private static final Logger log = LoggerFactory.getLogger(MockTarget.class);
+    private static final int RESET = -1;
+
+    private final MockTargetProperties props;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+    private final Map<Integer, LongAdder> byStatus = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicLong startedAt = new AtomicLong(System.currentTimeMillis());
+    private final ConcurrentLinkedDeque<String> bodies = new ConcurrentLinkedDeque<>();
+    private DisposableServer server;
+
+    public MockTarget(MockTargetProperties props) {
+        this.props = props;
+    }
+
+    @PostConstruct
+    public void start() {
+        server = HttpServer.create()
+                .port(props.getPort())
+                // Plain HTTP/1.1 and cleartext HTTP/2 (transport.protocol: h2c) on the same port
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .route(routes -> routes.post(props.getPath(), this::handle))
+                .bindNow();
+        log.info("Mock target listening on http://localhost:{}{}", server.port(), props.getPath());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) server.disposeNow();
+    }
+
+    public int port() {
+        return server.port();
+    }
+
+    private Mono<Void> handle(HttpServerRequest req, HttpServerResponse res) {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        requests.increment();
+        int outcome = outcome();
+        boolean record = props.getRecordBodies() > 0;
+
+        ByteArrayOutputStream body = record ? new ByteArrayOutputStream() : null;
+
+        // Buffers are released once onNext returns, so copy or measure them synchronously
+        Flux<Integer> chunks = req.receive().map(buf -> {
+            int n = buf.readableBytes();
+            if (body != null) {
+                byte[] copy = new byte[n];
+                buf.getBytes(buf.readerIndex(), copy);
+                body.write(copy, 0, n);
+            }
+            return n;
+        });
+        if (props.getReadBytesPerSecond() > 0) {
+            chunks = chunks.concatMap(n -> Mono.delay(Duration.ofNanos(
+                    n * 1_000_000_000L / props.getReadBytesPerSecond())).thenReturn(n));
+        }
+        return chunks
+                .reduce(0L, (total, n) -> total + n)
+                .flatMap(size -> {
+                    bytesReceived.add(size);
+                    if (body != null) remember(decode(body.toByteArray(), req.requestHeaders().get("Content-Encoding")));
+                    if (outcome == RESET) {
+                        resets.increment();
+                        req.withConnection(c -> {
+                            // Linger 0 turns the close into an RST instead of an orderly FIN
+                            c.channel().config().setOption(ChannelOption.SO_LINGER, 0);
+                            c.channel().close();
+                        });
+                        return Mono.<Void>empty();
+                    }
+                    byStatus.computeIfAbsent(outcome, s -> new LongAdder()).increment();
+                    if (outcome == 429) res.header("Retry-After", Integer.toString(props.getRetryAfterSeconds()));
+                    return Mono.delay(latency()).then(res.status(outcome).send().then());
+                })
+                .doFinally(s -> inFlight.decrementAndGet());
+    }
+
+    /** Recorded bodies are kept readable: gzip is inflated, other encodings are shown as a size. */
+    private static String decode(byte[] body, String contentEncoding) {
+        if (contentEncoding == null || contentEncoding.isEmpty()) return new String(body, StandardCharsets.UTF_8);
+        if (!"gzip".equalsIgnoreCase(contentEncoding)) return "<" + body.length + " bytes " + contentEncoding + ">";
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "<invalid gzip: " + e.getMessage() + ">";
+        }
+    }
+
+    private void remember(String body) {
+        bodies.addLast(body);
+        while (bodies.size() > props.getRecordBodies()) bodies.pollFirst();
+    }
+
+    private int outcome() {
+        double r = ThreadLocalRandom.current().nextDouble();
+        if (r < props.getResetRate()) return RESET;
+        r -= props.getResetRate();
+        if (r < props.getErrorRate()) return props.getErrorStatus();
+        r -= props.getErrorRate();
+        if (r < props.getThrottleRate()) return 429;
+        return 200;
+    }
+
+    /** One sample of the configured latency distribution, capped at {@code latency.max}. */
+    private Duration latency() {
+        MockTargetProperties.Latency l = props.getLatency();
+        long min = Campaign.parseDuration(l.getMin()).toNanos();
+        long mean = Campaign.parseDuration(l.getMean()).toNanos();
+        long max = Campaign.parseDuration(l.getMax()).toNanos();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double nanos;
+        switch (l.getDistribution().toLowerCase()) {
+            case "uniform":
+                nanos = min + random.nextDouble() * Math.max(0, max - min);
+                break;
+            case "exponential":
+                nanos = min - Math.max(0, mean - min) * Math.log(1 - random.nextDouble());
+                break;
+            case "lognormal":
+                // mu chosen so the distribution's mean is latency.mean
+                double sigma = l.getSigma();
+                double mu = Math.log(Math.max(1, mean)) - sigma * sigma / 2;
+                nanos = Math.exp(mu + sigma * random.nextGaussian());
+                break;
+            default: // fixed
+                nanos = mean;
+        }
+        return Duration.ofNanos((long) Math.max(0, Math.min(max, nanos)));
+    }
+
+    public Stats stats() {
+        Map<Integer, Long> statuses = new TreeMap<>();
+        byStatus.forEach((status, count) -> statuses.put(status, count.sum()));
+        return new Stats(Instant.ofEpochMilli(startedAt.get()), requests.sum(), bytesReceived.sum(), resets.sum(),
+                statuses, inFlight.get(), maxInFlight.get());
+    }
+
+    /** The last {@code mock-target.recordBodies} request bodies, oldest first. */
+    public List<String> bodies() {
+        return new ArrayList<>(bodies);
+    }
+
+    public void reset() {
+        requests.reset();
+        bytesReceived.reset();
+        resets.reset();
+        byStatus.clear();
+        maxInFlight.set(inFlight.get());
+        bodies.clear();
+        startedAt.set(System.currentTimeMillis());
+    }
+
+    public static class Stats {
+        private final Instant since;
+        private final long requests;
+        private final long bytesReceived;
+        private final long resets;
+        private final Map<Integer, Long> byStatus;
+        private final int inFlight;
+        private final int maxInFlight;
+
+        public Stats(Instant since, long requests, long bytesReceived, long resets, Map<Integer, Long> byStatus,
+                     int inFlight, int maxInFlight) {
+            this.since = since;
+            this.requests = requests;
+            this.bytesReceived = bytesReceived;
+            this.resets = resets;
+            this.byStatus = byStatus;
+            this.inFlight = inFlight;
+            this.maxInFlight = maxInFlight;
+        }
+        public Instant getSince() { return since; }
+        public long getRequests() { return requests; }
+        public long getBytesReceived() { return bytesReceived; }
+        public long getResets() { return resets; }
+        public Map<Integer, Long> getByStatus() { return byStatus; }
+        public int getInFlight() { return inFlight; }
+        public int getMaxInFlight() { return maxInFlight; }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.outages;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/mock-target")
+@Profile("mock-target")
+public class MockTargetController {
+
+    private final MockTarget target;
+
+    public MockTargetController(MockTarget target) {
+        this.target = target;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<MockTarget.Stats> stats() {
+        return ResponseEntity.ok(target.stats());
+    }
+
+    // Last mock-target.recordBodies request bodies, oldest first
+    @GetMapping("/bodies")
+    public ResponseEntity<List<String>> bodies() {
+        return ResponseEntity.ok(target.bodies());
+    }
+
+    @PostMapping("/reset")
+    public ResponseEntity<MockTarget.Stats> reset() {
+        target.reset();
+        return ResponseEntity.ok(target.stats());
+    }
+}
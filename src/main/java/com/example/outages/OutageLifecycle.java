@@ -0,0 +1,310 @@
+package com.example.outages;
+
+import com.example.outages.config.GeneratorProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outages that live across payloads. Each one opens in a payload, with that payload's delivery nodes, then moves from
+ * Evaluating to Crew assigned (an etr appears) to Crew on site (the etr is revised and part of its nodes come back)
+ * until it is restored. Every payload is a tick: it carries every active outage in its current state
+ * ({@code feed: full}) or only the outages that opened, changed or were restored since the previous payload
+ * ({@code feed: delta}), a restored one for the last time with no nodes left.
+ * <p>
+ * Active outages live in a table of parallel primitive arrays in opening order, advanced one payload at a time, so
+ * memory follows the number of outages open at once ({@code maxActive} at most), not the length of the run. An
+ * outage's timeline is drawn from the seed and its number when it opens, which makes the state at any payload a pure
+ * function of the payload index: a table asked for a payload out of order rebuilds itself from the payloads whose
+ * outages can still be open, and payloads render identically on any thread and in any order.
+ */
+final class OutageLifecycle {
+    private static final SerializedString[] STAGES = {
+            new SerializedString("Evaluating"), new SerializedString("Crew assigned"),
+            new SerializedString("Crew on site"), new SerializedString("Restored")};
+    private static final int ON_SITE = 2;
+    private static final int RESTORED = 3;
+    private static final SerializedString CREW_STATUS = new SerializedString("crewStatus");
+    private static final SerializedString CREW_ICON = new SerializedString("crewIconIndicator");
+    private static final SerializedString ETR = new SerializedString("etr");
+    private static final SerializedString METADATA = new SerializedString("metadata");
+    private static final SerializedString CUST_OUT = new SerializedString("custOut");
+    // An outage is restored between these multiples of the mean after it opened
+    private static final double MIN_LIFE = 0.25;
+    private static final double MAX_LIFE = 1.75;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final boolean delta;
+    private final long meanNanos;
+    private final long maxLifeNanos;
+    private final int maxActive;
+    private final long seed;
+    // Per local payload j at [j - 1]: its timeline offset, the outages it opens and their delivery nodes each
+    private final long[] offsets;
+    private final int[] outages;
+    private final int[] nodes;
+    // Pool position of payload j's first node at [j - 1]
+    private final long[] dnOffsets;
+    // Number of payload j's first outage at [j - 1]
+    private final long[] firstOutage;
+    private final long baseEpochNanos;
+    private final String idPrefix;
+    private final int idDigits;
+    private final ThreadLocal<Table> tables = ThreadLocal.withInitial(Table::new);
+
+    /**
+     * @param offsets   timeline offset of each local payload
+     * @param outages   outages each payload opens
+     * @param nodes     delivery nodes per outage of each payload
+     * @param dnOffsets pool position of each payload's first node, with the total at the end
+     * @param base      wall-clock time of offset 0
+     * @param idPrefix  outage ids are this followed by the outage's number
+     */
+    OutageLifecycle(GeneratorProperties.Lifecycle props, long seed, long[] offsets, int[] outages, int[] nodes,
+                    long[] dnOffsets, OffsetDateTime base, String idPrefix) {
+        String feed = props.getFeed() == null ? "full" : props.getFeed().toLowerCase();
+        if (!feed.equals("full") && !feed.equals("delta")) {
+            throw new IllegalArgumentException("generator.lifecycle.feed must be full or delta: " + props.getFeed());
+        }
+        this.delta = feed.equals("delta");
+        this.meanNanos = Campaign.parseDuration(props.getMeanRestore()).toNanos();
+        if (meanNanos <= 0) throw new IllegalArgumentException("generator.lifecycle.meanRestore must be positive");
+        if (props.getMaxActive() < 1) throw new IllegalArgumentException("generator.lifecycle.maxActive must be positive");
+        this.maxLifeNanos = (long) (meanNanos * MAX_LIFE) + 1;
+        this.maxActive = props.getMaxActive();
+        this.seed = seed;
+        this.offsets = offsets;
+        this.outages = outages;
+        this.nodes = nodes;
+        this.dnOffsets = dnOffsets;
+        this.firstOutage = new long[outages.length + 1];
+        for (int j = 1; j <= outages.length; j++) firstOutage[j] = firstOutage[j - 1] + outages[j - 1];
+        this.baseEpochNanos = TimeUnit.SECONDS.toNanos(base.toEpochSecond()) + base.getNano();
+        this.idPrefix = idPrefix;
+        this.idDigits = Math.max(6, Long.toString(firstOutage[outages.length]).length());
+    }
+
+    /** Outages opened over the whole run. */
+    long totalOutages() {
+        return firstOutage[outages.length];
+    }
+
+    /** Render local payload j (1-based) with the outages it carries at its tick. */
+    void render(int j, OutputStream out, PayloadTemplate template, DnPool dnPool) throws IOException {
+        Table table = tables.get();
+        table.advanceTo(j);
+        template.render(out, gen -> table.write(gen, j, dnPool));
+    }
+
+    /**
+     * Delivery nodes payload j carries at least: those of the outages it opens (delta) or of every outage opened
+     * recently enough that it cannot be restored yet, which keep at least half their nodes (full).
+     */
+    long minNodes(int j) {
+        int from = j;
+        if (!delta) {
+            long since = offsets[j - 1] - (long) (meanNanos * MIN_LIFE);
+            int lo = 1;
+            int hi = j;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (offsets[mid - 1] > since) hi = mid; else lo = mid + 1;
+            }
+            from = lo;
+        }
+        return (dnOffsets[j] - dnOffsets[from - 1]) / 2;
+    }
+
+    /** One thread's view of the active outages; {@link #tick} is the payload it was last advanced to. */
+    private final class Table {
+        private int tick;
+        private int count;
+        private long[] number = new long[INITIAL_CAPACITY];
+        private int[] openTick = new int[INITIAL_CAPACITY];
+        private long[] assignedAt = new long[INITIAL_CAPACITY];
+        private long[] onSiteAt = new long[INITIAL_CAPACITY];
+        private long[] restoreAt = new long[INITIAL_CAPACITY];
+        private long[] etrAssigned = new long[INITIAL_CAPACITY];
+        private long[] etrOnSite = new long[INITIAL_CAPACITY];
+        // Nodes still out once the crew is on site
+        private int[] remaining = new int[INITIAL_CAPACITY];
+        private final char[] id = new char[idPrefix.length() + idDigits];
+        private final char[] stamp = new char[20];
+        private final char[] scratch = DnPool.newScratch();
+        private long stampDay = Long.MIN_VALUE;
+
+        Table() {
+            idPrefix.getChars(0, idPrefix.length(), id, 0);
+        }
+
+        /**
+         * Move to payload j. The next payload is one step: outages restored by the previous payload are dropped and
+         * the ones j opens appended. Any other payload rebuilds the table from scratch.
+         */
+        void advanceTo(int j) {
+            if (j == tick) return;
+            long previous = j > 1 ? offsets[j - 2] : Long.MIN_VALUE;
+            if (j == tick + 1) {
+                int kept = 0;
+                for (int i = 0; i < count; i++) {
+                    if (restoreAt[i] > previous) move(i, kept++);
+                }
+                count = kept;
+            } else {
+                count = 0;
+                // Outages opened before 'from' were all restored by the previous payload
+                int from = j;
+                while (from > 1 && offsets[from - 2] + maxLifeNanos > previous) from--;
+                for (int b = from; b < j; b++) open(b, previous);
+            }
+            open(j, Long.MIN_VALUE);
+            tick = j;
+        }
+
+        /** Append the outages payload b opens that are restored after {@code restoredAfter}. */
+        private void open(int b, long restoredAfter) {
+            long openAt = offsets[b - 1];
+            int k = nodes[b - 1];
+            for (int s = 0; s < outages[b - 1]; s++) {
+                long n = firstOutage[b - 1] + s;
+                SplittableRandom random = new SplittableRandom(seed ^ (n * 0x9E3779B97F4A7C15L));
+                long life = (long) (meanNanos * (MIN_LIFE + (MAX_LIFE - MIN_LIFE) * random.nextDouble()));
+                if (openAt + life <= restoredAfter) continue;
+                if (count == maxActive) {
+                    throw new IllegalStateException("More than generator.lifecycle.maxActive=" + maxActive
+                            + " outages open at payload " + b + "; raise it or shorten generator.lifecycle.meanRestore");
+                }
+                if (count == number.length) grow();
+                number[count] = n;
+                openTick[count] = b;
+                assignedAt[count] = openAt + (long) (life * (0.05 + 0.25 * random.nextDouble()));
+                onSiteAt[count] = openAt + (long) (life * (0.4 + 0.3 * random.nextDouble()));
+                restoreAt[count] = openAt + life;
+                etrAssigned[count] = openAt + (long) (life * (0.8 + 0.7 * random.nextDouble()));
+                etrOnSite[count] = openAt + life + (long) (life * 0.1 * random.nextDouble());
+                remaining[count] = k - (int) (k * 0.5 * random.nextDouble());
+                count++;
+            }
+        }
+
+        private void move(int from, int to) {
+            if (from == to) return;
+            number[to] = number[from];
+            openTick[to] = openTick[from];
+            assignedAt[to] = assignedAt[from];
+            onSiteAt[to] = onSiteAt[from];
+            restoreAt[to] = restoreAt[from];
+            etrAssigned[to] = etrAssigned[from];
+            etrOnSite[to] = etrOnSite[from];
+            remaining[to] = remaining[from];
+        }
+
+        private void grow() {
+            int capacity = (int) Math.min(maxActive, number.length * 2L);
+            number = Arrays.copyOf(number, capacity);
+            openTick = Arrays.copyOf(openTick, capacity);
+            assignedAt = Arrays.copyOf(assignedAt, capacity);
+            onSiteAt = Arrays.copyOf(onSiteAt, capacity);
+            restoreAt = Arrays.copyOf(restoreAt, capacity);
+            etrAssigned = Arrays.copyOf(etrAssigned, capacity);
+            etrOnSite = Arrays.copyOf(etrOnSite, capacity);
+            remaining = Arrays.copyOf(remaining, capacity);
+        }
+
+        /** Write the outages payload j carries; the table must be at j. */
+        void write(JsonGenerator gen, int j, DnPool dnPool) throws IOException {
+            long now = offsets[j - 1];
+            long previous = j > 1 ? offsets[j - 2] : Long.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                int stage = restoreAt[i] <= now ? RESTORED : onSiteAt[i] <= now ? ON_SITE : assignedAt[i] <= now ? 1 : 0;
+                if (delta) {
+                    boolean changed = openTick[i] == j || within(assignedAt[i], previous, now)
+                            || within(onSiteAt[i], previous, now) || within(restoreAt[i], previous, now);
+                    if (!changed) continue;
+                } else if (stage == RESTORED) {
+                    continue;
+                }
+                write(gen, i, stage, dnPool);
+            }
+        }
+
+        private boolean within(long t, long previous, long now) {
+            return t > previous && t <= now;
+        }
+
+        private void write(JsonGenerator gen, int i, int stage, DnPool dnPool) throws IOException {
+            int b = openTick[i];
+            int out = stage == RESTORED ? 0 : stage == ON_SITE ? remaining[i] : nodes[b - 1];
+            gen.writeStartObject();
+            gen.writeFieldName(PayloadTemplate.ID);
+            long n = number[i];
+            for (int d = id.length - 1; d >= idPrefix.length(); d--, n /= 10) {
+                id[d] = (char) ('0' + n % 10);
+            }
+            gen.writeString(id, 0, id.length);
+            gen.writeFieldName(CREW_STATUS);
+            gen.writeString(STAGES[stage]);
+            gen.writeFieldName(CREW_ICON);
+            gen.writeBoolean(stage == ON_SITE);
+            gen.writeFieldName(ETR);
+            if (stage == 0) {
+                gen.writeString("");
+            } else {
+                writeStamp(gen, stage == 1 ? etrAssigned[i] : stage == ON_SITE ? etrOnSite[i] : restoreAt[i]);
+            }
+            gen.writeFieldName(PayloadTemplate.STARTED_AT);
+            writeStamp(gen, offsets[b - 1]);
+            gen.writeFieldName(PayloadTemplate.UPDATED_AT);
+            writeStamp(gen, stage == RESTORED ? restoreAt[i] : stage == ON_SITE ? onSiteAt[i]
+                    : stage == 1 ? assignedAt[i] : offsets[b - 1]);
+            gen.writeFieldName(METADATA);
+            gen.writeStartObject();
+            gen.writeFieldName(CUST_OUT);
+            gen.writeString(Integer.toString(out));
+            gen.writeEndObject();
+            gen.writeFieldName(PayloadTemplate.AFFECTED);
+            gen.writeStartArray();
+            // Restoration gives nodes back from the end of the outage's slice of the pool
+            long position = dnOffsets[b - 1] + (number[i] - firstOutage[b - 1]) * nodes[b - 1];
+            for (int k = 0; k < out; k++) {
+                gen.writeStartObject();
+                gen.writeFieldName(PayloadTemplate.DN_ID);
+                dnPool.writeId(gen, position + k, scratch);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+
+        /** The timeline offset as a UTC timestamp to the second, like the sample's. */
+        private void writeStamp(JsonGenerator gen, long offsetNanos) throws IOException {
+            long second = Math.floorDiv(baseEpochNanos + offsetNanos, 1_000_000_000L);
+            long day = Math.floorDiv(second, 86_400L);
+            if (day != stampDay) {
+                LocalDate.ofEpochDay(day).toString().getChars(0, 10, stamp, 0);
+                stamp[10] = 'T';
+                stamp[13] = ':';
+                stamp[16] = ':';
+                stamp[19] = 'Z';
+                stampDay = day;
+            }
+            int ofDay = (int) (second - day * 86_400L);
+            digits(ofDay / 3600, 11);
+            digits(ofDay / 60 % 60, 14);
+            digits(ofDay % 60, 17);
+            gen.writeString(stamp, 0, stamp.length);
+        }
+
+        private void digits(int value, int at) {
+            stamp[at] = (char) ('0' + value / 10);
+            stamp[at + 1] = (char) ('0' + value % 10);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.outages;
+
+import com.example.outages.config.OutputProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Binary journal of send outcomes in {@code <output.dir>/journal/journal-NNNNNN.bin}, one fixed-size record per
+ * payload that succeeded or gave up. Senders only claim a slot in a preallocated lock-free ring and fill it in; a
+ * writer thread drains the ring into a memory-mapped segment and rotates to a new one when it is full. If the writer
+ * falls a whole ring behind, outcomes are counted as lost rather than slowing the sender down.
+ * <p>
+ * Segment layout: a {@value #HEADER_BYTES}-byte header (magic, version, wall-clock nanos of the campaign timeline
+ * start, record count, outcomes lost so far) followed by {@value #RECORD_BYTES}-byte records: intended send, actual
+ * send and latency in nanos (the first two relative to the timeline start), payload index, body bytes, HTTP status
+ * (0 for a transport error), attempts and the target's position in {@code target.targets} (0 for a single target).
+ * Read it back with {@link JournalSummary}.
+ */
+final class OutcomeJournal implements Runnable, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(OutcomeJournal.class);
+    static final String DIR = "journal";
+    static final int MAGIC = 0x4f4a524e; // "OJRN"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_BYTES = 40;
+    private static final int COUNT_OFFSET = 16;
+    private static final int SLOT_LONGS = 5;
+    private static final int BATCH = 4096;
+
+    private final Path dir;
+    private final long t0EpochNanos;
+    private final long t0Nanos;
+    private final long segmentBytes;
+    private final int mask;
+    private final long[] slots;
+    // Slot i holds sequence s once record s is fully written; -1 (or an older s) until then
+    private final AtomicLongArray published;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean open = true;
+
+    private int segmentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentCount;
+    private long written;
+
+    private OutcomeJournal(Path dir, Instant t0, long t0Nanos, int firstSegment, OutputProperties.Journal props,
+                           String name) throws IOException {
+        this.dir = dir;
+        this.t0EpochNanos = TimeUnit.SECONDS.toNanos(t0.getEpochSecond()) + t0.getNano();
+        this.t0Nanos = t0Nanos;
+        this.segmentBytes = Math.max(1, props.getSegmentMb()) * 1024L * 1024L;
+        int capacity = Integer.highestOneBit(Math.max(2, props.getRingSize()) * 2 - 1);
+        this.mask = capacity - 1;
+        this.slots = new long[capacity * SLOT_LONGS];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) published.set(i, -1);
+        this.segmentIndex = firstSegment;
+        nextSegment();
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Start journaling a run whose timeline began at {@code t0} ({@code t0Nanos} on the nanoTime clock). A resumed
+     * run appends new segments after the existing ones; otherwise the journal of the previous run is deleted.
+     */
+    static OutcomeJournal open(Path outDir, Instant t0, long t0Nanos, boolean resumed, OutputProperties.Journal props,
+                               String name) throws IOException {
+        Path dir = outDir.resolve(DIR);
+        Files.createDirectories(dir);
+        List<Path> existing = segments(dir);
+        int first = 0;
+        if (resumed) {
+            first = existing.size();
+        } else {
+            for (Path p : existing) Files.delete(p);
+        }
+        return new OutcomeJournal(dir, t0, t0Nanos, first, props, name);
+    }
+
+    /** Segment files of a journal directory, oldest first. */
+    static List<Path> segments(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) return new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().matches("journal-\\d{6}\\.bin"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Append one outcome; safe from any thread and never blocks. Times are {@code System.nanoTime()} values; status
+     * is the HTTP status or 0 when no response arrived.
+     */
+    void record(int index, int attempts, long intendedNanos, long sentNanos, long completedNanos, int status,
+                int bytes, int target) {
+        long t;
+        do {
+            t = tail.get();
+            if (!open || t - head.get() > mask) {
+                lost.incrementAndGet();
+                return;
+            }
+        } while (!tail.compareAndSet(t, t + 1));
+        int slot = (int) (t & mask);
+        int base = slot * SLOT_LONGS;
+        slots[base] = intendedNanos - t0Nanos;
+        slots[base + 1] = sentNanos - t0Nanos;
+        slots[base + 2] = completedNanos - intendedNanos;
+        slots[base + 3] = ((long) index << 32) | (bytes & 0xffffffffL);
+        slots[base + 4] = ((long) target << 32) | ((status & 0xffffL) << 16) | (attempts & 0xffff);
+        published.set(slot, t);
+    }
+
+    long written() {
+        return written;
+    }
+
+    long lost() {
+        return lost.get();
+    }
+
+    @Override
+    public void run() {
+        long h = head.get();
+        try {
+            while (true) {
+                boolean closing = !open;
+                int n = 0;
+                while (n < BATCH && published.get((int) (h & mask)) == h) {
+                    write((int) (h & mask));
+                    head.lazySet(++h);
+                    n++;
+                }
+                if (n > 0) {
+                    updateHeader();
+                } else if (closing) {
+                    return;
+                } else {
+                    LockSupport.parkNanos(1_000_000);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            open = false;
+            log.error("Outcome journal in {} stopped: {}", dir, e.toString());
+        } finally {
+            closeSegment();
+        }
+    }
+
+    private void write(int slot) throws IOException {
+        if (segment.remaining() < RECORD_BYTES) {
+            closeSegment();
+            segmentIndex++;
+            nextSegment();
+        }
+        int base = slot * SLOT_LONGS;
+        long packed = slots[base + 3];
+        long outcome = slots[base + 4];
+        segment.putLong(slots[base])
+                .putLong(slots[base + 1])
+                .putLong(slots[base + 2])
+                .putInt((int) (packed >>> 32))
+                .putInt((int) packed)
+                .putShort((short) (outcome >>> 16))
+                .putShort((short) outcome)
+                .putInt((int) (outcome >>> 32));
+        segmentCount++;
+        written++;
+    }
+
+    private void nextSegment() throws IOException {
+        Path file = dir.resolve(String.format("journal-%06d.bin", segmentIndex));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        segment.putInt(MAGIC).putInt(VERSION).putLong(t0EpochNanos).putLong(0).putLong(0);
+        segmentCount = 0;
+    }
+
+    private void updateHeader() {
+        segment.putLong(COUNT_OFFSET, segmentCount);
+        segment.putLong(COUNT_OFFSET + 8, lost.get());
+    }
+
+    /** Flush the segment and trim the file to its records. */
+    private void closeSegment() {
+        if (channel == null) return;
+        updateHeader();
+        int used = segment.position();
+        segment.force();
+        try {
+            // Best effort: some platforms refuse to shrink a file that is still mapped
+            channel.truncate(used);
+        } catch (IOException e) {
+            log.debug("Could not trim {}: {}", dir, e.toString());
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close journal segment in {}: {}", dir, e.toString());
+        }
+        channel = null;
+    }
+
+    /** Write out everything recorded so far and stop; outcomes recorded afterwards are counted as lost. */
+    @Override
+    public void close() {
+        open = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (lost.get() > 0) {
+            log.warn("Outcome journal in {}: {} outcomes written, {} lost (ring full)", dir, written, lost.get());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.outages;
+
+import com.example.outages.config.SendProperties;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Releases one campaign's sends at their intended {@code System.nanoTime()} instants on a dedicated thread. The
+ * thread parks until it is {@code send.pacing.spin} away from the next deadline, then busy-spins the rest, so
+ * sub-millisecond intervals are hit without burning a core at slow rates. Spinning is bounded process-wide: at most
+ * {@link #MAX_SPINNERS} pacers spin at once, the others park through the last stretch instead, so many fast campaigns
+ * cannot take every core.
+ * <p>
+ * A send is late when the previous one (a blocking closed-loop post, a GC pause) held the thread past its deadline.
+ * Up to {@code send.pacing.maxLag} late it goes out immediately; beyond that {@code send.pacing.lagPolicy} decides:
+ * {@code catch-up} still sends every payload back to back, {@code drop} skips late payloads until the schedule is
+ * met again, and {@code shift} moves the rest of the timeline back by the lag.
+ */
+final class Pacer implements Runnable {
+    enum LagPolicy { CATCH_UP, DROP, SHIFT }
+
+    static final int MAX_SPINNERS = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+    private static final Semaphore SPINNERS = new Semaphore(MAX_SPINNERS);
+
+    /** Callbacks, all invoked on the pacer thread. */
+    interface Target {
+        /** Payload i is due; {@code intendedNanos} is its (possibly shifted) deadline. */
+        void release(int i, long intendedNanos, long lagNanos);
+
+        /** Payload i was more than maxLag late under the drop policy. */
+        void skip(int i, long intendedNanos, long lagNanos);
+
+        /** Under the shift policy, the rest of the timeline (its end included) moved back by {@code lagNanos}. */
+        void shifted(long lagNanos);
+
+        /** Every payload was released or skipped. Not called when the pacer is stopped. */
+        void finished();
+    }
+
+    private final WorkloadSchedule schedule;
+    private final int first;
+    private final int stride;
+    private final int from;
+    private final int count;
+    private final long t0Nanos;
+    private final long spinNanos;
+    private final long maxLagNanos;
+    private final LagPolicy policy;
+    private final Target target;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * Payloads {@code first, first + stride, ...} ({@code count} of them) of the schedule, timed from {@code t0Nanos};
+     * the first {@code from} of them were already sent by an earlier, interrupted run.
+     */
+    Pacer(String name, WorkloadSchedule schedule, int first, int stride, int from, int count, long t0Nanos,
+          SendProperties.Pacing pacing, Target target) {
+        this.schedule = schedule;
+        this.first = first;
+        this.stride = stride;
+        this.from = from;
+        this.count = count;
+        this.t0Nanos = t0Nanos;
+        this.spinNanos = Campaign.parseDuration(pacing.getSpin()).toNanos();
+        this.maxLagNanos = Campaign.parseDuration(pacing.getMaxLag()).toNanos();
+        this.policy = policyOf(pacing.getLagPolicy());
+        this.target = target;
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+    }
+
+    static LagPolicy policyOf(String name) {
+        switch (name == null ? "catch-up" : name.toLowerCase()) {
+            case "catch-up": return LagPolicy.CATCH_UP;
+            case "drop": return LagPolicy.DROP;
+            case "shift": return LagPolicy.SHIFT;
+            default: throw new IllegalArgumentException("send.pacing.lagPolicy must be catch-up, drop or shift: " + name);
+        }
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /** Release nothing further; a send already in progress completes. */
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+        long shift = 0;
+        for (int i = from; i < count; i++) {
+            long deadline = t0Nanos + schedule.offsetNanos(first + i * stride) + shift;
+            if (!await(deadline)) return;
+            long lag = System.nanoTime() - deadline;
+            if (lag > maxLagNanos) {
+                if (policy == LagPolicy.DROP) {
+                    target.skip(i, deadline, lag);
+                    continue;
+                }
+                if (policy == LagPolicy.SHIFT) {
+                    target.shifted(lag);
+                    shift += lag;
+                    deadline += lag;
+                    lag = 0;
+                }
+            }
+            target.release(i, deadline, Math.max(0, lag));
+            if (!running) return;
+        }
+        target.finished();
+    }
+
+    /** Park, then spin if a spin slot is free (park otherwise), until {@code deadline}; false if stopped first. */
+    private boolean await(long deadline) {
+        while (running) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return true;
+            if (remaining > spinNanos) {
+                LockSupport.parkNanos(remaining - spinNanos);
+            } else if (SPINNERS.tryAcquire()) {
+                try {
+                    while (running && deadline - System.nanoTime() > 0) Thread.onSpinWait();
+                } finally {
+                    SPINNERS.release();
+                }
+            } else {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+        return false;
+    }
+}
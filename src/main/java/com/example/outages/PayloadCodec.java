@@ -0,0 +1,155 @@
+package com.example.outages;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression applied once at generation time ({@code generator.compression}); the sender posts the stored bytes
+ * as-is with the matching {@code Content-Encoding}, so compression costs nothing per send.
+ */
+public abstract class PayloadCodec {
+    public static final PayloadCodec NONE = new PayloadCodec("none", null, "") {
+        @Override
+        public byte[] encode(ByteBuffer raw) {
+            byte[] copy = new byte[raw.remaining()];
+            raw.duplicate().get(copy);
+            return copy;
+        }
+
+        @Override
+        public OutputStream wrap(OutputStream out) {
+            return out;
+        }
+    };
+
+    private final String name;
+    private final String contentEncoding;
+    private final String fileSuffix;
+
+    private PayloadCodec(String name, String contentEncoding, String fileSuffix) {
+        this.name = name;
+        this.contentEncoding = contentEncoding;
+        this.fileSuffix = fileSuffix;
+    }
+
+    /** {@code none}, {@code gzip} or {@code zstd}; a negative level selects the codec's default. */
+    public static PayloadCodec of(String codec, int level) {
+        switch (codec == null ? "none" : codec.toLowerCase()) {
+            case "none": return NONE;
+            case "gzip": return new Gzip(level < 0 ? Deflater.DEFAULT_COMPRESSION : level);
+            case "zstd": return new ZstdCodec(level < 0 ? 3 : level);
+            default: throw new IllegalArgumentException("Unknown generator.compression.codec: " + codec);
+        }
+    }
+
+    /** Compress the remaining bytes of {@code raw} (left untouched) into a new array. */
+    public abstract byte[] encode(ByteBuffer raw) throws IOException;
+
+    /**
+     * Compress everything written to the returned stream into {@code out}, for payloads rendered straight to their
+     * destination instead of into a buffer. Closing the returned stream finishes the frame and closes {@code out}.
+     */
+    public abstract OutputStream wrap(OutputStream out) throws IOException;
+
+    public String getName() { return name; }
+
+    /** Value of the Content-Encoding header, or null when payloads are sent uncompressed. */
+    public String getContentEncoding() { return contentEncoding; }
+
+    /** Appended to pre-generated file names, e.g. {@code .gz}. */
+    public String getFileSuffix() { return fileSuffix; }
+
+    /** RFC 1952 framing around raw deflate, so one Deflater per thread can be reused instead of one per payload. */
+    private static final class Gzip extends PayloadCodec {
+        private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+        private static final int TRAILER = 8;
+
+        private final int level;
+        private final ThreadLocal<Deflater> deflaters;
+
+        Gzip(int level) {
+            super("gzip", "gzip", ".gz");
+            this.level = level;
+            this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level, true));
+        }
+
+        @Override
+        public OutputStream wrap(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, 64 * 1024) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+
+        @Override
+        public byte[] encode(ByteBuffer raw) {
+            ByteBuffer src = raw.duplicate();
+            int length = src.remaining();
+            CRC32 crc = new CRC32();
+            crc.update(src.duplicate());
+
+            Deflater deflater = deflaters.get();
+            deflater.reset();
+            deflater.setInput(src);
+            deflater.finish();
+            byte[] out = Arrays.copyOf(HEADER, HEADER.length + length / 4 + 64);
+            int size = HEADER.length;
+            while (!deflater.finished()) {
+                if (size == out.length) out = Arrays.copyOf(out, out.length * 2);
+                size += deflater.deflate(out, size, out.length - size);
+            }
+            if (size + TRAILER > out.length) out = Arrays.copyOf(out, size + TRAILER);
+            putIntLE(out, size, (int) crc.getValue());
+            putIntLE(out, size + 4, length);
+            return Arrays.copyOf(out, size + TRAILER);
+        }
+
+        private static void putIntLE(byte[] b, int at, int v) {
+            b[at] = (byte) v;
+            b[at + 1] = (byte) (v >>> 8);
+            b[at + 2] = (byte) (v >>> 16);
+            b[at + 3] = (byte) (v >>> 24);
+        }
+    }
+
+    private static final class ZstdCodec extends PayloadCodec {
+        private final int level;
+
+        ZstdCodec(int level) {
+            super("zstd", "zstd", ".zst");
+            this.level = level;
+        }
+
+        @Override
+        public OutputStream wrap(OutputStream out) throws IOException {
+            return new ZstdOutputStream(out, level);
+        }
+
+        @Override
+        public byte[] encode(ByteBuffer raw) throws IOException {
+            byte[] src;
+            int offset;
+            int length = raw.remaining();
+            if (raw.hasArray()) {
+                src = raw.array();
+                offset = raw.arrayOffset() + raw.position();
+            } else {
+                src = NONE.encode(raw);
+                offset = 0;
+            }
+            byte[] dst = new byte[(int) Zstd.compressBound(length)];
+            long size = Zstd.compressByteArray(dst, 0, dst.length, src, offset, length, level);
+            if (Zstd.isError(size)) throw new IOException("zstd compression failed: " + Zstd.getErrorName(size));
+            return Arrays.copyOf(dst, (int) size);
+        }
+    }
+}
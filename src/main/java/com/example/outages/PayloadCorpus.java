@@ -0,0 +1,44 @@
+package com.example.outages;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/** The ordered set of payloads a campaign sends, one per tick. */
+public interface PayloadCorpus extends Closeable {
+
+    int size();
+
+    /**
+     * The bytes of payload {@code index} (0-based). The returned buffer is owned by the caller's send and must not be
+     * written to; implementations hand out views of their storage rather than copies wherever they can.
+     */
+    ByteBuffer payload(int index) throws IOException;
+
+    /**
+     * Whether payload {@code index} is longer than {@code bytes} and should be sent as {@link #chunks} rather than
+     * taken whole. Corpora that cannot tell without producing the payload say no.
+     */
+    default boolean isLargerThan(int index, long bytes) throws IOException {
+        return false;
+    }
+
+    /**
+     * Payload {@code index} as buffers of at most {@code chunkSize} bytes, produced as the connection takes them.
+     * By default these are views of {@link #payload}; corpora that can produce a payload without holding it whole
+     * override this.
+     */
+    default Flux<DataBuffer> chunks(int index, int chunkSize) throws IOException {
+        return RequestBody.slices(payload(index), chunkSize);
+    }
+
+    /** Human-readable name of a payload for logs. */
+    String name(int index);
+
+    @Override
+    default void close() throws IOException {
+    }
+}
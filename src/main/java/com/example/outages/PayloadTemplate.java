@@ -0,0 +1,151 @@
+package com.example.outages;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The sample payload compiled once into pre-encoded byte fragments. Everything in the sample except the
+ * {@code outages} array is copied verbatim from {@link #head}/{@link #tail}; the outages themselves are streamed
+ * with a {@link JsonGenerator} using pre-encoded field names, so rendering a payload allocates next to nothing.
+ * Output is compact (not pretty-printed) JSON.
+ */
+public final class PayloadTemplate {
+    private static final JsonFactory JSON = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    static final SerializedString ID = new SerializedString("id");
+    static final SerializedString STARTED_AT = new SerializedString("startedAt");
+    static final SerializedString UPDATED_AT = new SerializedString("updatedAt");
+    static final SerializedString AFFECTED = new SerializedString("affectedDeliveryNodes");
+    static final SerializedString DN_ID = new SerializedString("dnId");
+
+    // Root object up to and including "outages":
+    private final byte[] head;
+    // Root fields after the outages array, plus the closing brace
+    private final byte[] tail;
+
+    private PayloadTemplate(byte[] head, byte[] tail) {
+        this.head = head;
+        this.tail = tail;
+    }
+
+    public static PayloadTemplate compile(Path samplePath) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> sample = mapper.readValue(Files.readAllBytes(samplePath), LinkedHashMap.class);
+        if (!sample.containsKey("outages")) sample.put("outages", null);
+
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        ByteArrayOutputStream tail = new ByteArrayOutputStream();
+        ByteArrayOutputStream current = head;
+        head.write('{');
+        boolean first = true;
+        for (Map.Entry<String, Object> e : sample.entrySet()) {
+            if (!first) current.write(',');
+            first = false;
+            if ("outages".equals(e.getKey())) {
+                head.write(mapper.writeValueAsBytes(e.getKey()));
+                head.write(':');
+                current = tail;
+                continue;
+            }
+            current.write(mapper.writeValueAsBytes(e.getKey()));
+            current.write(':');
+            current.write(mapper.writeValueAsBytes(e.getValue()));
+        }
+        tail.write('}');
+        return new PayloadTemplate(head.toByteArray(), tail.toByteArray());
+    }
+
+    /**
+     * Render one payload: {@code outages} outages with ids {@code <idPrefix>-001..}, each affecting
+     * {@code nodesPerOutage} consecutive delivery nodes starting at pool position {@code dnOffset}.
+     */
+    public void render(OutputStream out, String idPrefix, String timestamp, int outages, int nodesPerOutage,
+                       long dnOffset, DnPool dnPool) throws IOException {
+        out.write(head);
+        // Same ids as String.format("%s-%03d", idPrefix, seq), filled in place
+        int digits = Math.max(3, Integer.toString(outages).length());
+        char[] id = new char[idPrefix.length() + 1 + digits];
+        idPrefix.getChars(0, idPrefix.length(), id, 0);
+        id[idPrefix.length()] = '-';
+        char[] scratch = DnPool.newScratch();
+        try (JsonGenerator gen = JSON.createGenerator(out)) {
+            gen.writeStartArray();
+            for (int i = 0; i < outages; i++) {
+                for (int d = id.length - 1, seq = i + 1; d > idPrefix.length(); d--, seq /= 10) {
+                    id[d] = (char) ('0' + seq % 10);
+                }
+
+                gen.writeStartObject();
+                gen.writeFieldName(ID);
+                gen.writeString(id, 0, id.length);
+                gen.writeFieldName(STARTED_AT);
+                gen.writeString(timestamp);
+                gen.writeFieldName(UPDATED_AT);
+                gen.writeString(timestamp);
+                gen.writeFieldName(AFFECTED);
+                gen.writeStartArray();
+                long position = dnOffset + (long) i * nodesPerOutage;
+                for (int k = 0; k < nodesPerOutage; k++) {
+                    gen.writeStartObject();
+                    gen.writeFieldName(DN_ID);
+                    dnPool.writeId(gen, position + k, scratch);
+                    gen.writeEndObject();
+                }
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+        out.write(tail);
+    }
+
+    /** Writes the elements of a payload's outages array. */
+    interface OutageWriter {
+        void write(JsonGenerator gen) throws IOException;
+    }
+
+    /** Render one payload whose outages are written by {@code outages}, e.g. from {@link OutageLifecycle}. */
+    void render(OutputStream out, OutageWriter outages) throws IOException {
+        out.write(head);
+        try (JsonGenerator gen = JSON.createGenerator(out)) {
+            gen.writeStartArray();
+            outages.write(gen);
+            gen.writeEndArray();
+        }
+        out.write(tail);
+    }
+
+    /** A growable byte buffer that is reset and reused between payloads instead of reallocated. */
+    public static final class Buffer extends ByteArrayOutputStream {
+        public Buffer(int initialSize) {
+            super(initialSize);
+        }
+
+        public ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+
+        public void writeTo(Path file) throws IOException {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer bb = asByteBuffer();
+                while (bb.hasRemaining()) ch.write(bb);
+            }
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.outages;
+
+import com.example.outages.config.GeneratorProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A recorded feed to replay: every {@code *.json} (or {@code *.json.gz}) file under a directory or inside a zip,
+ * ordered by the time it was recorded. Only names and timestamps are indexed up front; payload bytes are read one
+ * at a time when the campaign's producer thread gets to them.
+ */
+final class ReplaySource implements Closeable {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // The first ISO-8601 date-time in a file name; time separators may be '-' as in our own generated files
+    private static final Pattern NAME_TIMESTAMP = Pattern.compile(
+            "(\\d{4}-\\d{2}-\\d{2})T(\\d{2})[-:](\\d{2})[-:](\\d{2})(\\.\\d{1,9})?(Z|[+-]\\d{2}:?\\d{2})?");
+
+    private final String source;
+    private final Path dir;
+    private final ZipFile zip;
+    private final String[] names;
+    private final long[] recordedNanos;
+
+    private ReplaySource(String source, Path dir, ZipFile zip, String[] names, long[] recordedNanos) {
+        this.source = source;
+        this.dir = dir;
+        this.zip = zip;
+        this.names = names;
+        this.recordedNanos = recordedNanos;
+    }
+
+    /** Index {@code generator.replay.source}: list the recordings and read each one's timestamp. */
+    static ReplaySource open(GeneratorProperties.Replay props) throws IOException {
+        String source = props.getSource();
+        if (source == null || source.isBlank()) throw new IllegalArgumentException("generator.replay.source is required");
+        Path path = Paths.get(source);
+        List<Entry> entries = new ArrayList<>();
+        ZipFile zip = null;
+        Path dir = null;
+        if (Files.isDirectory(path)) {
+            dir = path;
+            try (Stream<Path> files = Files.walk(path)) {
+                for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                    String name = path.relativize(file).toString();
+                    if (!isRecording(name)) continue;
+                    entries.add(new Entry(name, timestamp(props, name,
+                            () -> Files.getLastModifiedTime(file).toInstant(), () -> Files.newInputStream(file))));
+                }
+            }
+        } else if (Files.isRegularFile(path)) {
+            zip = new ZipFile(path.toFile());
+            try {
+                for (ZipEntry e : Collections.list(zip.entries())) {
+                    if (e.isDirectory() || !isRecording(e.getName())) continue;
+                    ZipFile z = zip;
+                    entries.add(new Entry(e.getName(), timestamp(props, e.getName(),
+                            () -> e.getLastModifiedTime().toInstant(), () -> z.getInputStream(e))));
+                }
+            } catch (IOException | RuntimeException e) {
+                zip.close();
+                throw e;
+            }
+        } else {
+            throw new IllegalArgumentException("generator.replay.source " + source + " is neither a directory nor a zip");
+        }
+        if (entries.isEmpty()) {
+            if (zip != null) zip.close();
+            throw new IllegalArgumentException("No *.json recordings in " + source);
+        }
+        if (entries.size() > WorkloadSchedule.MAX_PAYLOADS) {
+            if (zip != null) zip.close();
+            throw new IllegalArgumentException(source + " holds more than " + WorkloadSchedule.MAX_PAYLOADS + " recordings");
+        }
+        entries.sort(Comparator.comparingLong((Entry e) -> e.recordedNanos).thenComparing(e -> e.name));
+        String[] names = new String[entries.size()];
+        long[] recorded = new long[entries.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = entries.get(i).name;
+            recorded[i] = entries.get(i).recordedNanos;
+        }
+        return new ReplaySource(source, dir, zip, names, recorded);
+    }
+
+    private static boolean isRecording(String name) {
+        String file = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1);
+        return (file.endsWith(".json") || file.endsWith(".json.gz")) && !file.equals(CorpusManifest.MANIFEST_FILE);
+    }
+
+    private interface IoSupplier<T> {
+        T get() throws IOException;
+    }
+
+    private static long timestamp(GeneratorProperties.Replay props, String name, IoSupplier<Instant> mtime,
+                                  IoSupplier<InputStream> content) throws IOException {
+        Instant t;
+        switch (props.getTimestamp() == null ? "name" : props.getTimestamp().toLowerCase()) {
+            case "name":
+                t = fromName(name);
+                break;
+            case "mtime":
+                t = mtime.get();
+                break;
+            case "field":
+                try (InputStream in = decode(name, content.get())) {
+                    t = fromField(name, MAPPER.readTree(in).at(props.getTimestampField()), props.getTimestampField());
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("generator.replay.timestamp must be name, mtime or field: "
+                        + props.getTimestamp());
+        }
+        return TimeUnit.SECONDS.toNanos(t.getEpochSecond()) + t.getNano();
+    }
+
+    static Instant fromName(String name) {
+        Matcher m = NAME_TIMESTAMP.matcher(name);
+        if (!m.find()) {
+            throw new IllegalArgumentException("No timestamp in the name of " + name
+                    + "; set generator.replay.timestamp to mtime or field");
+        }
+        String zone = m.group(6) == null ? "Z" : m.group(6);
+        if (zone.length() == 5) zone = zone.substring(0, 3) + ":" + zone.substring(3);
+        String iso = m.group(1) + "T" + m.group(2) + ":" + m.group(3) + ":" + m.group(4)
+                + (m.group(5) == null ? "" : m.group(5)) + zone;
+        return OffsetDateTime.parse(iso).toInstant();
+    }
+
+    private static Instant fromField(String name, JsonNode value, String pointer) {
+        if (value.isNumber()) return Instant.ofEpochMilli(value.asLong());
+        if (value.isTextual()) {
+            try {
+                return OffsetDateTime.parse(value.asText()).toInstant();
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(name + ": " + pointer + " is not an ISO date-time: " + value.asText());
+            }
+        }
+        throw new IllegalArgumentException(name + " has no timestamp at " + pointer);
+    }
+
+    private static InputStream decode(String name, InputStream in) throws IOException {
+        return name.endsWith(".gz") ? new GZIPInputStream(in) : in;
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    String name(int i) {
+        return names[i];
+    }
+
+    Instant recordedAt(int i) {
+        return Instant.ofEpochSecond(0, recordedNanos[i]);
+    }
+
+    /** Send offsets keeping the recorded gaps, divided by {@code timeScale}. */
+    WorkloadSchedule schedule(double timeScale) {
+        if (!(timeScale > 0)) throw new IllegalArgumentException("generator.replay.timeScale must be positive");
+        long[] offsets = new long[names.length];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = Math.round((recordedNanos[i] - recordedNanos[0]) / timeScale);
+        }
+        // A second of slack so the last recording is not cut off by the campaign's end time
+        return WorkloadSchedule.ofOffsets(offsets, offsets[offsets.length - 1] + TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /** The recording's bytes, decompressed if it was stored gzipped. */
+    byte[] read(int i) throws IOException {
+        String name = names[i];
+        InputStream raw;
+        if (zip != null) {
+            ZipEntry entry = zip.getEntry(name);
+            if (entry == null) throw new IOException(name + " disappeared from " + source);
+            raw = zip.getInputStream(entry);
+        } else {
+            raw = Files.newInputStream(dir.resolve(name));
+        }
+        try (InputStream in = decode(name, raw)) {
+            return in.readAllBytes();
+        }
+    }
+
+    /** Source, recordings and their timestamps, for the campaign fingerprint. */
+    void digest(MessageDigest sha) {
+        sha.update(source.getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < names.length; i++) {
+            sha.update(names[i].getBytes(StandardCharsets.UTF_8));
+            sha.update(Long.toString(recordedNanos[i]).getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Give every {@code id} a per-run {@code suffix} and move every {@code startedAt} by {@code shift}, anywhere in
+     * the document, so a replayed outage keeps its age relative to when it is sent and does not collide with the
+     * recorded original (or an earlier replay) on the target.
+     */
+    static byte[] rewrite(byte[] json, String suffix, Duration shift) throws IOException {
+        JsonNode root = MAPPER.readTree(json);
+        rewrite(root, suffix, shift);
+        return MAPPER.writeValueAsBytes(root);
+    }
+
+    private static void rewrite(JsonNode node, String suffix, Duration shift) {
+        if (node.isObject()) {
+            ObjectNode object = (ObjectNode) node;
+            Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode value = field.getValue();
+                if ("id".equals(field.getKey()) && value.isTextual()) {
+                    field.setValue(TextNode.valueOf(value.asText() + suffix));
+                } else if ("startedAt".equals(field.getKey()) && value.isTextual()) {
+                    field.setValue(TextNode.valueOf(shifted(value.asText(), shift)));
+                } else {
+                    rewrite(value, suffix, shift);
+                }
+            }
+        } else if (node.isArray()) {
+            node.forEach(child -> rewrite(child, suffix, shift));
+        }
+    }
+
+    private static String shifted(String timestamp, Duration shift) {
+        try {
+            OffsetDateTime t = OffsetDateTime.parse(timestamp).plus(shift);
+            // Keep the recorded precision: whole seconds stay whole seconds
+            t = t.truncatedTo(timestamp.indexOf('.') < 0 ? ChronoUnit.SECONDS : ChronoUnit.MILLIS);
+            return t.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            return timestamp;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (zip != null) zip.close();
+    }
+
+    private static final class Entry {
+        final String name;
+        final long recordedNanos;
+
+        Entry(String name, long recordedNanos) {
+            this.name = name;
+            this.recordedNanos = recordedNanos;
+        }
+    }
+}
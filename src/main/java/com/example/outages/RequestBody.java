@@ -0,0 +1,215 @@
+package com.example.outages;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * The body of one post: a whole payload handed to Reactor Netty as one wrapped buffer with a Content-Length, or a
+ * stream of buffers of at most {@code send.body.chunkKb} sent with chunked transfer encoding. A streamed payload is
+ * never whole in heap: its chunks are slices of a mapped segment, reads of a file, or the output of a renderer that
+ * blocks until the connection asks for more, and Netty releases each chunk once it is written.
+ */
+final class RequestBody {
+    static final NettyDataBufferFactory NETTY_BUFFERS = new NettyDataBufferFactory(ByteBufAllocator.DEFAULT);
+
+    /** Writes a payload to a stream; closing the stream is left to the caller. */
+    interface Writer {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private final ByteBuffer whole;
+    private final Flux<DataBuffer> chunks;
+    private final AtomicLong streamed = new AtomicLong();
+
+    private RequestBody(ByteBuffer whole, Flux<DataBuffer> chunks) {
+        this.whole = whole;
+        this.chunks = chunks;
+    }
+
+    static RequestBody whole(ByteBuffer payload) {
+        return new RequestBody(payload, null);
+    }
+
+    static RequestBody chunked(Flux<DataBuffer> chunks) {
+        return new RequestBody(null, chunks);
+    }
+
+    /**
+     * Another body over the same payload or chunk source, with its own count of bytes streamed; one payload is posted
+     * to several targets this way without copying. Chunk sources are cold, so each view reads or renders afresh.
+     */
+    RequestBody view() {
+        return new RequestBody(whole, chunks);
+    }
+
+    boolean isChunked() {
+        return chunks != null;
+    }
+
+    /** The Content-Length of a whole body. */
+    long contentLength() {
+        return whole.remaining();
+    }
+
+    /** Body size for the journal: the payload length, or what a chunked body has streamed so far. */
+    int bytes() {
+        return whole != null ? whole.remaining() : (int) Math.min(Integer.MAX_VALUE, streamed.get());
+    }
+
+    /**
+     * The buffers to write, reporting each one's size to {@code sent}. A whole body wraps a fresh view per
+     * subscription, so the corpus buffer it shares is never released.
+     */
+    Publisher<DataBuffer> publisher(LongConsumer sent) {
+        if (whole != null) {
+            return Mono.fromSupplier(() -> {
+                sent.accept(whole.remaining());
+                return NETTY_BUFFERS.wrap(Unpooled.wrappedBuffer(whole.duplicate()));
+            });
+        }
+        return chunks.doOnNext(chunk -> {
+            int n = chunk.readableByteCount();
+            streamed.addAndGet(n);
+            sent.accept(n);
+        });
+    }
+
+    /** Views of {@code payload} of at most {@code chunkSize} bytes each; nothing is copied. */
+    static Flux<DataBuffer> slices(ByteBuffer payload, int chunkSize) {
+        return Flux.defer(() -> {
+            ByteBuffer view = payload.duplicate();
+            return Flux.generate(sink -> {
+                if (!view.hasRemaining()) {
+                    sink.complete();
+                    return;
+                }
+                ByteBuffer slice = view.slice();
+                slice.limit(Math.min(chunkSize, slice.remaining()));
+                view.position(view.position() + slice.remaining());
+                sink.next(NETTY_BUFFERS.wrap(Unpooled.wrappedBuffer(slice)));
+            });
+        });
+    }
+
+    /** {@code file} read {@code chunkSize} bytes at a time, as fast as the connection takes them. */
+    static Flux<DataBuffer> read(Path file, int chunkSize) {
+        return DataBufferUtils.read(file, NETTY_BUFFERS, chunkSize);
+    }
+
+    /**
+     * What {@code writer} writes, cut into {@code chunkSize} chunks. The writer runs on a bounded-elastic thread and
+     * blocks whenever the connection has not asked for another chunk, so a payload of any size is rendered with only
+     * the chunks Netty has not yet written in memory; a cancelled post stops the writer at its next chunk.
+     */
+    static Flux<DataBuffer> render(Writer writer, int chunkSize) {
+        return Flux.create(sink -> {
+            ChunkStream out = new ChunkStream(sink, chunkSize);
+            sink.onRequest(out::request);
+            sink.onDispose(out::cancel);
+            Schedulers.boundedElastic().schedule(() -> {
+                try {
+                    writer.writeTo(out);
+                    out.finish();
+                    sink.complete();
+                } catch (Throwable e) {
+                    out.discard();
+                    sink.error(e);
+                }
+            });
+        });
+    }
+
+    /** Fills pooled buffers of {@code chunkSize} and hands each to the sink once it is full and requested. */
+    private static final class ChunkStream extends OutputStream {
+        private final FluxSink<DataBuffer> sink;
+        private final int chunkSize;
+        private ByteBuf chunk;
+        // Guarded by this
+        private long demand;
+        private boolean cancelled;
+
+        ChunkStream(FluxSink<DataBuffer> sink, int chunkSize) {
+            this.sink = sink;
+            this.chunkSize = chunkSize;
+        }
+
+        synchronized void request(long n) {
+            demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            notifyAll();
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            notifyAll();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (chunk == null) chunk = ByteBufAllocator.DEFAULT.buffer(chunkSize, chunkSize);
+            chunk.writeByte(b);
+            if (!chunk.isWritable()) emit();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (chunk == null) chunk = ByteBufAllocator.DEFAULT.buffer(chunkSize, chunkSize);
+                int n = Math.min(len, chunk.writableBytes());
+                chunk.writeBytes(b, off, n);
+                off += n;
+                len -= n;
+                if (!chunk.isWritable()) emit();
+            }
+        }
+
+        /** Send what is left of the last chunk. */
+        void finish() throws IOException {
+            if (chunk != null && chunk.isReadable()) {
+                emit();
+            } else {
+                discard();
+            }
+        }
+
+        void discard() {
+            if (chunk != null) {
+                chunk.release();
+                chunk = null;
+            }
+        }
+
+        private void emit() throws IOException {
+            synchronized (this) {
+                while (demand == 0 && !cancelled) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        cancelled = true;
+                    }
+                }
+                if (cancelled) throw new IOException("Request body cancelled");
+                if (demand != Long.MAX_VALUE) demand--;
+            }
+            ByteBuf full = chunk;
+            chunk = null;
+            sink.next(NETTY_BUFFERS.wrap(full));
+        }
+    }
+}
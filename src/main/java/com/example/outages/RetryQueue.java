@@ -0,0 +1,126 @@
+package com.example.outages;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retries of failed posts, kept off the pacer thread. Retries wait in a bounded delay queue until their backoff has
+ * elapsed, then a dispatcher thread starts them, with at most {@code retry.concurrency} in flight. A retry budget
+ * caps retries at {@code retry.budgetMin} plus {@code retry.budgetRatio} of first attempts, so an unhealthy target
+ * cannot turn the campaign into a retry storm.
+ */
+final class RetryQueue implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(RetryQueue.class);
+
+    private final DelayQueue<Task> queue = new DelayQueue<>();
+    private final int capacity;
+    private final Semaphore permits;
+    private final double budgetRatio;
+    private final int budgetMin;
+    private final AtomicLong firstAttempts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    RetryQueue(String name, int capacity, int concurrency, double budgetRatio, int budgetMin) {
+        this.capacity = capacity;
+        this.permits = new Semaphore(Math.max(1, concurrency));
+        this.budgetRatio = budgetRatio;
+        this.budgetMin = budgetMin;
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    void firstAttempt() {
+        firstAttempts.incrementAndGet();
+    }
+
+    /**
+     * Queue a retry to start after {@code delayNanos}; false if the queue is full or the budget is spent. The task must
+     * call {@link #done()} once its post completes.
+     */
+    boolean offer(Runnable task, long delayNanos) {
+        if (!running || queue.size() >= capacity) return false;
+        long issued = retries.incrementAndGet();
+        if (issued > budgetMin + budgetRatio * firstAttempts.get()) {
+            retries.decrementAndGet();
+            return false;
+        }
+        queue.add(new Task(task, System.nanoTime() + delayNanos));
+        return true;
+    }
+
+    /** Queue a task again without charging the budget, e.g. while the circuit breaker is open. */
+    void defer(Runnable task, long delayNanos) {
+        if (running) queue.add(new Task(task, System.nanoTime() + delayNanos));
+    }
+
+    /** A retry started by this queue has completed. */
+    void done() {
+        permits.release();
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    long retries() {
+        return retries.get();
+    }
+
+    /** Stop dispatching; returns how many queued retries were abandoned. */
+    int stop() {
+        running = false;
+        thread.interrupt();
+        int abandoned = queue.size();
+        queue.clear();
+        return abandoned;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                Task task = queue.take();
+                permits.acquire();
+                if (!running) return;
+                try {
+                    task.action.run();
+                } catch (RuntimeException e) {
+                    // One broken retry must not end the dispatcher and strand everything queued behind it
+                    log.error("Retry task failed on {}", thread.getName(), e);
+                    permits.release();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Task implements Delayed {
+        final Runnable action;
+        final long dueNanos;
+
+        Task(Runnable action, long dueNanos) {
+            this.action = action;
+            this.dueNanos = dueNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueNanos, ((Task) other).dueNanos);
+        }
+    }
+}
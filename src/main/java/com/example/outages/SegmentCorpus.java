@@ -0,0 +1,190 @@
+package com.example.outages;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * All payloads of a campaign in one append-only segment file ({@code corpus.seg}) plus an offset index
+ * ({@code corpus.idx}: payload count followed by count + 1 big-endian offsets). The segment is memory-mapped, so a send
+ * hands the network layer a view of the mapping: no per-send read syscall, no decode and no heap copy.
+ */
+public class SegmentCorpus implements PayloadCorpus {
+    static final String SEGMENT_FILE = "corpus.seg";
+    static final String INDEX_FILE = "corpus.idx";
+
+    // A single mapping is limited to 2GB; larger segments are mapped in regions split on payload boundaries
+    private static final long MAX_REGION = 1L << 30;
+
+    private final long[] offsets;
+    private final int[] regionFirstPayload;
+    private final long[] regionStart;
+    private final MappedByteBuffer[] regions;
+
+    private SegmentCorpus(long[] offsets, int[] regionFirstPayload, long[] regionStart, MappedByteBuffer[] regions) {
+        this.offsets = offsets;
+        this.regionFirstPayload = regionFirstPayload;
+        this.regionStart = regionStart;
+        this.regions = regions;
+    }
+
+    public static boolean exists(Path dir) {
+        return Files.isRegularFile(dir.resolve(SEGMENT_FILE)) && Files.isRegularFile(dir.resolve(INDEX_FILE));
+    }
+
+    /** Map an existing corpus written by {@link Writer}. */
+    public static SegmentCorpus open(Path dir) throws IOException {
+        long[] offsets;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(dir.resolve(INDEX_FILE))))) {
+            int count = in.readInt();
+            offsets = new long[count + 1];
+            for (int i = 0; i <= count; i++) offsets[i] = in.readLong();
+        }
+
+        List<Integer> firsts = new ArrayList<>();
+        List<Long> starts = new ArrayList<>();
+        List<MappedByteBuffer> maps = new ArrayList<>();
+        try (FileChannel ch = FileChannel.open(dir.resolve(SEGMENT_FILE), StandardOpenOption.READ)) {
+            if (ch.size() < offsets[offsets.length - 1]) {
+                throw new IllegalStateException("Corpus segment is shorter than its index: " + dir.resolve(SEGMENT_FILE));
+            }
+            int first = 0;
+            while (first < offsets.length - 1) {
+                int last = first + 1;
+                while (last < offsets.length - 1 && offsets[last + 1] - offsets[first] <= MAX_REGION) last++;
+                long start = offsets[first];
+                long length = offsets[last] - start;
+                if (length > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Payload " + first + " is larger than 2GB");
+                }
+                firsts.add(first);
+                starts.add(start);
+                maps.add(ch.map(FileChannel.MapMode.READ_ONLY, start, length));
+                first = last;
+            }
+        }
+        return new SegmentCorpus(offsets,
+                firsts.stream().mapToInt(Integer::intValue).toArray(),
+                starts.stream().mapToLong(Long::longValue).toArray(),
+                maps.toArray(new MappedByteBuffer[0]));
+    }
+
+    @Override
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public ByteBuffer payload(int index) {
+        int r = Arrays.binarySearch(regionFirstPayload, index);
+        if (r < 0) r = -r - 2;
+        int from = (int) (offsets[index] - regionStart[r]);
+        int to = (int) (offsets[index + 1] - regionStart[r]);
+        ByteBuffer view = regions[r].duplicate();
+        view.position(from).limit(to);
+        return view.slice();
+    }
+
+    @Override
+    public boolean isLargerThan(int index, long bytes) {
+        return offsets[index + 1] - offsets[index] > bytes;
+    }
+
+    @Override
+    public String name(int index) {
+        return SEGMENT_FILE + "#" + (index + 1);
+    }
+
+    /**
+     * Appends payloads to a temporary segment and publishes segment and index atomically on {@link #commit()},
+     * so a corpus that is still mapped by a running campaign is never truncated underneath it.
+     */
+    public static class Writer implements AutoCloseable {
+        private final Path dir;
+        private final Path tmpSegment;
+        private final FileChannel channel;
+        private long[] offsets = new long[1024];
+        private int count;
+
+        public Writer(Path dir) throws IOException {
+            this.dir = dir;
+            this.tmpSegment = dir.resolve(SEGMENT_FILE + ".tmp");
+            this.channel = FileChannel.open(tmpSegment, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        }
+
+        public void append(ByteBuffer payload) throws IOException {
+            long end = offsets[count] + payload.remaining();
+            while (payload.hasRemaining()) channel.write(payload);
+            end(end);
+        }
+
+        /**
+         * Append one payload too large to render into memory: it is written through the returned stream, buffered
+         * {@code bufferSize} bytes at a time, and ends when the stream is closed. Nothing else may be appended until
+         * then.
+         */
+        public OutputStream append(int bufferSize) {
+            return new BufferedOutputStream(Channels.newOutputStream(channel), bufferSize) {
+                private boolean closed;
+
+                @Override
+                public void close() throws IOException {
+                    if (closed) return;
+                    closed = true;
+                    // Leave the channel open for the next payload
+                    flush();
+                    end(channel.position());
+                }
+            };
+        }
+
+        /** Bytes of the payload appended last. */
+        public long lastSize() {
+            return count == 0 ? 0 : offsets[count] - offsets[count - 1];
+        }
+
+        private void end(long end) {
+            if (count + 1 >= offsets.length) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            offsets[++count] = end;
+        }
+
+        public void commit() throws IOException {
+            channel.force(false);
+            channel.close();
+            Path tmpIndex = dir.resolve(INDEX_FILE + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmpIndex)))) {
+                out.writeInt(count);
+                for (int i = 0; i <= count; i++) out.writeLong(offsets[i]);
+            }
+            Files.move(tmpSegment, dir.resolve(SEGMENT_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(tmpIndex, dir.resolve(INDEX_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel.isOpen()) {
+                channel.close();
+                Files.deleteIfExists(tmpSegment);
+            }
+        }
+    }
+}
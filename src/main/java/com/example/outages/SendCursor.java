@@ -0,0 +1,88 @@
+package com.example.outages;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+
+/**
+ * Checkpoint of a running campaign in {@code <output.dir>/send.cursor}: which corpus it sends, when its timeline
+ * started, the next payload to release and the counters so far. It is deleted when the campaign completes or is
+ * stopped, so one left behind means the process went away mid-run and the campaign can be resumed.
+ */
+public final class SendCursor {
+    private static final Logger log = LoggerFactory.getLogger(SendCursor.class);
+    static final String FILE = "send.cursor";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String fingerprint;
+    private final Instant startedAt;
+    private final int next;
+    private final int sent;
+    private final int failed;
+    private final int dropped;
+
+    public SendCursor(String fingerprint, Instant startedAt, int next, int sent, int failed, int dropped) {
+        this.fingerprint = fingerprint;
+        this.startedAt = startedAt;
+        this.next = next;
+        this.sent = sent;
+        this.failed = failed;
+        this.dropped = dropped;
+    }
+
+    public String getFingerprint() { return fingerprint; }
+    public Instant getStartedAt() { return startedAt; }
+    public int getNext() { return next; }
+    public int getSent() { return sent; }
+    public int getFailed() { return failed; }
+    public int getDropped() { return dropped; }
+
+    public static boolean exists(Path dir) {
+        return Files.isRegularFile(dir.resolve(FILE));
+    }
+
+    /** The cursor in {@code dir}, or null if there is none or it cannot be read. */
+    public static SendCursor load(Path dir) {
+        Path file = dir.resolve(FILE);
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            JsonNode root = MAPPER.readTree(file.toFile());
+            return new SendCursor(root.path("fingerprint").asText(), Instant.parse(root.path("startedAt").asText()),
+                    root.path("next").asInt(), root.path("sent").asInt(), root.path("failed").asInt(),
+                    root.path("dropped").asInt());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable send cursor {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    /** Replace the checkpoint atomically; a crash mid-write leaves the previous one. */
+    public void save(Path dir) throws IOException {
+        ObjectNode root = MAPPER.createObjectNode()
+                .put("fingerprint", fingerprint)
+                .put("startedAt", startedAt.toString())
+                .put("next", next)
+                .put("sent", sent)
+                .put("failed", failed)
+                .put("dropped", dropped);
+        Path tmp = dir.resolve(FILE + ".tmp");
+        MAPPER.writeValue(tmp.toFile(), root);
+        Files.move(tmp, dir.resolve(FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static void delete(Path dir) {
+        try {
+            Files.deleteIfExists(dir.resolve(FILE));
+        } catch (IOException e) {
+            log.warn("Could not delete send cursor in {}: {}", dir, e.toString());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.outages;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/** What a coordinator sends a worker: the campaign overlay, which slice of the timeline it owns and its nodes. */
+public class ShardSpec {
+    // Same shape as the body of POST /campaign
+    private Map<String, Object> overlay;
+    private int shardIndex;
+    private int shardCount;
+    // First send of shard 0; shard k sends its first payload k intervals later
+    private Instant startAt;
+    // This shard's disjoint slice of the delivery-node pool; empty = load sample.deliveryNodeListPath locally
+    private List<String> deliveryNodeIds;
+
+    public Map<String, Object> getOverlay() { return overlay; }
+    public void setOverlay(Map<String, Object> overlay) { this.overlay = overlay; }
+    public int getShardIndex() { return shardIndex; }
+    public void setShardIndex(int shardIndex) { this.shardIndex = shardIndex; }
+    public int getShardCount() { return shardCount; }
+    public void setShardCount(int shardCount) { this.shardCount = shardCount; }
+    public Instant getStartAt() { return startAt; }
+    public void setStartAt(Instant startAt) { this.startAt = startAt; }
+    public List<String> getDeliveryNodeIds() { return deliveryNodeIds; }
+    public void setDeliveryNodeIds(List<String> deliveryNodeIds) { this.deliveryNodeIds = deliveryNodeIds; }
+}
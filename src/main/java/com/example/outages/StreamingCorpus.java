@@ -0,0 +1,113 @@
+package com.example.outages;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Payloads rendered just in time by a producer thread that stays at most {@code lookahead} payloads ahead of the
+ * sender. The bounded queue is the backpressure: the producer blocks as soon as the window is full, so nothing is
+ * generated that the campaign will not get to send, and the first payload is ready as soon as it is rendered.
+ * Payloads are consumed in increasing order; payloads skipped by the sender (dropped, shed) are discarded, and a
+ * payload asked for again (a retry) is rendered once more with {@link Renderer#rerender}.
+ */
+public class StreamingCorpus implements PayloadCorpus {
+    private static final Logger log = LoggerFactory.getLogger(StreamingCorpus.class);
+
+    /** Renders payload {@code index} (0-based) into a standalone buffer. */
+    public interface Renderer {
+        ByteBuffer render(int index) throws IOException;
+
+        /** Render a payload that was already taken, e.g. for a retry; by default the same as {@link #render}. */
+        default ByteBuffer rerender(int index) throws IOException {
+            return render(index);
+        }
+    }
+
+    private final int size;
+    private final Renderer renderer;
+    private final IntFunction<String> names;
+    private final BlockingQueue<ByteBuffer> window;
+    private final Thread producer;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+    // Written by the sender only; retries read it to tell a payload they already took from one still to come
+    private volatile int next;
+
+    public StreamingCorpus(int size, int lookahead, Renderer renderer, IntFunction<String> names) {
+        this(size, 0, lookahead, renderer, names);
+    }
+
+    /** Start rendering at payload {@code from}, e.g. when a run is resumed. */
+    public StreamingCorpus(int size, int from, int lookahead, Renderer renderer, IntFunction<String> names) {
+        this.size = size;
+        this.renderer = renderer;
+        this.names = names;
+        this.next = from;
+        this.window = new ArrayBlockingQueue<>(Math.max(1, lookahead));
+        this.producer = new Thread(() -> produce(from), "payload-producer");
+        this.producer.setDaemon(true);
+        this.producer.start();
+    }
+
+    private void produce(int from) {
+        try {
+            for (int i = from; i < size && !closed; i++) {
+                window.put(renderer.render(i));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            failure = e;
+            log.error("Payload generation failed", e);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Payloads ready to send but not yet taken by the sender. */
+    public int buffered() {
+        return window.size();
+    }
+
+    @Override
+    public ByteBuffer payload(int index) throws IOException {
+        if (index < next) return renderer.rerender(index);
+        try {
+            while (true) {
+                ByteBuffer payload = window.poll(100, TimeUnit.MILLISECONDS);
+                if (payload != null) {
+                    if (next++ < index) continue; // skipped by the sender
+                    return payload;
+                }
+                if (failure != null) throw new IOException("Payload generation failed", failure);
+                if (closed) throw new IOException("Streaming corpus closed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for payload " + index);
+        }
+    }
+
+    @Override
+    public String name(int index) {
+        return names.apply(index);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        producer.interrupt();
+        window.clear();
+    }
+}
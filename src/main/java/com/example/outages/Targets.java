@@ -0,0 +1,171 @@
+package com.example.outages;
+
+import com.example.outages.config.TargetClients;
+import com.example.outages.config.TargetProperties;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * The endpoints one campaign posts to: {@code target.targets}, or {@code target.endpoint} alone as a target named
+ * {@value #DEFAULT_NAME}, and which of them each payload goes to. Routing is a pure function of the payload index, so
+ * a retried or resumed payload goes where it went before: payload i is placed at u = frac(i / golden ratio), a
+ * low-discrepancy sequence that spreads every stretch of the run evenly. In split mode the target whose slice of the
+ * cumulative weights holds u gets the payload; in mirror mode every target whose rateShare is above u does.
+ */
+final class Targets implements AutoCloseable {
+    static final String DEFAULT_NAME = "default";
+    private static final double INVERSE_GOLDEN = 0.6180339887498949;
+
+    private final boolean split;
+    private final List<Target> all;
+    // Split mode: upper end of each target's slice of [0, 1)
+    private final double[] cumulative;
+    // Mirror mode with every rateShare at 1: the route of every payload
+    private final boolean mirrorAll;
+
+    private Targets(boolean split, List<Target> all) {
+        this.split = split;
+        this.all = Collections.unmodifiableList(all);
+        this.cumulative = new double[all.size()];
+        double total = all.stream().mapToDouble(t -> t.weight).sum();
+        double sum = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            sum += all.get(i).weight;
+            cumulative[i] = sum / total;
+        }
+        this.mirrorAll = all.stream().allMatch(t -> t.rateShare >= 1);
+    }
+
+    /** Resolve {@code props} into targets, each on the shared client or on its own pool. */
+    static Targets of(TargetProperties props, TargetClients clients) {
+        String mode = props.getMode() == null ? "mirror" : props.getMode().toLowerCase();
+        if (!mode.equals("mirror") && !mode.equals("split")) {
+            throw new IllegalArgumentException("target.mode must be mirror or split: " + props.getMode());
+        }
+        List<TargetProperties.Target> configured = props.getTargets();
+        List<Target> all = new ArrayList<>();
+        try {
+            if (configured == null || configured.isEmpty()) {
+                all.add(new Target(0, DEFAULT_NAME, "target", props.getEndpoint(), props.getAuth(), 1, 1,
+                        clients.shared(), null));
+                return new Targets(false, all);
+            }
+            Set<String> names = new HashSet<>();
+            for (int i = 0; i < configured.size(); i++) {
+                TargetProperties.Target t = configured.get(i);
+                String property = "target.targets[" + i + "]";
+                String name = t.getName() == null || t.getName().isBlank() ? "target-" + (i + 1) : t.getName();
+                if (!names.add(name)) throw new IllegalArgumentException("Duplicate target name " + name);
+                if (!(t.getWeight() > 0)) throw new IllegalArgumentException(property + ".weight must be positive");
+                if (!(t.getRateShare() > 0 && t.getRateShare() <= 1)) {
+                    throw new IllegalArgumentException(property + ".rateShare must be in (0, 1]");
+                }
+                TargetClients.Dedicated dedicated = t.getMaxConnections() > 0
+                        ? clients.dedicated(name, t.getMaxConnections()) : null;
+                all.add(new Target(i, name, property, t.getEndpoint(), t.getAuth(), t.getWeight(), t.getRateShare(),
+                        dedicated == null ? clients.shared() : dedicated.getClient(), dedicated));
+            }
+            return new Targets(mode.equals("split"), all);
+        } catch (RuntimeException e) {
+            all.forEach(Target::dispose);
+            throw e;
+        }
+    }
+
+    List<Target> all() {
+        return all;
+    }
+
+    Target first() {
+        return all.get(0);
+    }
+
+    /** The targets payload {@code index} is posted to, in configuration order. */
+    List<Target> route(int index) {
+        if (all.size() == 1 || (!split && mirrorAll)) return all;
+        double u = (index * INVERSE_GOLDEN) % 1.0;
+        if (split) {
+            for (int i = 0; i < cumulative.length - 1; i++) {
+                if (u < cumulative[i]) return all.get(i).self;
+            }
+            return all.get(all.size() - 1).self;
+        }
+        List<Target> route = new ArrayList<>(all.size());
+        for (Target t : all) {
+            if (u < t.rateShare) route.add(t);
+        }
+        return route;
+    }
+
+    /** Comma-separated endpoints, for the status. */
+    String endpoints() {
+        return all.size() == 1 ? first().endpoint
+                : all.stream().map(t -> t.endpoint).collect(Collectors.joining(","));
+    }
+
+    /** The state of the least healthy breaker: 0 closed, 1 half-open, 2 open. */
+    int worstBreakerState() {
+        int worst = 0;
+        for (Target t : all) {
+            CircuitBreaker b = t.breaker;
+            if (b != null) worst = Math.max(worst, b.state().ordinal());
+        }
+        return worst;
+    }
+
+    /** Release the dedicated connection pools. */
+    @Override
+    public void close() {
+        all.forEach(Target::dispose);
+    }
+
+    /** One endpoint with its client and its share of the campaign's counters, latency and breaker. */
+    static final class Target {
+        final int ordinal;
+        final String name;
+        // Prefix of its settings, for error messages
+        final String property;
+        final String endpoint;
+        final TargetProperties.Auth auth;
+        final double weight;
+        final double rateShare;
+        final WebClient client;
+        private final TargetClients.Dedicated dedicated;
+        private final List<Target> self = List.of(this);
+        final AtomicInteger sent = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicInteger dropped = new AtomicInteger();
+        final LatencyRecorder latency = new LatencyRecorder();
+        // Replaced on every start, like the campaign's retry queue
+        volatile CircuitBreaker breaker;
+
+        Target(int ordinal, String name, String property, String endpoint, TargetProperties.Auth auth, double weight,
+               double rateShare, WebClient client, TargetClients.Dedicated dedicated) {
+            this.ordinal = ordinal;
+            this.name = name;
+            this.property = property;
+            this.endpoint = endpoint;
+            this.auth = auth;
+            this.weight = weight;
+            this.rateShare = rateShare;
+            this.client = client;
+            this.dedicated = dedicated;
+        }
+
+        String breakerState() {
+            CircuitBreaker b = breaker;
+            return b == null ? "disabled" : b.state().name().toLowerCase();
+        }
+
+        private void dispose() {
+            if (dedicated != null) dedicated.dispose();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.outages;
+
+import com.example.outages.config.SchedulerProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Precomputed send plan: payload i goes out {@link #offsetNanos(int)} after the campaign starts, while the load is
+ * at {@link #intensity(int)} of its peak. Built once before the first send, so the send path only reads primitives.
+ * <p>
+ * A {@code scheduler.profile} is a list of phases whose rate (requests per second, minute or hour) is piecewise
+ * linear in time. Arrivals follow that rate either evenly spaced ({@code uniform}) or as a Poisson process with
+ * exponential gaps ({@code poisson}); both come from inverting the cumulative rate, so they are exact and repeatable
+ * for a given {@code scheduler.seed}.
+ */
+public final class WorkloadSchedule {
+    // 12 bytes per payload; beyond this a profile is almost certainly a typo
+    static final int MAX_PAYLOADS = 20_000_000;
+
+    // Null for a fixed-rate plan, whose offsets are simply i * periodNanos
+    private final long[] offsetNanos;
+    private final float[] intensity;
+    private final int size;
+    private final long periodNanos;
+    private final long durationNanos;
+
+    private WorkloadSchedule(long[] offsetNanos, float[] intensity, int size, long periodNanos, long durationNanos) {
+        this.offsetNanos = offsetNanos;
+        this.intensity = intensity;
+        this.size = size;
+        this.periodNanos = periodNanos;
+        this.durationNanos = durationNanos;
+    }
+
+    /** The classic plan: n payloads every {@code period}, all at full intensity. Needs no arrays. */
+    public static WorkloadSchedule fixedRate(int n, Duration period, Duration duration) {
+        return new WorkloadSchedule(null, null, n, period.toNanos(), duration.toNanos());
+    }
+
+    /** Explicit ascending send offsets, e.g. the arrivals of a recorded feed, all at full intensity. */
+    public static WorkloadSchedule ofOffsets(long[] offsetNanos, long durationNanos) {
+        return new WorkloadSchedule(offsetNanos, null, offsetNanos.length, 0, durationNanos);
+    }
+
+    /** Compile {@code scheduler.profile} phases into arrival times. */
+    public static WorkloadSchedule compile(List<SchedulerProperties.Phase> phases, long seed) {
+        if (phases == null || phases.isEmpty()) throw new IllegalArgumentException("scheduler.profile is empty");
+        List<Segment> segments = new ArrayList<>();
+        long start = 0;
+        for (int p = 0; p < phases.size(); p++) {
+            SchedulerProperties.Phase phase = phases.get(p);
+            long length = Campaign.parseDuration(required(phase.getDuration(), p, "duration")).toNanos();
+            boolean poisson = "poisson".equalsIgnoreCase(phase.getArrivals());
+            String type = phase.getType() == null ? "hold" : phase.getType().toLowerCase();
+            switch (type) {
+                case "ramp":
+                    segments.add(new Segment(start, length, rate(phase.getFrom(), p, "from"),
+                            rate(phase.getTo(), p, "to"), poisson));
+                    break;
+                case "hold":
+                case "soak": {
+                    double r = rate(phase.getRate(), p, "rate");
+                    segments.add(new Segment(start, length, r, r, poisson));
+                    break;
+                }
+                case "spike": {
+                    // Baseline, a burst of peakDuration at peak in the middle of the phase, baseline again
+                    double base = rate(phase.getRate(), p, "rate");
+                    double peak = rate(phase.getPeak(), p, "peak");
+                    long burst = Math.min(length,
+                            Campaign.parseDuration(required(phase.getPeakDuration(), p, "peakDuration")).toNanos());
+                    long before = (length - burst) / 2;
+                    segments.add(new Segment(start, before, base, base, poisson));
+                    segments.add(new Segment(start + before, burst, peak, peak, poisson));
+                    segments.add(new Segment(start + before + burst, length - before - burst, base, base, poisson));
+                    break;
+                }
+                case "step": {
+                    // Ladder of equal-length holds from `from` to `to`
+                    double from = rate(phase.getFrom(), p, "from");
+                    double to = rate(phase.getTo(), p, "to");
+                    int steps = Math.max(1, phase.getSteps());
+                    for (int s = 0; s < steps; s++) {
+                        double r = steps == 1 ? to : from + (to - from) * s / (steps - 1);
+                        long at = length * s / steps;
+                        segments.add(new Segment(start + at, length * (s + 1) / steps - at, r, r, poisson));
+                    }
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("scheduler.profile[" + p + "].type must be ramp, hold, soak, "
+                            + "spike or step: " + phase.getType());
+            }
+            start += length;
+        }
+        return arrivals(segments, start, seed);
+    }
+
+    private static WorkloadSchedule arrivals(List<Segment> segments, long durationNanos, long seed) {
+        double peak = 0;
+        for (Segment s : segments) peak = Math.max(peak, Math.max(s.r0, s.r1));
+        if (peak <= 0) throw new IllegalArgumentException("scheduler.profile never sends: every rate is 0");
+
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] offsets = new long[1024];
+        float[] intensity = new float[1024];
+        int n = 0;
+        // Area under the rate curve still to cover before the next arrival; the first one goes out as soon as the
+        // rate is above 0. Segments are half-open, so a phase with rate 0 (available area 0) sends nothing and an
+        // arrival due exactly at a segment's end belongs to the next one
+        double need = segments.get(0).poisson ? exponential(random) : 0;
+        for (Segment s : segments) {
+            double length = s.length / 1e9;
+            if (length <= 0) continue;
+            double slope = (s.r1 - s.r0) / length;
+            double t = 0;
+            while (true) {
+                double available = area(s.r0, slope, length) - area(s.r0, slope, t);
+                if (need >= available) {
+                    need -= available;
+                    break;
+                }
+                if (need > 0) t = solve(s.r0, slope, area(s.r0, slope, t) + need);
+                if (n == MAX_PAYLOADS) {
+                    throw new IllegalArgumentException("scheduler.profile plans more than " + MAX_PAYLOADS + " payloads");
+                }
+                if (n == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, n * 2);
+                    intensity = Arrays.copyOf(intensity, n * 2);
+                }
+                offsets[n] = s.start + Math.min(s.length - 1, (long) (t * 1e9));
+                intensity[n] = (float) ((s.r0 + slope * t) / peak);
+                n++;
+                need = s.poisson ? exponential(random) : 1;
+            }
+        }
+        if (n == 0) throw new IllegalArgumentException("scheduler.profile is too short to send anything");
+        return new WorkloadSchedule(Arrays.copyOf(offsets, n), Arrays.copyOf(intensity, n), n, 0, durationNanos);
+    }
+
+    /** Cumulative arrivals at time t for rate r0 + slope * t. */
+    private static double area(double r0, double slope, double t) {
+        return r0 * t + slope * t * t / 2;
+    }
+
+    /** Smallest t with area(t) = x; the rationalised root stays accurate when slope is 0 or negative. */
+    private static double solve(double r0, double slope, double x) {
+        return 2 * x / (r0 + Math.sqrt(Math.max(0, r0 * r0 + 2 * slope * x)));
+    }
+
+    private static double exponential(SplittableRandom random) {
+        return -Math.log(1 - random.nextDouble());
+    }
+
+    private static String required(String value, int phase, String field) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("scheduler.profile[" + phase + "]." + field + " is required");
+        }
+        return value;
+    }
+
+    private static double rate(String value, int phase, String field) {
+        return parseRate(required(value, phase, field));
+    }
+
+    /** {@code 50}, {@code 50/s}, {@code 300/m} or {@code 12/h}, in requests per second. */
+    static double parseRate(String s) {
+        s = s.trim().toLowerCase();
+        int slash = s.indexOf('/');
+        double value = Double.parseDouble(slash < 0 ? s : s.substring(0, slash).trim());
+        String unit = slash < 0 ? "s" : s.substring(slash + 1).trim();
+        double perSecond;
+        switch (unit) {
+            case "s": perSecond = value; break;
+            case "m": perSecond = value / 60; break;
+            case "h": perSecond = value / 3600; break;
+            default: throw new IllegalArgumentException("Unknown rate unit in " + s + " (use /s, /m or /h)");
+        }
+        if (perSecond < 0) throw new IllegalArgumentException("Rate must not be negative: " + s);
+        return perSecond;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long offsetNanos(int i) {
+        return offsetNanos == null ? i * periodNanos : offsetNanos[i];
+    }
+
+    /** Rate at payload i relative to the profile's peak rate, in [0, 1]. */
+    public float intensity(int i) {
+        return intensity == null ? 1f : intensity[i];
+    }
+
+    public Duration duration() {
+        return Duration.ofNanos(durationNanos);
+    }
+
+    /** False for the classic fixed-interval plan. */
+    public boolean isShaped() {
+        return offsetNanos != null;
+    }
+
+    /** First payload sent at the peak rate. */
+    public int peakIndex() {
+        if (intensity == null) return 0;
+        int peak = 0;
+        for (int i = 1; i < intensity.length; i++) if (intensity[i] > intensity[peak]) peak = i;
+        return peak;
+    }
+
+    private static final class Segment {
+        final long start;
+        final long length;
+        final double r0;
+        final double r1;
+        final boolean poisson;
+
+        Segment(long start, long length, double r0, double r1, boolean poisson) {
+            this.start = start;
+            this.length = length;
+            this.r0 = r0;
+            this.r1 = r1;
+            this.poisson = poisson;
+        }
+    }
+}
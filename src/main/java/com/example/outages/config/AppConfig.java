@@ -1,16 +1,25 @@
 package com.example.outages.config;
 
+import com.example.outages.Campaign;
+import io.netty.channel.ChannelOption;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
 
 // ✅ Use ONLY the Netty HttpClient
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 @Configuration
 @EnableConfigurationProperties({
@@ -19,25 +28,118 @@ import reactor.netty.http.client.HttpClient;
         SampleProperties.class,
         RetryProperties.class,
         OutputProperties.class,
-        SendProperties.class
+        SendProperties.class,
+        GeneratorProperties.class,
+        RegistryProperties.class,
+        DistributedProperties.class,
+        MockTargetProperties.class,
+        TransportProperties.class
 })
 public class AppConfig {
+    // Fixed routes under /campaign; any other segment there is a campaign id
+    private static final Set<String> CAMPAIGN_ROUTES = Set.of("start", "status", "stop", "report", "journal",
+            "generateOnce", "search", "workers", "shards", "distributed");
+    private static final Pattern ID_SEGMENT = Pattern.compile(
+            "\\d+|[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
 
-    @Bean
-    public ThreadPoolTaskScheduler taskScheduler() {
-        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
-        scheduler.setPoolSize(4);
-        scheduler.setThreadNamePrefix("campaign-");
-        return scheduler;
+    // One pool for every campaign; sized per target host by transport.maxConnections
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider connectionProvider(TransportProperties transport) {
+        return pool("outages", transport.getMaxConnections(), transport);
+    }
+
+    /** A connection pool with transport's limits, timeouts and eviction, but {@code maxConnections} per host. */
+    static ConnectionProvider pool(String name, int maxConnections, TransportProperties transport) {
+        ConnectionProvider.Builder pool = ConnectionProvider.builder(name)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(transport.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Campaign.parseDuration(transport.getPendingAcquireTimeout()))
+                .metrics(transport.isMetrics());
+        duration(transport.getMaxIdleTime()).ifPresent(pool::maxIdleTime);
+        duration(transport.getMaxLifeTime()).ifPresent(pool::maxLifeTime);
+        duration(transport.getEvictInBackground()).ifPresent(pool::evictInBackground);
+        return pool.build();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public LoopResources loopResources(TransportProperties transport) {
+        int workers = transport.getWorkerThreads() > 0 ? transport.getWorkerThreads() : LoopResources.DEFAULT_IO_WORKER_COUNT;
+        return LoopResources.create("outages-http", workers, true);
     }
 
     @Bean
-    public ClientHttpConnector clientHttpConnector() {
-        return new ReactorClientHttpConnector(reactor.netty.http.client.HttpClient.create());
+    public ClientHttpConnector clientHttpConnector(ConnectionProvider connectionProvider,
+                                                   LoopResources loopResources,
+                                                   TransportProperties transport) {
+        return new ReactorClientHttpConnector(httpClient(connectionProvider, loopResources, transport));
+    }
+
+    /** An HTTP client on {@code pool} with transport's protocol, socket options and timeouts. */
+    static HttpClient httpClient(ConnectionProvider pool, LoopResources loopResources, TransportProperties transport) {
+        HttpProtocol[] protocols = protocols(transport.getProtocol());
+        HttpClient client = HttpClient.create(pool)
+                .runOn(loopResources, transport.isNativeTransport())
+                .protocol(protocols)
+                .option(ChannelOption.TCP_NODELAY, transport.isTcpNoDelay())
+                .option(ChannelOption.SO_KEEPALIVE, transport.isKeepAlive())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+                        (int) Campaign.parseDuration(transport.getConnectTimeout()).toMillis());
+        if (protocols.length > 1 || protocols[0] != HttpProtocol.HTTP11) {
+            client = client.http2Settings(h2 -> h2.maxConcurrentStreams(transport.getMaxConcurrentStreams()));
+        }
+        Optional<Duration> responseTimeout = duration(transport.getResponseTimeout());
+        if (responseTimeout.isPresent()) client = client.responseTimeout(responseTimeout.get());
+        if (transport.isMetrics()) {
+            // The client also carries the coordinator's calls to /campaign/<id>/..., with a new id per shard
+            client = client.metrics(true, AppConfig::uriTag);
+        }
+        return client;
+    }
+
+    /**
+     * The {@code uri} tag of a request: its path without the query, with the campaign, search and distributed-run ids
+     * of this service's own routes, and any numeric or UUID segment, collapsed to {@code {id}}. Meter count then follows
+     * the endpoints configured, not the campaigns run.
+     */
+    static String uriTag(String uri) {
+        int scheme = uri.indexOf("://");
+        int from = scheme < 0 ? 0 : uri.indexOf('/', scheme + 3);
+        if (from < 0) return "/";
+        int end = uri.length();
+        int query = uri.indexOf('?', from);
+        if (query >= 0) end = query;
+        int fragment = uri.indexOf('#', from);
+        if (fragment >= 0 && fragment < end) end = fragment;
+        String[] segments = uri.substring(from, end).split("/", -1);
+        for (int i = 1; i < segments.length; i++) {
+            String parent = segments[i - 1];
+            boolean routeId = parent.equals("campaign") ? !CAMPAIGN_ROUTES.contains(segments[i])
+                    : (parent.equals("search") || parent.equals("distributed"))
+                    && i > 1 && segments[i - 2].equals("campaign");
+            if ((routeId || ID_SEGMENT.matcher(segments[i]).matches()) && !segments[i].isEmpty()) segments[i] = "{id}";
+        }
+        return String.join("/", segments);
+    }
+
+    private static HttpProtocol[] protocols(String protocol) {
+        switch (protocol.toLowerCase()) {
+            case "http11": return new HttpProtocol[]{HttpProtocol.HTTP11};
+            case "h2":     return new HttpProtocol[]{HttpProtocol.H2};
+            case "h2c":    return new HttpProtocol[]{HttpProtocol.H2C};
+            case "auto":   return new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11};
+            default: throw new IllegalArgumentException("Unknown transport.protocol: " + protocol);
+        }
+    }
+
+    /** Blank means "not set". */
+    private static Optional<Duration> duration(String value) {
+        return value == null || value.isBlank() ? Optional.empty() : Optional.of(Campaign.parseDuration(value));
     }
 
     @Bean
     public WebClient webClient(ClientHttpConnector connector) {
+        // Only decoded responses count against this (the coordinator's histogram logs); request bodies are written
+        // from the corpus or streamed in send.body.chunkKb chunks, and target responses are discarded unread
         ExchangeStrategies strategies = ExchangeStrategies.builder()
                 .codecs(c -> c.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
                 .build();
@@ -47,4 +149,9 @@ public class AppConfig {
                 .exchangeStrategies(strategies)
                 .build();
     }
-}
+
+    @Bean
+    public TargetClients targetClients(WebClient webClient, LoopResources loopResources, TransportProperties transport) {
+        return new TargetClients(webClient, loopResources, transport);
+    }
+}
\ No newline at end of file
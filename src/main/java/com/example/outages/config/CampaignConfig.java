@@ -0,0 +1,91 @@
+package com.example.outages.config;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The per-campaign property sections. The default campaign uses the application's bound beans; campaigns created
+ * through the registry bind the same prefixes from the environment with a request overlay taking precedence.
+ */
+public class CampaignConfig {
+    private final SchedulerProperties scheduler;
+    private final TargetProperties target;
+    private final SampleProperties sample;
+    private final OutputProperties output;
+    private final RetryProperties retry;
+    private final SendProperties send;
+    private final GeneratorProperties generator;
+
+    public CampaignConfig(SchedulerProperties scheduler,
+                          TargetProperties target,
+                          SampleProperties sample,
+                          OutputProperties output,
+                          RetryProperties retry,
+                          SendProperties send,
+                          GeneratorProperties generator) {
+        this.scheduler = scheduler;
+        this.target = target;
+        this.sample = sample;
+        this.output = output;
+        this.retry = retry;
+        this.send = send;
+        this.generator = generator;
+    }
+
+    /**
+     * Bind every section from {@code env}, letting {@code overlay} override individual keys. The overlay uses the
+     * same shape as application.yml, e.g. {@code {"scheduler": {"interval": "1s"}, "output": {"dir": "/tmp/a"}}}.
+     */
+    public static CampaignConfig bind(Environment env, Map<String, Object> overlay) {
+        Binder binder = binder(env, overlay);
+        return new CampaignConfig(
+                binder.bind("scheduler", SchedulerProperties.class).orElseGet(SchedulerProperties::new),
+                binder.bind("target", TargetProperties.class).orElseGet(TargetProperties::new),
+                binder.bind("sample", SampleProperties.class).orElseGet(SampleProperties::new),
+                binder.bind("output", OutputProperties.class).orElseGet(OutputProperties::new),
+                binder.bind("retry", RetryProperties.class).orElseGet(RetryProperties::new),
+                binder.bind("send", SendProperties.class).orElseGet(SendProperties::new),
+                binder.bind("generator", GeneratorProperties.class).orElseGet(GeneratorProperties::new));
+    }
+
+    /** A binder over {@code env} with {@code overlay} (application.yml shape) taking precedence. */
+    public static Binder binder(Environment env, Map<String, Object> overlay) {
+        List<ConfigurationPropertySource> sources = new ArrayList<>();
+        if (overlay != null && !overlay.isEmpty()) {
+            Map<String, Object> flat = new LinkedHashMap<>();
+            flatten("", overlay, flat);
+            sources.add(new MapConfigurationPropertySource(flat));
+        }
+        ConfigurationPropertySources.get(env).forEach(sources::add);
+        return new Binder(sources);
+    }
+
+    private static void flatten(String prefix, Object value, Map<String, Object> out) {
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                flatten(prefix.isEmpty() ? String.valueOf(e.getKey()) : prefix + "." + e.getKey(), e.getValue(), out);
+            }
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            for (int i = 0; i < list.size(); i++) flatten(prefix + "[" + i + "]", list.get(i), out);
+        } else if (value != null) {
+            out.put(prefix, value);
+        }
+    }
+
+    public SchedulerProperties getScheduler() { return scheduler; }
+    public TargetProperties getTarget() { return target; }
+    public SampleProperties getSample() { return sample; }
+    public OutputProperties getOutput() { return output; }
+    public RetryProperties getRetry() { return retry; }
+    public SendProperties getSend() { return send; }
+    public GeneratorProperties getGenerator() { return generator; }
+}
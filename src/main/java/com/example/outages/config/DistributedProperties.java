@@ -0,0 +1,23 @@
+package com.example.outages.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "distributed")
+public class DistributedProperties {
+    // Base URLs of worker instances, e.g. http://host-a:8081; more can be registered at runtime
+    private List<String> workers = new ArrayList<>();
+    // Lead time between handing out shards and the shared first send; must cover pre-generation on the workers
+    private String startDelay = "30s";
+    // Timeout for each coordinator -> worker call
+    private String requestTimeout = "30s";
+
+    public List<String> getWorkers() { return workers; }
+    public void setWorkers(List<String> workers) { this.workers = workers; }
+    public String getStartDelay() { return startDelay; }
+    public void setStartDelay(String startDelay) { this.startDelay = startDelay; }
+    public String getRequestTimeout() { return requestTimeout; }
+    public void setRequestTimeout(String requestTimeout) { this.requestTimeout = requestTimeout; }
+}
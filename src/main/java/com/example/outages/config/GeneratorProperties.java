@@ -0,0 +1,89 @@
+package com.example.outages.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "generator")
+public class GeneratorProperties {
+    // Worker threads used to pre-generate payloads; 0 = one per available core
+    private int parallelism = 0;
+    // files = one NNN-outage-*.json per payload; segment = single memory-mapped corpus.seg + corpus.idx
+    private String corpus = "files";
+    // pregenerate = build the whole corpus before the first send; streaming = render just in time (sending only);
+    // replay = send recorded payloads from generator.replay.source on their original timeline
+    private String mode = "pregenerate";
+    // streaming mode: how many rendered payloads may wait ahead of the sender
+    private int lookahead = 500;
+    // Reuse the corpus in output.dir when its manifest matches the current sample, pool and settings
+    private boolean reuse = true;
+    private Compression compression = new Compression();
+    private Replay replay = new Replay();
+    private Lifecycle lifecycle = new Lifecycle();
+
+    /** Payloads compressed once at generation time and posted with the matching Content-Encoding. */
+    public static class Compression {
+        private String codec = "none";   // none|gzip|zstd
+        private int level = -1;          // -1 = codec default (gzip 6, zstd 3)
+        private boolean keepRaw = false; // files corpus: also write the uncompressed .json next to each file
+        public String getCodec() { return codec; }
+        public void setCodec(String codec) { this.codec = codec; }
+        public int getLevel() { return level; }
+        public void setLevel(int level) { this.level = level; }
+        public boolean isKeepRaw() { return keepRaw; }
+        public void setKeepRaw(boolean keepRaw) { this.keepRaw = keepRaw; }
+    }
+
+    /** Recorded payloads re-sent with their original inter-arrival gaps, read from disk a lookahead window at a time. */
+    public static class Replay {
+        private String source;                 // directory (searched recursively) or .zip of *.json / *.json.gz files
+        private double timeScale = 1.0;        // 10 = ten times faster than recorded
+        private String timestamp = "name";     // name = ISO timestamp in the file name | mtime | field
+        private String timestampField = "/recordedAt"; // timestamp=field: JSON pointer to an ISO time or epoch millis
+        private boolean rewrite = false;       // make id fields unique per run and shift startedAt to the send time
+        public String getSource() { return source; }
+        public void setSource(String source) { this.source = source; }
+        public double getTimeScale() { return timeScale; }
+        public void setTimeScale(double timeScale) { this.timeScale = timeScale; }
+        public String getTimestamp() { return timestamp; }
+        public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
+        public String getTimestampField() { return timestampField; }
+        public void setTimestampField(String timestampField) { this.timestampField = timestampField; }
+        public boolean isRewrite() { return rewrite; }
+        public void setRewrite(boolean rewrite) { this.rewrite = rewrite; }
+    }
+
+    /**
+     * Outages that stay open across payloads and are resent as they progress until restored, instead of every payload
+     * carrying new outages only. scheduler.maxOutagesTotal becomes the number of outages opened over the run.
+     */
+    public static class Lifecycle {
+        private boolean enabled = false;
+        private String feed = "full";          // full = every active outage in every payload | delta = only changes
+        private String meanRestore = "10m";    // average time from report to restore, on the campaign timeline
+        private int maxActive = 200_000;       // outages open at once; generation fails beyond this
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getFeed() { return feed; }
+        public void setFeed(String feed) { this.feed = feed; }
+        public String getMeanRestore() { return meanRestore; }
+        public void setMeanRestore(String meanRestore) { this.meanRestore = meanRestore; }
+        public int getMaxActive() { return maxActive; }
+        public void setMaxActive(int maxActive) { this.maxActive = maxActive; }
+    }
+
+    public int getParallelism() { return parallelism; }
+    public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+    public String getCorpus() { return corpus; }
+    public void setCorpus(String corpus) { this.corpus = corpus; }
+    public String getMode() { return mode; }
+    public void setMode(String mode) { this.mode = mode; }
+    public int getLookahead() { return lookahead; }
+    public void setLookahead(int lookahead) { this.lookahead = lookahead; }
+    public boolean isReuse() { return reuse; }
+    public void setReuse(boolean reuse) { this.reuse = reuse; }
+    public Compression getCompression() { return compression; }
+    public void setCompression(Compression compression) { this.compression = compression; }
+    public Replay getReplay() { return replay; }
+    public void setReplay(Replay replay) { this.replay = replay; }
+    public Lifecycle getLifecycle() { return lifecycle; }
+    public void setLifecycle(Lifecycle lifecycle) { this.lifecycle = lifecycle; }
+}
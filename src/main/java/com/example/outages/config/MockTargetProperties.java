@@ -0,0 +1,62 @@
+package com.example.outages.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Embedded stub datafeed, active with the {@code mock-target} profile. Rates are fractions of requests (0..1). */
+@ConfigurationProperties(prefix = "mock-target")
+public class MockTargetProperties {
+    private int port = 18080;
+    private String path = "/feed";
+    private Latency latency = new Latency();
+    // Answered with errorStatus
+    private double errorRate = 0;
+    private int errorStatus = 503;
+    // Answered with 429 and a Retry-After header
+    private double throttleRate = 0;
+    private int retryAfterSeconds = 1;
+    // Connection closed with a TCP reset instead of a response
+    private double resetRate = 0;
+    // Read the request body no faster than this; 0 = as fast as possible
+    private long readBytesPerSecond = 0;
+    // Keep the last N request bodies in memory for inspection; 0 = count only
+    private int recordBodies = 0;
+
+    public static class Latency {
+        private String distribution = "fixed"; // fixed|uniform|exponential|lognormal
+        private String min = "0ms";
+        private String mean = "0ms";
+        private String max = "30s";           // cap for every distribution
+        private double sigma = 0.5;           // lognormal shape
+        public String getDistribution() { return distribution; }
+        public void setDistribution(String distribution) { this.distribution = distribution; }
+        public String getMin() { return min; }
+        public void setMin(String min) { this.min = min; }
+        public String getMean() { return mean; }
+        public void setMean(String mean) { this.mean = mean; }
+        public String getMax() { return max; }
+        public void setMax(String max) { this.max = max; }
+        public double getSigma() { return sigma; }
+        public void setSigma(double sigma) { this.sigma = sigma; }
+    }
+
+    public int getPort() { return port; }
+    public void setPort(int port) { this.port = port; }
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+    public Latency getLatency() { return latency; }
+    public void setLatency(Latency latency) { this.latency = latency; }
+    public double getErrorRate() { return errorRate; }
+    public void setErrorRate(double errorRate) { this.errorRate = errorRate; }
+    public int getErrorStatus() { return errorStatus; }
+    public void setErrorStatus(int errorStatus) { this.errorStatus = errorStatus; }
+    public double getThrottleRate() { return throttleRate; }
+    public void setThrottleRate(double throttleRate) { this.throttleRate = throttleRate; }
+    public int getRetryAfterSeconds() { return retryAfterSeconds; }
+    public void setRetryAfterSeconds(int retryAfterSeconds) { this.retryAfterSeconds = retryAfterSeconds; }
+    public double getResetRate() { return resetRate; }
+    public void setResetRate(double resetRate) { this.resetRate = resetRate; }
+    public long getReadBytesPerSecond() { return readBytesPerSecond; }
+    public void setReadBytesPerSecond(long readBytesPerSecond) { this.readBytesPerSecond = readBytesPerSecond; }
+    public int getRecordBodies() { return recordBodies; }
+    public void setRecordBodies(int recordBodies) { this.recordBodies = recordBodies; }
+}
@@ -6,6 +6,22 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class OutputProperties {
     // Folder where pre-generated files will be stored and picked from
     private String dir = "outages";
+    private Journal journal = new Journal();
     public String getDir() { return dir; }
     public void setDir(String dir) { this.dir = dir; }
+    public Journal getJournal() { return journal; }
+    public void setJournal(Journal journal) { this.journal = journal; }
+
+    /** Binary record of every send outcome in {@code <output.dir>/journal/}, written off the send path. */
+    public static class Journal {
+        private boolean enabled = true;
+        private int ringSize = 65536;          // outcomes buffered for the writer thread; more are counted as lost
+        private int segmentMb = 64;            // each journal-NNNNNN.bin segment holds this much before rotating
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getRingSize() { return ringSize; }
+        public void setRingSize(int ringSize) { this.ringSize = ringSize; }
+        public int getSegmentMb() { return segmentMb; }
+        public void setSegmentMb(int segmentMb) { this.segmentMb = segmentMb; }
+    }
 }
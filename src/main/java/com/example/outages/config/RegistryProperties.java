@@ -0,0 +1,16 @@
+package com.example.outages.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "campaigns")
+public class RegistryProperties {
+    // Upper bound on campaigns held by the registry at once (the default campaign included)
+    private int max = 32;
+    // Restart the default campaign on startup if the previous process left its run unfinished
+    private boolean resumeOnStartup = true;
+
+    public int getMax() { return max; }
+    public void setMax(int max) { this.max = max; }
+    public boolean isResumeOnStartup() { return resumeOnStartup; }
+    public void setResumeOnStartup(boolean resumeOnStartup) { this.resumeOnStartup = resumeOnStartup; }
+}
@@ -4,10 +4,55 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "retry")
 public class RetryProperties {
+    // Retries per payload after the first attempt; retries run off the send schedule in a queue of their own
     private int maxAttempts = 5;
-    private int backoffSeconds = 1;
+    private int backoffSeconds = 1;       // first backoff, doubled per attempt with jitter
+    private String maxBackoff = "30s";
+    private int queueCapacity = 10000;    // retries waiting for their backoff; beyond this a failure is final
+    private int concurrency = 64;         // retries in flight at once
+    private double budgetRatio = 0.2;     // retries allowed per first attempt ...
+    private int budgetMin = 10;           // ... plus this many, so a short campaign can still retry
+    private Breaker breaker = new Breaker();
+
+    /** Circuit breaker on target health, shared by first attempts and retries. */
+    public static class Breaker {
+        private boolean enabled = true;
+        private int window = 100;          // last N outcomes considered
+        private int minCalls = 20;
+        private double failureRate = 0.5;  // open at this share of 5xx/408/429/connection failures
+        private String openFor = "10s";    // then let probes through
+        private int probes = 5;            // trial posts that must all succeed to close again
+        private String mode = "shed";      // while open: shed = drop first attempts | pause = hold the schedule
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getWindow() { return window; }
+        public void setWindow(int window) { this.window = window; }
+        public int getMinCalls() { return minCalls; }
+        public void setMinCalls(int minCalls) { this.minCalls = minCalls; }
+        public double getFailureRate() { return failureRate; }
+        public void setFailureRate(double failureRate) { this.failureRate = failureRate; }
+        public String getOpenFor() { return openFor; }
+        public void setOpenFor(String openFor) { this.openFor = openFor; }
+        public int getProbes() { return probes; }
+        public void setProbes(int probes) { this.probes = probes; }
+        public String getMode() { return mode; }
+        public void setMode(String mode) { this.mode = mode; }
+    }
+
     public int getMaxAttempts() { return maxAttempts; }
     public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
     public int getBackoffSeconds() { return backoffSeconds; }
     public void setBackoffSeconds(int backoffSeconds) { this.backoffSeconds = backoffSeconds; }
+    public String getMaxBackoff() { return maxBackoff; }
+    public void setMaxBackoff(String maxBackoff) { this.maxBackoff = maxBackoff; }
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+    public int getConcurrency() { return concurrency; }
+    public void setConcurrency(int concurrency) { this.concurrency = concurrency; }
+    public double getBudgetRatio() { return budgetRatio; }
+    public void setBudgetRatio(double budgetRatio) { this.budgetRatio = budgetRatio; }
+    public int getBudgetMin() { return budgetMin; }
+    public void setBudgetMin(int budgetMin) { this.budgetMin = budgetMin; }
+    public Breaker getBreaker() { return breaker; }
+    public void setBreaker(Breaker breaker) { this.breaker = breaker; }
 }
@@ -7,10 +7,15 @@ public class SampleProperties {
     // Path to the sample.json relative or absolute on the same server
     private String path = "sample/DeliveryNodeSample.json";
     private String deliveryNodeListPath;
+    // Binary cache of the parsed node list; defaults to <output.dir>/dn-pool.bin, blank disables it
+    private String deliveryNodeCachePath;
 
     public String getPath() { return path; }
     public void setPath(String path) { this.path = path; }
 
     public String getDeliveryNodeListPath() { return deliveryNodeListPath; }
     public void setDeliveryNodeListPath(String deliveryNodeListPath) { this.deliveryNodeListPath = deliveryNodeListPath; }
+
+    public String getDeliveryNodeCachePath() { return deliveryNodeCachePath; }
+    public void setDeliveryNodeCachePath(String deliveryNodeCachePath) { this.deliveryNodeCachePath = deliveryNodeCachePath; }
 }
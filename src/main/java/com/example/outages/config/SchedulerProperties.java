@@ -2,6 +2,9 @@ package com.example.outages.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @ConfigurationProperties(prefix = "scheduler")
 public class SchedulerProperties {
     private String interval = "10m";
@@ -10,6 +13,10 @@ public class SchedulerProperties {
     private double maxReachPctByMaxHour = 0.6;
     private int avgNodesPerFile = 120;
     private Ramp ramp = new Ramp();
+    // Optional workload profile; when set it replaces interval/duration and drives the send rate over time
+    private List<Phase> profile = new ArrayList<>();
+    // Seed for poisson arrivals, so every run (and every shard) plans the same schedule
+    private long seed = 42;
 
     public static class Ramp {
         private String shape = "sigmoid"; // linear|exp|sigmoid
@@ -23,6 +30,37 @@ public class SchedulerProperties {
         public void setK(double k) { this.k = k; }
     }
 
+    /** One phase of a workload profile. Rates are "50", "50/s", "300/m" or "12/h". */
+    public static class Phase {
+        private String type = "hold";       // ramp|hold|soak|spike|step
+        private String duration;
+        private String rate;                // hold/soak; spike baseline
+        private String from;                // ramp/step start rate
+        private String to;                  // ramp/step end rate
+        private String peak;                // spike rate
+        private String peakDuration;        // spike length, centred in the phase
+        private int steps = 5;              // step: number of equal holds from `from` to `to`
+        private String arrivals = "uniform"; // uniform = evenly spaced | poisson = exponential gaps
+        public String getType() { return type; }
+        public void setType(String type) { this.type = type; }
+        public String getDuration() { return duration; }
+        public void setDuration(String duration) { this.duration = duration; }
+        public String getRate() { return rate; }
+        public void setRate(String rate) { this.rate = rate; }
+        public String getFrom() { return from; }
+        public void setFrom(String from) { this.from = from; }
+        public String getTo() { return to; }
+        public void setTo(String to) { this.to = to; }
+        public String getPeak() { return peak; }
+        public void setPeak(String peak) { this.peak = peak; }
+        public String getPeakDuration() { return peakDuration; }
+        public void setPeakDuration(String peakDuration) { this.peakDuration = peakDuration; }
+        public int getSteps() { return steps; }
+        public void setSteps(int steps) { this.steps = steps; }
+        public String getArrivals() { return arrivals; }
+        public void setArrivals(String arrivals) { this.arrivals = arrivals; }
+    }
+
     public String getInterval() { return interval; }
     public void setInterval(String interval) { this.interval = interval; }
     public String getDuration() { return duration; }
@@ -35,4 +73,8 @@ public class SchedulerProperties {
     public void setAvgNodesPerFile(int avgNodesPerFile) { this.avgNodesPerFile = avgNodesPerFile; }
     public Ramp getRamp() { return ramp; }
     public void setRamp(Ramp ramp) { this.ramp = ramp; }
+    public List<Phase> getProfile() { return profile; }
+    public void setProfile(List<Phase> profile) { this.profile = profile; }
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
 }
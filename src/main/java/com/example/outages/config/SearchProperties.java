@@ -0,0 +1,51 @@
+package com.example.outages.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Capacity search: step the send rate up until the SLO breaks, then bisect to the highest rate that meets it. */
+@ConfigurationProperties(prefix = "search")
+public class SearchProperties {
+    // Rates are "50", "50/s", "300/m" or "12/h"
+    private String startRate = "10/s";
+    private String maxRate = "2000/s";
+    // While the SLO holds, multiply the rate by this much per step
+    private double growth = 2.0;
+    // Each step is a fresh campaign holding one rate for this long
+    private String stepDuration = "60s";
+    // Pause between steps so the target recovers from the previous one
+    private String cooldown = "10s";
+    // Stop bisecting once the gap between the best passing and lowest failing rate is this fraction of the latter
+    private double precision = 0.05;
+    private int maxSteps = 20;
+    private Slo slo = new Slo();
+
+    /** What a step must meet to count as sustainable. */
+    public static class Slo {
+        private String p99 = "500ms";
+        private double maxErrorRate = 0.01;   // failed / sent
+        private double maxDropRate = 0.01;    // payloads the sender dropped or shed / planned
+        public String getP99() { return p99; }
+        public void setP99(String p99) { this.p99 = p99; }
+        public double getMaxErrorRate() { return maxErrorRate; }
+        public void setMaxErrorRate(double maxErrorRate) { this.maxErrorRate = maxErrorRate; }
+        public double getMaxDropRate() { return maxDropRate; }
+        public void setMaxDropRate(double maxDropRate) { this.maxDropRate = maxDropRate; }
+    }
+
+    public String getStartRate() { return startRate; }
+    public void setStartRate(String startRate) { this.startRate = startRate; }
+    public String getMaxRate() { return maxRate; }
+    public void setMaxRate(String maxRate) { this.maxRate = maxRate; }
+    public double getGrowth() { return growth; }
+    public void setGrowth(double growth) { this.growth = growth; }
+    public String getStepDuration() { return stepDuration; }
+    public void setStepDuration(String stepDuration) { this.stepDuration = stepDuration; }
+    public String getCooldown() { return cooldown; }
+    public void setCooldown(String cooldown) { this.cooldown = cooldown; }
+    public double getPrecision() { return precision; }
+    public void setPrecision(double precision) { this.precision = precision; }
+    public int getMaxSteps() { return maxSteps; }
+    public void setMaxSteps(int maxSteps) { this.maxSteps = maxSteps; }
+    public Slo getSlo() { return slo; }
+    public void setSlo(Slo slo) { this.slo = slo; }
+}
@@ -6,6 +6,38 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class SendProperties {
     // Set to true to actually send HTTP POSTs; false = dry run
     private boolean enabled = true;
+    // open = fire on schedule without waiting for earlier posts; closed = block each tick until the post completes
+    private String mode = "open";
+    // open mode only: ticks that find this many posts still in flight are dropped instead of queued
+    private int maxInFlight = 1024;
+    private Pacing pacing = new Pacing();
+    private Body body = new Body();
+    // Checkpoint progress to <output.dir>/send.cursor so a restarted instance resumes an interrupted run
+    private boolean resume = true;
+    private String checkpointInterval = "1s";
+
+    /** How each campaign's pacer thread releases sends at their intended instants. */
+    public static class Pacing {
+        private String spin = "100us";        // park until this close to a deadline, then busy-spin; 0 = park only
+        private String maxLag = "10ms";       // later than this, lagPolicy applies
+        private String lagPolicy = "catch-up"; // catch-up = send every late payload at once | drop | shift = delay the rest
+        public String getSpin() { return spin; }
+        public void setSpin(String spin) { this.spin = spin; }
+        public String getMaxLag() { return maxLag; }
+        public void setMaxLag(String maxLag) { this.maxLag = maxLag; }
+        public String getLagPolicy() { return lagPolicy; }
+        public void setLagPolicy(String lagPolicy) { this.lagPolicy = lagPolicy; }
+    }
+
+    /** How payloads too large to hold in heap are posted. */
+    public static class Body {
+        private int chunkKb = 64;         // a streamed body is written, read and sent in chunks of at most this size
+        private int streamAboveKb = 1024; // larger payloads are sent with chunked transfer encoding; 0 = stream all
+        public int getChunkKb() { return chunkKb; }
+        public void setChunkKb(int chunkKb) { this.chunkKb = chunkKb; }
+        public int getStreamAboveKb() { return streamAboveKb; }
+        public void setStreamAboveKb(int streamAboveKb) { this.streamAboveKb = streamAboveKb; }
+    }
 
     public boolean isEnabled() {
         return enabled;
@@ -14,4 +46,17 @@ public class SendProperties {
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
     }
+
+    public String getMode() { return mode; }
+    public void setMode(String mode) { this.mode = mode; }
+    public int getMaxInFlight() { return maxInFlight; }
+    public void setMaxInFlight(int maxInFlight) { this.maxInFlight = maxInFlight; }
+    public boolean isResume() { return resume; }
+    public void setResume(boolean resume) { this.resume = resume; }
+    public String getCheckpointInterval() { return checkpointInterval; }
+    public void setCheckpointInterval(String checkpointInterval) { this.checkpointInterval = checkpointInterval; }
+    public Pacing getPacing() { return pacing; }
+    public void setPacing(Pacing pacing) { this.pacing = pacing; }
+    public Body getBody() { return body; }
+    public void setBody(Body body) { this.body = body; }
 }
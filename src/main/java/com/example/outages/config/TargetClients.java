@@ -0,0 +1,49 @@
+package com.example.outages.config;
+
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * WebClients for campaign targets: the application's shared one, or one on a dedicated connection pool for a target
+ * that sets {@code target.targets[].maxConnections}, so a slow target cannot take connections from the others.
+ * Dedicated clients run on the shared event loops and keep the shared client's codecs.
+ */
+public class TargetClients {
+    private final WebClient shared;
+    private final LoopResources loopResources;
+    private final TransportProperties transport;
+
+    /** {@code loopResources} may be null (tests, benchmarks): dedicated pools then use Reactor Netty's loops. */
+    public TargetClients(WebClient shared, LoopResources loopResources, TransportProperties transport) {
+        this.shared = shared;
+        this.loopResources = loopResources;
+        this.transport = transport == null ? new TransportProperties() : transport;
+    }
+
+    public WebClient shared() {
+        return shared;
+    }
+
+    /** A client on its own pool of {@code maxConnections} per host; dispose the pool when done with the client. */
+    public Dedicated dedicated(String name, int maxConnections) {
+        ConnectionProvider pool = AppConfig.pool("outages-" + name, maxConnections, transport);
+        HttpClient client = loopResources == null ? HttpClient.create(pool)
+                : AppConfig.httpClient(pool, loopResources, transport);
+        return new Dedicated(shared.mutate().clientConnector(new ReactorClientHttpConnector(client)).build(), pool);
+    }
+
+    public static class Dedicated {
+        private final WebClient client;
+        private final ConnectionProvider pool;
+
+        Dedicated(WebClient client, ConnectionProvider pool) {
+            this.client = client;
+            this.pool = pool;
+        }
+        public WebClient getClient() { return client; }
+        public void dispose() { pool.dispose(); }
+    }
+}
@@ -2,10 +2,17 @@ package com.example.outages.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @ConfigurationProperties(prefix = "target")
 public class TargetProperties {
+    // Used when targets is empty: one target named "default"
     private String endpoint;
     private Auth auth = new Auth();
+    // mirror: every payload goes to every target (each one's rateShare of them); split: each payload to one target by weight
+    private String mode = "mirror";
+    private List<Target> targets = new ArrayList<>();
     public static class Auth {
         private String type = "bearer"; // bearer|header|none
         private String token;
@@ -20,8 +27,33 @@ public class TargetProperties {
         public String getHeaderValue() { return headerValue; }
         public void setHeaderValue(String headerValue) { this.headerValue = headerValue; }
     }
+    /** One of several endpoints a campaign sends to. */
+    public static class Target {
+        private String name;                 // defaults to target-<n>
+        private String endpoint;
+        private Auth auth = new Auth();
+        private double weight = 1.0;         // split mode: relative share of the payloads
+        private double rateShare = 1.0;      // mirror mode: fraction of the payloads mirrored to this target
+        private int maxConnections = 0;      // own connection pool of this size; 0 shares transport.maxConnections
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public String getEndpoint() { return endpoint; }
+        public void setEndpoint(String endpoint) { this.endpoint = endpoint; }
+        public Auth getAuth() { return auth; }
+        public void setAuth(Auth auth) { this.auth = auth; }
+        public double getWeight() { return weight; }
+        public void setWeight(double weight) { this.weight = weight; }
+        public double getRateShare() { return rateShare; }
+        public void setRateShare(double rateShare) { this.rateShare = rateShare; }
+        public int getMaxConnections() { return maxConnections; }
+        public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+    }
     public String getEndpoint() { return endpoint; }
     public void setEndpoint(String endpoint) { this.endpoint = endpoint; }
     public Auth getAuth() { return auth; }
     public void setAuth(Auth auth) { this.auth = auth; }
+    public String getMode() { return mode; }
+    public void setMode(String mode) { this.mode = mode; }
+    public List<Target> getTargets() { return targets; }
+    public void setTargets(List<Target> targets) { this.targets = targets; }
 }
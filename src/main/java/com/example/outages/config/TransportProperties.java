@@ -0,0 +1,64 @@
+package com.example.outages.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Reactor Netty connection pool and HttpClient settings shared by every campaign. Durations accept ms/s/m/h. */
+@ConfigurationProperties(prefix = "transport")
+public class TransportProperties {
+    // Connections per target host (per HTTP/2 pool: physical connections, each multiplexing streams)
+    private int maxConnections = 500;
+    // Requests allowed to wait for a free connection; -1 = unbounded. Beyond this, posts fail fast
+    private int pendingAcquireMaxCount = 1000;
+    private String pendingAcquireTimeout = "45s";
+    // Close connections idle this long / older than this; blank = never
+    private String maxIdleTime = "30s";
+    private String maxLifeTime = "";
+    // How often idle and expired connections are evicted in the background; blank = only on acquire
+    private String evictInBackground = "30s";
+    // http11 | h2 (TLS + ALPN) | h2c (cleartext prior knowledge) | auto (h2 when the server offers it, else 1.1)
+    private String protocol = "http11";
+    // HTTP/2 streams per connection
+    private int maxConcurrentStreams = 100;
+    // Use epoll/kqueue when available instead of NIO
+    private boolean nativeTransport = true;
+    // Event loop threads; 0 = Reactor Netty default (one per core, at least 4)
+    private int workerThreads = 0;
+    private boolean tcpNoDelay = true;
+    private boolean keepAlive = true;
+    private String connectTimeout = "5s";
+    // Time allowed from request sent to response headers received; blank = no limit
+    private String responseTimeout = "30s";
+    // Publish reactor.netty.connection.provider.* pool gauges to Micrometer
+    private boolean metrics = true;
+
+    public int getMaxConnections() { return maxConnections; }
+    public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+    public int getPendingAcquireMaxCount() { return pendingAcquireMaxCount; }
+    public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) { this.pendingAcquireMaxCount = pendingAcquireMaxCount; }
+    public String getPendingAcquireTimeout() { return pendingAcquireTimeout; }
+    public void setPendingAcquireTimeout(String pendingAcquireTimeout) { this.pendingAcquireTimeout = pendingAcquireTimeout; }
+    public String getMaxIdleTime() { return maxIdleTime; }
+    public void setMaxIdleTime(String maxIdleTime) { this.maxIdleTime = maxIdleTime; }
+    public String getMaxLifeTime() { return maxLifeTime; }
+    public void setMaxLifeTime(String maxLifeTime) { this.maxLifeTime = maxLifeTime; }
+    public String getEvictInBackground() { return evictInBackground; }
+    public void setEvictInBackground(String evictInBackground) { this.evictInBackground = evictInBackground; }
+    public String getProtocol() { return protocol; }
+    public void setProtocol(String protocol) { this.protocol = protocol; }
+    public int getMaxConcurrentStreams() { return maxConcurrentStreams; }
+    public void setMaxConcurrentStreams(int maxConcurrentStreams) { this.maxConcurrentStreams = maxConcurrentStreams; }
+    public boolean isNativeTransport() { return nativeTransport; }
+    public void setNativeTransport(boolean nativeTransport) { this.nativeTransport = nativeTransport; }
+    public int getWorkerThreads() { return workerThreads; }
+    public void setWorkerThreads(int workerThreads) { this.workerThreads = workerThreads; }
+    public boolean isTcpNoDelay() { return tcpNoDelay; }
+    public void setTcpNoDelay(boolean tcpNoDelay) { this.tcpNoDelay = tcpNoDelay; }
+    public boolean isKeepAlive() { return keepAlive; }
+    public void setKeepAlive(boolean keepAlive) { this.keepAlive = keepAlive; }
+    public String getConnectTimeout() { return connectTimeout; }
+    public void setConnectTimeout(String connectTimeout) { this.connectTimeout = connectTimeout; }
+    public String getResponseTimeout() { return responseTimeout; }
+    public void setResponseTimeout(String responseTimeout) { this.responseTimeout = responseTimeout; }
+    public boolean isMetrics() { return metrics; }
+    public void setMetrics(boolean metrics) { this.metrics = metrics; }
+}
@@ -0,0 +1,71 @@
+package com.example.outages;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CampaignMetricsTest {
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void countsErrorsAndRetriesByCause() {
+        CampaignMetrics metrics = new CampaignMetrics(registry, "c1", () -> 0, () -> 0, () -> 0, () -> 0);
+        for (int i = 0; i < 3; i++) metrics.error(http(503));
+        metrics.error(new IllegalStateException("retries exhausted", new TimeoutException()));
+        metrics.retry(http(503));
+
+        assertEquals(3.0, count("outages.send.errors", "http_503"), 0);
+        assertEquals(1.0, count("outages.send.errors", "TimeoutException"), 0);
+        assertEquals(1.0, count("outages.send.retries", "http_503"), 0);
+        assertEquals(1, registry.find("outages.send.errors").tag("cause", "http_503").counters().size());
+    }
+
+    @Test
+    void recordsWrittenBytes() {
+        CampaignMetrics metrics = new CampaignMetrics(registry, "c1", () -> 0, () -> 0, () -> 0, () -> 0);
+        metrics.written(1_000, 120);
+        metrics.written(1_000, 80);
+
+        assertEquals(200.0, registry.get("outages.bytes.written").tag("campaign", "c1").counter().count(), 0);
+        assertEquals(2, registry.get("outages.write").timer().count());
+    }
+
+    @Test
+    void countsStreamedBytesWithoutAWriteTime() {
+        CampaignMetrics metrics = new CampaignMetrics(registry, "c1", () -> 0, () -> 0, () -> 0, () -> 0);
+        metrics.written(1_000, 120);
+        metrics.written(4096);
+
+        assertEquals(4216.0, registry.get("outages.bytes.written").tag("campaign", "c1").counter().count(), 0);
+        assertEquals(1, registry.get("outages.write").timer().count());
+    }
+
+    @Test
+    void removesEveryMeterOnClose() {
+        CampaignMetrics metrics = new CampaignMetrics(registry, "c1", () -> 0, () -> 0, () -> 0, () -> 0);
+        metrics.error(new IOException("reset"));
+        metrics.close();
+
+        assertTrue(registry.find("outages.send.errors").counters().isEmpty());
+        assertTrue(registry.getMeters().isEmpty());
+
+        CampaignMetrics again = new CampaignMetrics(registry, "c1", () -> 0, () -> 0, () -> 0, () -> 0);
+        again.error(new IOException("reset"));
+        assertEquals(1.0, count("outages.send.errors", "IOException"), 0);
+    }
+
+    private double count(String name, String cause) {
+        return registry.get(name).tag("campaign", "c1").tag("cause", cause).counter().count();
+    }
+
+    private static WebClientResponseException http(int status) {
+        return WebClientResponseException.create(status, "", HttpHeaders.EMPTY, new byte[0], null);
+    }
+}
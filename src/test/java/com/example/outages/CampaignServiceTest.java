@@ -0,0 +1,84 @@
+package com.example.outages;
+
+import com.example.outages.config.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CampaignServiceTest {
+    private CampaignService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) service.shutdown();
+    }
+
+    @Test
+    void overlayOverridesOnlyTheKeysItSets() {
+        CampaignConfig config = CampaignConfig.bind(environment(),
+                Map.of("scheduler", Map.of("interval", "1s"), "send", Map.of("maxInFlight", 3)));
+
+        assertEquals("1s", config.getScheduler().getInterval());
+        assertEquals(7, config.getScheduler().getMaxOutagesTotal());
+        assertEquals(3, config.getSend().getMaxInFlight());
+        assertEquals("https://example.invalid/feed", config.getTarget().getEndpoint());
+    }
+
+    @Test
+    void givesEachCampaignItsOwnOutputDirUnlessTheOverlayNamesOne() {
+        service = registry(8);
+        Campaign c = service.create(Map.of("scheduler", Map.of("interval", "1s")));
+
+        assertEquals("c1", c.getId());
+        assertEquals(Paths.get("/data/outages", "c1").toString(), c.getOutputDir());
+        assertEquals("/tmp/mine", service.create(Map.of("output", Map.of("dir", "/tmp/mine"))).getOutputDir());
+        assertEquals("/data/outages", service.defaultCampaign().getOutputDir());
+    }
+
+    @Test
+    void listsRemovesAndLimitsCampaigns() {
+        service = registry(3);
+        service.create(null);
+        service.create(Map.of());
+
+        List<String> ids = service.list().stream().map(Campaign.Status::getId).collect(Collectors.toList());
+        assertEquals(List.of("c1", "c2", "default"), ids);
+        assertThrows(IllegalStateException.class, () -> service.create(null));
+
+        assertTrue(service.remove("c1"));
+        assertFalse(service.remove("c1"));
+        assertFalse(service.find("c1").isPresent());
+        assertThrows(IllegalArgumentException.class, () -> service.remove(CampaignService.DEFAULT_ID));
+        assertEquals("c3", service.create(null).getId());
+    }
+
+    private CampaignService registry(int max) {
+        StandardEnvironment env = environment();
+        CampaignConfig defaults = CampaignConfig.bind(env, null);
+        RegistryProperties registry = new RegistryProperties();
+        registry.setMax(max);
+        return new CampaignService(new TargetClients(WebClient.create(), null, null), env, registry, new SimpleMeterRegistry(),
+                defaults.getScheduler(), defaults.getTarget(), defaults.getSample(), defaults.getOutput(),
+                defaults.getRetry(), defaults.getSend(), defaults.getGenerator());
+    }
+
+    private static StandardEnvironment environment() {
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "scheduler.interval", "10m",
+                "scheduler.maxOutagesTotal", "7",
+                "target.endpoint", "https://example.invalid/feed",
+                "output.dir", "/data/outages")));
+        return env;
+    }
+}
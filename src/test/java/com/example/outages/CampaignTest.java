@@ -0,0 +1,410 @@
+package com.example.outages;
+
+import com.example.outages.config.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CampaignTest {
+    @TempDir
+    Path dir;
+
+    private StubTarget target;
+    private Campaign lastCampaign;
+    private SimpleMeterRegistry registry;
+
+    @AfterEach
+    void tearDown() {
+        if (lastCampaign != null) lastCampaign.close();
+        if (target != null) target.close();
+    }
+
+    @Test
+    void openLoopDropsTicksBeyondMaxInFlight() throws Exception {
+        target = new StubTarget(300);
+        SendProperties send = new SendProperties();
+        send.setMaxInFlight(2);
+        Campaign.Status status = run(campaign(send));
+
+        assertTrue(target.maxConcurrent.get() <= 2, "at most maxInFlight posts at once");
+        assertTrue(status.getDroppedCount() > 0, "ticks beyond maxInFlight are dropped");
+        assertEquals(status.getDroppedCount(), lastCampaign.report().getDropped(), "drops are in the latency report");
+        assertTrue(status.getSentCount() > 0);
+        assertEquals(0, status.getFailedCount());
+    }
+
+    @Test
+    void streamingModeSurvivesDroppedTicks() throws Exception {
+        target = new StubTarget(300);
+        SendProperties send = new SendProperties();
+        send.setMaxInFlight(2);
+        GeneratorProperties generator = new GeneratorProperties();
+        generator.setMode("streaming");
+        generator.setLookahead(5);
+        Campaign.Status status = run(campaign(send, generator, dir.resolve("out")));
+
+        assertTrue(status.getDroppedCount() > 0);
+        assertEquals(0, status.getFailedCount(), "sends after a drop still get their payload");
+        assertEquals(target.requests.get(), status.getSentCount());
+    }
+
+    @Test
+    void closedLoopWaitsForEachPost() throws Exception {
+        target = new StubTarget(30);
+        SendProperties send = new SendProperties();
+        send.setMode("closed");
+        Campaign.Status status = run(campaign(send));
+
+        assertEquals(1, target.maxConcurrent.get());
+        assertEquals(0, status.getDroppedCount());
+        assertEquals(target.requests.get(), status.getSentCount());
+    }
+
+    @Test
+    void shiftPolicyMovesTheEndWithTheTimeline() throws Exception {
+        // Each post takes twice the interval, so every send shifts the timeline and the last ones go out after 1s
+        target = new StubTarget(40);
+        SendProperties send = new SendProperties();
+        send.setMode("closed");
+        send.getPacing().setMaxLag("1ms");
+        send.getPacing().setLagPolicy("shift");
+        Campaign.Status status = run(campaign(send));
+
+        assertEquals(status.getTotalPlanned(), status.getSentCount());
+        assertTrue(status.getEndsAt().isAfter(status.getStartedAt().plusSeconds(1)));
+        assertEquals(0, status.getDroppedCount());
+    }
+
+    @Test
+    void lagDropsAreInTheLatencyReport() throws Exception {
+        target = new StubTarget(40);
+        SendProperties send = new SendProperties();
+        send.setMode("closed");
+        send.getPacing().setMaxLag("1ms");
+        send.getPacing().setLagPolicy("drop");
+        Campaign.Status status = run(campaign(send));
+
+        assertTrue(status.getDroppedCount() > 0);
+        assertEquals(status.getDroppedCount(), lastCampaign.report().getDropped());
+        assertEquals(status.getTotalPlanned(), status.getSentCount() + status.getDroppedCount());
+    }
+
+    @Test
+    void resumesAnInterruptedStreamingRunWhereItStopped() throws Exception {
+        target = new StubTarget(0);
+        SendProperties send = new SendProperties();
+        send.setMode("closed");
+        GeneratorProperties generator = new GeneratorProperties();
+        generator.setMode("streaming");
+        Campaign interrupted = campaign(send, generator, dir.resolve("out"));
+        interrupted.start();
+        Thread.sleep(300);
+        interrupted.close();
+        int sentBefore = target.requests.get();
+        assertTrue(sentBefore > 0 && sentBefore < 50, "sent " + sentBefore + " before the interruption");
+
+        Campaign.Status status = run(campaign(send, generator, dir.resolve("out")));
+
+        assertEquals(status.getTotalPlanned(), status.getSentCount());
+        assertEquals(0, status.getFailedCount());
+        // At most the post in progress at the interruption goes out twice
+        assertTrue(target.requests.get() - status.getTotalPlanned() <= 1, "posted " + target.requests.get());
+        assertEquals(status.getTotalPlanned(), status.getGeneratedCount());
+    }
+
+    @Test
+    void replaysRecordingsAndRereadsRetriedOnes() throws Exception {
+        Path recordings = Files.createDirectories(dir.resolve("recorded"));
+        for (int i = 0; i < 5; i++) {
+            Files.writeString(recordings.resolve("feed-2026-10-16T17-00-0" + i + "Z.json"), "{\"id\":\"o" + i + "\"}");
+        }
+        target = new StubTarget(0);
+        target.failFirst.set(2);
+        SendProperties send = new SendProperties();
+        send.setMode("closed");
+        GeneratorProperties generator = new GeneratorProperties();
+        generator.setMode("replay");
+        generator.getReplay().setSource(recordings.toString());
+        generator.getReplay().setTimeScale(20);
+        RetryProperties retry = new RetryProperties();
+        retry.setMaxAttempts(3);
+        retry.setBackoffSeconds(0);
+        Campaign.Status status = run(campaign(send, generator, dir.resolve("out"), retry));
+
+        assertEquals(5, status.getTotalPlanned());
+        assertEquals(5, status.getSentCount());
+        assertEquals(0, status.getFailedCount());
+        assertEquals(7, target.requests.get());
+        assertEquals(2, status.getRetryAttempts());
+        // Retries read their recording again without counting it twice
+        assertEquals(5, status.getGeneratedCount());
+    }
+
+    @Test
+    void streamsEveryPayloadChunkedAndRerendersRetriedOnes() throws Exception {
+        target = new StubTarget(0);
+        target.failFirst.set(2);
+        SendProperties send = new SendProperties();
+        send.setMode("closed");
+        send.getBody().setStreamAboveKb(0);
+        send.getBody().setChunkKb(1);
+        GeneratorProperties generator = new GeneratorProperties();
+        generator.setMode("streaming");
+        RetryProperties retry = new RetryProperties();
+        retry.setMaxAttempts(3);
+        retry.setBackoffSeconds(0);
+        Campaign.Status status = run(campaign(send, generator, dir.resolve("out"), retry));
+
+        assertEquals(status.getTotalPlanned(), status.getSentCount());
+        assertEquals(0, status.getFailedCount());
+        assertEquals(status.getTotalPlanned() + 2, target.requests.get());
+        assertEquals(status.getTotalPlanned(), status.getGeneratedCount());
+        assertEquals(target.bytes.get(), registry.get("outages.bytes.sent").counter().count(), 0);
+    }
+
+    @Test
+    void streamedGenerationMatchesInMemoryAndCountsItsBytes() throws Exception {
+        List<String> inMemory = filesInOrder(generate(new GeneratorProperties(), "memory"));
+        SendProperties send = new SendProperties();
+        send.getBody().setStreamAboveKb(0);
+
+        Path files = dir.resolve("streamed");
+        assertEquals(50, campaign(send, new GeneratorProperties(), files).generateAllNow());
+        assertEquals(inMemory, filesInOrder(files));
+        long fileBytes = 0;
+        try (Stream<Path> s = Files.list(files)) {
+            for (Path f : s.filter(f -> f.getFileName().toString().contains("-outage-")).collect(Collectors.toList())) {
+                fileBytes += Files.size(f);
+            }
+        }
+        assertEquals(fileBytes, registry.get("outages.bytes.written").counter().count(), 0);
+
+        GeneratorProperties segment = new GeneratorProperties();
+        segment.setCorpus("segment");
+        Path segmentDir = dir.resolve("streamed-segment");
+        assertEquals(50, campaign(send, segment, segmentDir).generateAllNow());
+        assertEquals(Files.size(segmentDir.resolve(SegmentCorpus.SEGMENT_FILE)),
+                registry.get("outages.bytes.written").counter().count(), 0);
+    }
+
+    @Test
+    void mirrorsToEveryTargetAndReportsDropsPerTarget() throws Exception {
+        target = new StubTarget(0);
+        try (StubTarget slow = new StubTarget(300)) {
+            TargetProperties targets = new TargetProperties();
+            targets.setTargets(List.of(mirror("fast", target), mirror("slow", slow)));
+            SendProperties send = new SendProperties();
+            send.setMaxInFlight(3);
+            RetryProperties retry = new RetryProperties();
+            retry.setMaxAttempts(0);
+            Campaign.Status status = run(campaign(send, new GeneratorProperties(), dir.resolve("out"), retry, targets));
+            LatencyRecorder.Report report = lastCampaign.report();
+
+            Campaign.TargetStatus fast = status.getTargets().get(0);
+            Campaign.TargetStatus held = status.getTargets().get(1);
+            assertEquals(target.requests.get(), fast.getSentCount());
+            assertEquals(slow.requests.get(), held.getSentCount());
+            assertTrue(held.getDroppedCount() > 0, "the slow target keeps maxInFlight posts outstanding");
+            assertEquals(status.getDroppedCount(), fast.getDroppedCount() + held.getDroppedCount());
+            assertEquals(2 * status.getTotalPlanned(),
+                    status.getSentCount() + status.getFailedCount() + status.getDroppedCount());
+            assertEquals(status.getDroppedCount(), report.getDropped());
+            assertEquals(held.getDroppedCount(), report.getByTarget().get("slow").getDropped());
+            assertEquals(fast.getDroppedCount(), report.getByTarget().get("fast").getDropped());
+            assertEquals(fast.getSentCount(), report.getByTarget().get("fast").getCompleted());
+        }
+    }
+
+    private static TargetProperties.Target mirror(String name, StubTarget stub) {
+        TargetProperties.Target t = new TargetProperties.Target();
+        t.setName(name);
+        t.setEndpoint(stub.url());
+        t.getAuth().setType("none");
+        return t;
+    }
+
+    @Test
+    void parallelGenerationMatchesSequential() throws Exception {
+        GeneratorProperties sequential = new GeneratorProperties();
+        sequential.setParallelism(1);
+        GeneratorProperties parallel = new GeneratorProperties();
+        parallel.setParallelism(4);
+
+        List<String> one = filesInOrder(generate(sequential, "seq"));
+        List<String> four = filesInOrder(generate(parallel, "par"));
+
+        // Identical apart from the start time, which is the clock at generation
+        assertEquals(one, four);
+        // Files take consecutive slices of the pool, wrapping around it
+        List<String> nodes = new ArrayList<>();
+        ObjectMapper mapper = new ObjectMapper();
+        for (String file : one) {
+            for (JsonNode outage : mapper.readTree(file).get("outages")) {
+                for (JsonNode dn : outage.get("affectedDeliveryNodes")) nodes.add(dn.get("dnId").asText());
+            }
+        }
+        for (int i = 0; i < nodes.size(); i++) assertEquals("dn-" + (i % 3 + 1), nodes.get(i));
+    }
+
+    @Test
+    void lifecyclePayloadsAreTheSameWhateverThreadRendersThem() throws Exception {
+        GeneratorProperties sequential = lifecycle(1);
+        GeneratorProperties parallel = lifecycle(4);
+
+        List<String> one = filesInOrder(generate(sequential, "seq"));
+        List<String> four = filesInOrder(generate(parallel, "par"));
+
+        assertEquals(one, four);
+        Set<String> stages = new HashSet<>();
+        ObjectMapper mapper = new ObjectMapper();
+        for (String file : one) {
+            for (JsonNode outage : mapper.readTree(file).get("outages")) stages.add(outage.get("crewStatus").asText());
+        }
+        assertTrue(stages.contains("Evaluating") && stages.contains("Restored"), stages.toString());
+    }
+
+    private static GeneratorProperties lifecycle(int parallelism) {
+        GeneratorProperties generator = new GeneratorProperties();
+        generator.setParallelism(parallelism);
+        generator.getLifecycle().setEnabled(true);
+        generator.getLifecycle().setFeed("delta");
+        generator.getLifecycle().setMeanRestore("200ms");
+        return generator;
+    }
+
+    @Test
+    void segmentCorpusHoldsTheSamePayloadsAsFiles() throws Exception {
+        GeneratorProperties segment = new GeneratorProperties();
+        segment.setCorpus("segment");
+        List<String> files = filesInOrder(generate(new GeneratorProperties(), "files"));
+
+        try (SegmentCorpus corpus = SegmentCorpus.open(generate(segment, "segment"))) {
+            assertEquals(files.size(), corpus.size());
+            for (int i = 0; i < corpus.size(); i++) {
+                ByteBuffer payload = corpus.payload(i);
+                byte[] bytes = new byte[payload.remaining()];
+                payload.get(bytes);
+                assertEquals(files.get(i), blankTimes(new String(bytes, StandardCharsets.UTF_8)));
+            }
+        }
+    }
+
+    private Path generate(GeneratorProperties generator, String name) throws Exception {
+        Path out = dir.resolve(name);
+        assertEquals(50, campaign(new SendProperties(), generator, out).generateAllNow());
+        return out;
+    }
+
+    /** File contents in index order, with timestamps (which follow the start time) blanked. */
+    private static List<String> filesInOrder(Path out) throws Exception {
+        List<Path> files;
+        try (Stream<Path> s = Files.list(out)) {
+            files = s.filter(f -> f.getFileName().toString().contains("-outage-")).sorted().collect(Collectors.toList());
+        }
+        assertEquals(50, files.size());
+        List<String> contents = new ArrayList<>();
+        for (Path file : files) {
+            contents.add(blankTimes(Files.readString(file)));
+        }
+        return contents;
+    }
+
+    private static String blankTimes(String payload) {
+        return payload.replaceAll("\\d{4}-\\d{2}-\\d{2}T[0-9:.+\\-]+Z?", "<time>");
+    }
+
+    private Campaign campaign(SendProperties send) throws Exception {
+        return campaign(send, new GeneratorProperties(), dir.resolve("out"));
+    }
+
+    private Campaign campaign(SendProperties send, GeneratorProperties generator, Path out) throws Exception {
+        RetryProperties retry = new RetryProperties();
+        retry.setMaxAttempts(0);
+        return campaign(send, generator, out, retry);
+    }
+
+    private Campaign campaign(SendProperties send, GeneratorProperties generator, Path out, RetryProperties retry)
+            throws Exception {
+        TargetProperties targetProps = new TargetProperties();
+        targetProps.setEndpoint(target == null ? null : target.url());
+        targetProps.getAuth().setType("none");
+        return campaign(send, generator, out, retry, targetProps);
+    }
+
+    private Campaign campaign(SendProperties send, GeneratorProperties generator, Path out, RetryProperties retry,
+                              TargetProperties targetProps) throws Exception {
+        SchedulerProperties schedule = new SchedulerProperties();
+        schedule.setInterval("20ms");
+        schedule.setDuration("1s");
+        schedule.setMaxOutagesTotal(50);
+        schedule.setAvgNodesPerFile(2);
+        SampleProperties sample = new SampleProperties();
+        sample.setPath("src/main/resources/sample/OutageSample.json");
+        Path nodes = Files.writeString(dir.resolve("nodes.json"), "[\"dn-1\", \"dn-2\", \"dn-3\"]");
+        sample.setDeliveryNodeListPath(nodes.toString());
+        OutputProperties output = new OutputProperties();
+        output.setDir(out.toString());
+        lastCampaign = new Campaign("t", WebClient.create(),
+                new CampaignConfig(schedule, targetProps, sample, output, retry, send, generator),
+                registry = new SimpleMeterRegistry());
+        return lastCampaign;
+    }
+
+    private static Campaign.Status run(Campaign campaign) throws InterruptedException {
+        campaign.start();
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        Campaign.Status status = campaign.status();
+        while ((status.isRunning() || status.getInFlight() > 0) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            status = campaign.status();
+        }
+        assertFalse(status.isRunning(), "campaign finished");
+        return status;
+    }
+
+    @Test
+    void retryAfterIsCappedAtMaxBackoff() {
+        long base = TimeUnit.SECONDS.toNanos(1);
+        long max = TimeUnit.SECONDS.toNanos(30);
+        assertEquals(TimeUnit.SECONDS.toNanos(5), Campaign.backoffNanos(0, throttled("5"), base, max));
+        assertEquals(max, Campaign.backoffNanos(0, throttled("3600"), base, max));
+        assertEquals(max, Campaign.backoffNanos(0, throttled("99999999999999999999"), base, max));
+    }
+
+    @Test
+    void backoffDoublesWithJitterUpToMaxBackoff() {
+        long base = TimeUnit.SECONDS.toNanos(1);
+        long max = TimeUnit.SECONDS.toNanos(30);
+        for (int attempt = 0; attempt < 40; attempt++) {
+            long cap = attempt >= 5 ? max : base << attempt;
+            long backoff = Campaign.backoffNanos(attempt, throttled("soon"), base, max);
+            assertTrue(backoff >= cap / 2 && backoff <= cap, "attempt " + attempt + ": " + backoff);
+        }
+    }
+
+    private static WebClientResponseException throttled(String retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Retry-After", retryAfter);
+        return WebClientResponseException.create(429, "Too Many Requests", headers, new byte[0], StandardCharsets.UTF_8);
+    }
+}
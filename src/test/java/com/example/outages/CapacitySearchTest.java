@@ -0,0 +1,81 @@
+package com.example.outages;
+
+import com.example.outages.config.SearchProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapacitySearchTest {
+    private final SearchProperties.Slo slo = new SearchProperties.Slo();
+
+    @Test
+    void aStepWithinTheSloPasses() {
+        CapacitySearch.Step step = CapacitySearch.judge(1, "grow", 50, "c1", status(992, 5, 3, 1000),
+                report(120), slo);
+        assertTrue(step.isPassed());
+        assertNull(step.getViolation());
+        assertEquals(5 / 997.0, step.getErrorRate(), 1e-9);
+        assertEquals(0.003, step.getDropRate(), 1e-9);
+        assertEquals(120, step.getP99Ms(), 1e-9);
+    }
+
+    @Test
+    void eachSloLimitFailsAStep() {
+        assertEquals("p99 600.0 ms > 500ms",
+                CapacitySearch.judge(1, "grow", 50, "c1", status(1000, 0, 0, 1000), report(600), slo).getViolation());
+        assertTrue(CapacitySearch.judge(1, "grow", 50, "c1", status(900, 100, 0, 1000), report(10), slo)
+                .getViolation().startsWith("error rate"));
+        assertTrue(CapacitySearch.judge(1, "grow", 50, "c1", status(900, 0, 100, 1000), report(10), slo)
+                .getViolation().startsWith("drop rate"));
+        CapacitySearch.Step idle = CapacitySearch.judge(1, "grow", 50, "c1", status(0, 0, 0, 1000), report(0), slo);
+        assertFalse(idle.isPassed());
+        assertEquals("nothing was sent", idle.getViolation());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stepsHoldOneRateAndKeepTheRestOfTheOverlay() {
+        Map<String, Object> overlay = Map.of(
+                "target", Map.of("endpoint", "http://target/feed"),
+                "scheduler", Map.of("interval", "1s"),
+                "send", Map.of("maxInFlight", 7),
+                "search", Map.of("startRate", "5/s"));
+        Map<String, Object> step = CapacitySearch.stepOverlay(overlay, 37.5, "30s");
+
+        assertFalse(step.containsKey("search"));
+        assertEquals(overlay.get("target"), step.get("target"));
+        Map<String, Object> scheduler = (Map<String, Object>) step.get("scheduler");
+        assertEquals("1s", scheduler.get("interval"));
+        assertEquals(List.of(Map.of("type", "hold", "duration", "30s", "rate", "37.5/s")), scheduler.get("profile"));
+        assertEquals("streaming", ((Map<String, Object>) step.get("generator")).get("mode"));
+        Map<String, Object> send = (Map<String, Object>) step.get("send");
+        assertEquals(7, send.get("maxInFlight"));
+        assertEquals(true, send.get("enabled"));
+        assertEquals(false, send.get("resume"));
+    }
+
+    @Test
+    void rejectsRatesAndGrowthThatCannotSearch() {
+        CapacitySearch search = new CapacitySearch(null, new StandardEnvironment());
+        assertThrows(IllegalArgumentException.class,
+                () -> search.start(Map.of("search", Map.of("startRate", "100/s", "maxRate", "10/s"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> search.start(Map.of("search", Map.of("startRate", "0"))));
+        assertThrows(IllegalArgumentException.class, () -> search.start(Map.of("search", Map.of("growth", 1))));
+    }
+
+    private static Campaign.Status status(int sent, int failed, int dropped, int planned) {
+        return new Campaign.Status("c1", false, sent, planned, "http://target/feed", Instant.EPOCH, Instant.EPOCH,
+                failed, dropped, 0, planned, sent + failed, 0, 0, "CLOSED", List.of());
+    }
+
+    private static LatencyRecorder.Report report(double p99) {
+        LatencyRecorder.Stats overall = new LatencyRecorder.Stats(1000, p99 / 2, p99 / 1.5, p99, p99, p99, p99 / 2);
+        return new LatencyRecorder.Report(false, Instant.EPOCH, 20, 1000, 0, 0, 50, overall, Map.of(), overall, Map.of());
+    }
+}
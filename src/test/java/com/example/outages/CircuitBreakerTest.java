@@ -0,0 +1,80 @@
+package com.example.outages;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    @Test
+    void staysClosedUntilMinCallsWereSeen() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, TimeUnit.SECONDS.toNanos(10), 2);
+        for (int i = 0; i < 3; i++) breaker.record(true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.allowRequest());
+        breaker.record(true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(1, breaker.trips());
+        assertFalse(breaker.allowRequest());
+        assertTrue(breaker.remainingOpenNanos() > 0);
+    }
+
+    @Test
+    void onlyTheWindowCounts() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.75, TimeUnit.SECONDS.toNanos(10), 1);
+        breaker.record(true);
+        breaker.record(true);
+        for (int i = 0; i < 4; i++) breaker.record(false);
+        // The two failures slid out of the window
+        breaker.record(true);
+        breaker.record(true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        breaker.record(true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void closesAgainOnceEveryProbeSucceeds() throws Exception {
+        CircuitBreaker breaker = open(2);
+        Thread.sleep(30);
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertTrue(breaker.allowRequest());
+        // Only the probes go out
+        assertFalse(breaker.allowRequest());
+        breaker.record(false);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        breaker.record(false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void reopensWhenAProbeFails() throws Exception {
+        CircuitBreaker breaker = open(2);
+        Thread.sleep(30);
+        assertTrue(breaker.allowRequest());
+        breaker.record(true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(2, breaker.trips());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void ignoresOutcomesWhileOpen() {
+        CircuitBreaker breaker = open(1);
+        breaker.record(false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    /** A breaker that opened just now and lets probes through after 20 ms. */
+    private static CircuitBreaker open(int probes) {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 0.5, TimeUnit.MILLISECONDS.toNanos(20), probes);
+        breaker.record(true);
+        breaker.record(true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        return breaker;
+    }
+}
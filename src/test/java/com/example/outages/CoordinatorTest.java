@@ -0,0 +1,156 @@
+package com.example.outages;
+
+import com.example.outages.config.DistributedProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoordinatorTest {
+    @TempDir
+    Path dir;
+
+    private final AtomicInteger starting = new AtomicInteger();
+    private final AtomicInteger maxStarting = new AtomicInteger();
+    private final List<FakeWorker> workers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        workers.forEach(FakeWorker::close);
+    }
+
+    @Test
+    void startsEveryShardAtOnce() throws IOException {
+        Coordinator coordinator = coordinator(worker(), worker(), worker());
+
+        Coordinator.Run run = coordinator.launch(Map.of());
+
+        assertEquals(3, run.getShards().size());
+        assertEquals(3, maxStarting.get());
+        assertTrue(coordinator.find(run.getId()).isPresent());
+        for (FakeWorker w : workers) assertEquals(List.of("POST /campaign/shards", "POST /campaign/c1/start"), w.calls);
+    }
+
+    @Test
+    void removesEveryShardWhenOneFailsToStart() throws IOException {
+        FakeWorker broken = worker();
+        broken.startStatus = 500;
+        Coordinator coordinator = coordinator(worker(), broken);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> coordinator.launch(Map.of()));
+
+        assertTrue(e.getMessage().contains("did not start"), e.getMessage());
+        assertFalse(coordinator.find("d1").isPresent());
+        for (FakeWorker w : workers) assertTrue(w.calls.contains("DELETE /campaign/c1"), w.calls.toString());
+    }
+
+    @Test
+    void removesCreatedShardsWhenOneCannotBeCreated() throws IOException {
+        FakeWorker healthy = worker();
+        FakeWorker broken = worker();
+        broken.createStatus = 409;
+        Coordinator coordinator = coordinator(healthy, broken);
+
+        assertThrows(IllegalStateException.class, () -> coordinator.launch(Map.of()));
+
+        assertEquals(List.of("POST /campaign/shards", "DELETE /campaign/c1"), healthy.calls);
+        assertEquals(List.of("POST /campaign/shards"), broken.calls);
+        assertFalse(coordinator.find("d1").isPresent());
+    }
+
+    private Coordinator coordinator(FakeWorker... fakes) throws IOException {
+        Path nodes = Files.write(dir.resolve("nodes.json"),
+                new ObjectMapper().writeValueAsBytes(List.of("dn-1", "dn-2", "dn-3", "dn-4")));
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "sample.deliveryNodeListPath", nodes.toString())));
+        DistributedProperties props = new DistributedProperties();
+        props.setStartDelay("5s");
+        props.setRequestTimeout("5s");
+        Coordinator coordinator = new Coordinator(WebClient.create(), env, props);
+        for (FakeWorker w : fakes) coordinator.registerWorker(w.url());
+        return coordinator;
+    }
+
+    private FakeWorker worker() throws IOException {
+        FakeWorker w = new FakeWorker();
+        workers.add(w);
+        return w;
+    }
+
+    /** Answers the worker routes the coordinator calls; {@code start} takes a while, like pre-generation. */
+    private class FakeWorker implements AutoCloseable {
+        private final HttpServer server;
+        final List<String> calls = new CopyOnWriteArrayList<>();
+        volatile int createStatus = 201;
+        volatile int startStatus = 200;
+
+        FakeWorker() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/", this::handle);
+            server.start();
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+                String call = exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath();
+                calls.add(call);
+                if (call.equals("POST /campaign/shards")) {
+                    respond(exchange, createStatus, "{\"id\":\"c1\"}");
+                } else if (call.endsWith("/start")) {
+                    maxStarting.accumulateAndGet(starting.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        starting.decrementAndGet();
+                    }
+                    respond(exchange, startStatus, "{\"running\":true}");
+                } else {
+                    exchange.sendResponseHeaders(204, -1);
+                }
+            } finally {
+                exchange.close();
+            }
+        }
+
+        private void respond(HttpExchange exchange, int status, String json) throws IOException {
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+        }
+
+        String url() {
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+
+        @Override
+        public void close() {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.outages;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorpusManifestTest {
+    @TempDir
+    Path dir;
+
+    private static final OffsetDateTime BASE = OffsetDateTime.parse("2026-01-02T03:04:05-07:00");
+
+    @Test
+    void roundTripsAndReopensTheFilesItDescribes() throws Exception {
+        List<String> names = List.of("001-outage-a.json", "002-outage-b.json");
+        manifest(names, "{\"a\":1}", "{\"b\":2}").write(dir);
+
+        CorpusManifest loaded = CorpusManifest.load(dir);
+        assertNotNull(loaded);
+        assertEquals("fp", loaded.getFingerprint());
+        assertEquals(BASE, loaded.getBase());
+        assertEquals(2, loaded.size());
+        try (PayloadCorpus corpus = loaded.open(dir, "fp", "files")) {
+            assertNotNull(corpus);
+            assertEquals("{\"b\":2}", StandardCharsets.UTF_8.decode(corpus.payload(1)).toString());
+        }
+    }
+
+    @Test
+    void matchesOnlyTheSameInputsAndFiles() throws Exception {
+        List<String> names = List.of("001-outage-a.json");
+        manifest(names, "{}").write(dir);
+        CorpusManifest loaded = CorpusManifest.load(dir);
+
+        assertNull(loaded.open(dir, "other", "files"));
+        assertNull(loaded.open(dir, "fp", "segment"));
+        Files.delete(dir.resolve(names.get(0)));
+        assertNull(loaded.open(dir, "fp", "files"));
+
+        CorpusManifest.delete(dir);
+        assertNull(CorpusManifest.load(dir));
+    }
+
+    @Test
+    void detectsAPayloadChangedSinceGeneration() throws Exception {
+        List<String> names = List.of("001-outage-a.json");
+        manifest(names, "{\"a\":1}").write(dir);
+        Files.writeString(dir.resolve(names.get(0)), "{\"a\":2}");
+
+        try (PayloadCorpus corpus = CorpusManifest.load(dir).open(dir, "fp", "files")) {
+            assertThrows(IllegalStateException.class, () -> corpus.payload(0));
+        }
+    }
+
+    @Test
+    void sendCursorRoundTrips() throws Exception {
+        assertNull(SendCursor.load(dir));
+        Instant started = Instant.parse("2026-01-02T10:00:00Z");
+        new SendCursor("fp", started, 12, 10, 1, 1).save(dir);
+
+        SendCursor cursor = SendCursor.load(dir);
+        assertEquals("fp", cursor.getFingerprint());
+        assertEquals(started, cursor.getStartedAt());
+        assertEquals(12, cursor.getNext());
+        assertEquals(10, cursor.getSent());
+        assertEquals(1, cursor.getFailed());
+        assertEquals(1, cursor.getDropped());
+
+        Files.writeString(dir.resolve(SendCursor.FILE), "{not json");
+        assertNull(SendCursor.load(dir));
+        SendCursor.delete(dir);
+        assertFalse(SendCursor.exists(dir));
+    }
+
+    private CorpusManifest manifest(List<String> names, String... payloads) throws Exception {
+        int[] sums = new int[payloads.length];
+        for (int i = 0; i < payloads.length; i++) {
+            byte[] bytes = payloads[i].getBytes(StandardCharsets.UTF_8);
+            Files.write(dir.resolve(names.get(i)), bytes);
+            sums[i] = CorpusManifest.checksum(ByteBuffer.wrap(bytes));
+        }
+        return new CorpusManifest("fp", "files", BASE, names, sums);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.outages;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DnPoolTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void encodesNumericAndTextIdsLosslessly() throws Exception {
+        DnPool pool = DnPool.parse(write("ids.json",
+                "[\"123\", \"00042\", \"12345678901234567\", \"123456789012345678\", \"DN-7\", \"ünï\", \"0\"]"));
+
+        assertEquals(7, pool.size());
+        assertEquals("123", pool.get(0));
+        assertEquals("00042", pool.get(1));
+        assertEquals("12345678901234567", pool.get(2));
+        assertEquals("123456789012345678", pool.get(3));
+        assertEquals("DN-7", pool.get(4));
+        assertEquals("ünï", pool.get(5));
+        assertEquals("0", pool.get(6));
+    }
+
+    @Test
+    void writesIdsStraightIntoTheGenerator() throws Exception {
+        DnPool pool = DnPool.parse(write("ids.json", "[\"007\", \"dn-\\\"q\\\"\"]"));
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        char[] scratch = DnPool.newScratch();
+        try (JsonGenerator gen = new JsonFactory().createGenerator(json)) {
+            gen.writeStartArray();
+            pool.writeId(gen, 0, scratch);
+            pool.writeId(gen, 1, scratch);
+            gen.writeEndArray();
+        }
+        assertEquals("[\"007\",\"dn-\\\"q\\\"\"]", json.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void wrapsPositionsAroundThePool() throws Exception {
+        DnPool pool = DnPool.parse(write("ids.json", "[\"a\", \"b\", \"c\"]"));
+        assertEquals("a", pool.get(3));
+        assertEquals("c", pool.get(3_000_000_000L + 2));
+        assertEquals("c", pool.get(-1));
+    }
+
+    @Test
+    void acceptsEveryListShapeAndDropsBlanksAndDuplicates() throws Exception {
+        DnPool objects = DnPool.parse(write("objects.json",
+                "[{\"id\": \" a \"}, {\"id\": 5, \"x\": [1]}, {\"name\": \"no id\"}, {\"id\": \"a\"}, {\"id\": \"\"}]"));
+        assertEquals(2, objects.size());
+        assertEquals("a", objects.get(0));
+        assertEquals("5", objects.get(1));
+
+        DnPool nodes = DnPool.parse(write("nodes.json", "{\"v\": 1, \"nodes\": [{\"id\": \"x\"}, {\"id\": \"x\"}]}"));
+        assertEquals(1, nodes.size());
+
+        assertThrows(IllegalArgumentException.class, () -> DnPool.parse(write("none.json", "{\"v\": 1}")));
+        assertThrows(IllegalArgumentException.class, () -> DnPool.parse(write("empty.json", "[\" \"]")));
+    }
+
+    @Test
+    void reusesTheCacheForTheSameList() throws Exception {
+        Path source = write("ids.json", "[\"1\", \"two\"]");
+        Path cache = dir.resolve("cache/dn-pool.bin");
+
+        DnPool.load(source, cache);
+        assertTrue(Files.isRegularFile(cache));
+        // A cache that still matches is used as is: corrupt the id arena to prove it was not re-parsed
+        byte[] bytes = Files.readAllBytes(cache);
+        bytes[bytes.length - 1] = 'X';
+        Files.write(cache, bytes);
+        assertEquals("twX", DnPool.load(source, cache).get(1));
+    }
+
+    @Test
+    void rebuildsTheCacheForADifferentListWithTheSameSizeAndTime() throws Exception {
+        Path source = write("ids.json", "[\"aa\", \"bb\"]");
+        Path cache = dir.resolve("dn-pool.bin");
+        FileTime mtime = Files.getLastModifiedTime(source);
+        assertEquals("bb", DnPool.load(source, cache).get(1));
+
+        Files.writeString(source, "[\"aa\", \"cc\"]");
+        Files.setLastModifiedTime(source, mtime);
+        assertEquals("cc", DnPool.load(source, cache).get(1));
+    }
+
+    @Test
+    void rebuildsTheCacheForAnIdenticalListAtAnotherPath() throws Exception {
+        Path cache = dir.resolve("dn-pool.bin");
+        DnPool.load(write("a.json", "[\"1\"]"), cache);
+        byte[] first = Files.readAllBytes(cache);
+
+        DnPool.load(write("b.json", "[\"1\"]"), cache);
+        assertFalse(java.util.Arrays.equals(first, Files.readAllBytes(cache)), "cache keyed by the new path");
+    }
+
+    private Path write(String name, String json) throws Exception {
+        return Files.writeString(dir.resolve(name), json);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.outages;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeadlessRunnerTest {
+    @TempDir
+    Path dir;
+
+    private final PrintStream stdout = System.out;
+    private final ByteArrayOutputStream printed = new ByteArrayOutputStream();
+    private StubTarget target;
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(stdout);
+        if (target != null) target.close();
+    }
+
+    @Test
+    void rejectsUnknownCommands() {
+        assertEquals(HeadlessRunner.BAD_CONFIG, HeadlessRunner.run(new String[] {"send"}));
+        assertEquals(HeadlessRunner.BAD_CONFIG, HeadlessRunner.run(new String[] {"run", "generate"}));
+    }
+
+    @Test
+    void generatesTheCorpusAndPrintsASummary() throws Exception {
+        Path out = dir.resolve("out");
+        int exit = runQuietly("generate", "--output.dir=" + out);
+
+        assertEquals(HeadlessRunner.OK, exit);
+        JsonNode summary = summary();
+        assertEquals("generate", summary.get("command").asText());
+        assertEquals(5, summary.get("generated").asInt());
+        assertEquals(0, summary.get("exitCode").asInt());
+        assertTrue(summary.get("startupMs").asLong() > 0);
+        try (Stream<Path> files = Files.list(out)) {
+            assertEquals(5, files.filter(f -> f.getFileName().toString().contains("-outage-")).count());
+        }
+    }
+
+    @Test
+    void runsTheCampaignAndReportsFailedPosts() throws Exception {
+        target = new StubTarget(0);
+        target.status = 400;
+        int exit = runQuietly("run", "--output.dir=" + dir.resolve("out"), "--target.endpoint=" + target.url(),
+                "--retry.maxAttempts=0");
+
+        assertEquals(HeadlessRunner.FAILED_POSTS, exit);
+        JsonNode summary = summary();
+        assertEquals(5, summary.get("status").get("failedCount").asInt());
+        assertEquals(5, target.requests.get());
+        assertTrue(summary.has("report"));
+    }
+
+    @Test
+    void reportsMissingOrInvalidSettingsAsConfigurationErrors() throws Exception {
+        assertEquals(HeadlessRunner.BAD_CONFIG, runQuietly("run", "--output.dir=" + dir.resolve("out"),
+                "--target.endpoint="));
+        assertEquals("target.endpoint is required when send.enabled=true", summary().get("error").asText());
+
+        // Rejected while the context starts, before there is a summary to print
+        assertEquals(HeadlessRunner.BAD_CONFIG, runQuietly("generate", "--output.dir=" + dir.resolve("out"),
+                "--generator.compression.codec=brotli"));
+        assertEquals(HeadlessRunner.BAD_CONFIG, runQuietly("generate", "--output.dir=" + dir.resolve("out"),
+                "--scheduler.maxOutagesTotal=many"));
+    }
+
+    @Test
+    void reportsAFailedRunAsAnError() throws Exception {
+        // Configured correctly, but the output directory cannot be created
+        Path file = Files.writeString(dir.resolve("not-a-dir"), "");
+        assertEquals(HeadlessRunner.ERROR, runQuietly("generate", "--output.dir=" + file));
+        assertEquals(HeadlessRunner.ERROR, summary().get("exitCode").asInt());
+    }
+
+    /**
+     * Run a 5-payload campaign with the sample data, capturing the printed summary. The schedule leaves room for the
+     * first post of a cold context, which sets up the connection pool.
+     */
+    private int runQuietly(String command, String... args) throws Exception {
+        Path nodes = Files.writeString(dir.resolve("nodes.json"), "[\"dn-1\", \"dn-2\", \"dn-3\"]");
+        String[] all = Stream.concat(Stream.of(command,
+                        "--scheduler.interval=400ms", "--scheduler.duration=2s", "--scheduler.maxOutagesTotal=5",
+                        "--sample.path=src/main/resources/sample/OutageSample.json",
+                        "--sample.deliveryNodeListPath=" + nodes, "--target.auth.type=none", "--send.enabled=true",
+                        "--logging.level.root=WARN"),
+                Stream.of(args)).toArray(String[]::new);
+        System.setOut(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        try {
+            return HeadlessRunner.run(all);
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+
+    private JsonNode summary() throws Exception {
+        String text = printed.toString(StandardCharsets.UTF_8);
+        return new ObjectMapper().readTree(text.substring(text.indexOf('{')));
+    }
+}
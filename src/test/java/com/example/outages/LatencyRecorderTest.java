@@ -0,0 +1,89 @@
+package com.example.outages;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyRecorderTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void measuresFromIntendedSendTime() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.reset(0, Instant.EPOCH);
+        // Sent 90 ms late, answered 10 ms after that: the send is 100 ms late from the caller's view
+        recorder.record(0, 0, 100 * MS);
+
+        LatencyRecorder.Report report = recorder.report(false);
+        assertEquals(1, report.getCompleted());
+        assertEquals(100.0, report.getOverall().getP50Ms(), 0.1);
+    }
+
+    @Test
+    void splitsByStatusClassAndCountsErrors() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.reset(0, Instant.EPOCH);
+        for (int i = 1; i <= 98; i++) recorder.record(LatencyRecorder.classOf(200), 0, i * MS);
+        recorder.record(LatencyRecorder.classOf(503), 0, 500 * MS);
+        recorder.record(LatencyRecorder.ERROR, 0, 900 * MS);
+
+        LatencyRecorder.Report report = recorder.report(true);
+        assertEquals(100, report.getCompleted());
+        assertEquals(2, report.getErrors());
+        assertEquals(98, report.getByStatusClass().get("2xx").getCount());
+        assertEquals(1, report.getByStatusClass().get("5xx").getCount());
+        assertFalse(report.getByStatusClass().containsKey("4xx"));
+        assertEquals(900.0, report.getOverall().getMaxMs(), 1.0);
+    }
+
+    @Test
+    void reportsDroppedSendsNextToThePercentiles() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.reset(0, Instant.EPOCH);
+        for (int i = 0; i < 3; i++) recorder.record(0, 0, MS);
+        recorder.recordDropped();
+
+        LatencyRecorder.Report report = recorder.report(false);
+        assertEquals(3, report.getCompleted());
+        assertEquals(1, report.getDropped());
+        assertEquals(25.0, report.getDroppedPct(), 1e-9);
+        assertTrue(recorder.histogramLog().contains("dropped sends (not in the histograms): 1"));
+
+        recorder.reset(0, Instant.EPOCH);
+        assertEquals(0, recorder.report(false).getDropped());
+    }
+
+    @Test
+    void mergesShardLogsIncludingTheirDroppedSends() {
+        LatencyRecorder a = new LatencyRecorder();
+        a.reset(0, Instant.ofEpochMilli(1_000));
+        a.record(0, 0, 10 * MS);
+        a.recordDropped();
+        LatencyRecorder b = new LatencyRecorder();
+        b.reset(0, Instant.ofEpochMilli(1_000));
+        b.record(LatencyRecorder.classOf(500), 0, 30 * MS);
+        b.recordDropped();
+        b.recordDropped();
+
+        LatencyRecorder.Report merged = LatencyRecorder.merge(List.of(a.histogramLog(), b.histogramLog())).report(false);
+        assertEquals(2, merged.getCompleted());
+        assertEquals(1, merged.getErrors());
+        assertEquals(3, merged.getDropped());
+        assertEquals(1, merged.getByStatusClass().get("5xx").getCount());
+    }
+
+    @Test
+    void classifiesWrappedResponseErrors() {
+        WebClientResponseException e = WebClientResponseException.create(429, "Too Many Requests",
+                HttpHeaders.EMPTY, new byte[0], null);
+        assertEquals(2, LatencyRecorder.classOf(new IllegalStateException("retries exhausted", e)));
+        assertEquals(LatencyRecorder.ERROR, LatencyRecorder.classOf(new java.io.IOException("reset")));
+        assertEquals(LatencyRecorder.ERROR, LatencyRecorder.classOf(101));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.outages;
+
+import com.example.outages.config.MockTargetProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MockTargetTest {
+    private MockTarget target;
+
+    @AfterEach
+    void tearDown() {
+        if (target != null) target.stop();
+    }
+
+    @Test
+    void countsAndRecordsWhatItReceives() {
+        MockTargetProperties props = props();
+        props.setRecordBodies(2);
+        target = start(props);
+
+        for (String body : List.of("{\"n\":1}", "{\"n\":2}", "{\"n\":3}")) assertEquals(200, post(body));
+
+        MockTarget.Stats stats = target.stats();
+        assertEquals(3, stats.getRequests());
+        assertEquals(21, stats.getBytesReceived());
+        assertEquals(Map.of(200, 3L), stats.getByStatus());
+        assertEquals(List.of("{\"n\":2}", "{\"n\":3}"), target.bodies());
+
+        target.reset();
+        assertEquals(0, target.stats().getRequests());
+        assertTrue(target.bodies().isEmpty());
+    }
+
+    @Test
+    void injectsErrorsAndThrottling() {
+        MockTargetProperties props = props();
+        props.setErrorRate(1);
+        props.setErrorStatus(502);
+        target = start(props);
+        assertEquals(502, post("{}"));
+
+        target.stop();
+        props.setErrorRate(0);
+        props.setThrottleRate(1);
+        props.setRetryAfterSeconds(7);
+        target = start(props);
+        ResponseEntity<Void> throttled = client().post().bodyValue("{}")
+                .exchangeToMono(r -> r.toBodilessEntity()).block(Duration.ofSeconds(5));
+        assertEquals(429, throttled.getStatusCodeValue());
+        assertEquals("7", throttled.getHeaders().getFirst("Retry-After"));
+    }
+
+    @Test
+    void delaysResponsesByTheInjectedLatency() {
+        MockTargetProperties props = props();
+        props.getLatency().setMean("200ms");
+        target = start(props);
+
+        long start = System.nanoTime();
+        post("{}");
+        assertTrue(System.nanoTime() - start >= 200_000_000L);
+    }
+
+    private static MockTargetProperties props() {
+        MockTargetProperties props = new MockTargetProperties();
+        props.setPort(0);
+        return props;
+    }
+
+    private static MockTarget start(MockTargetProperties props) {
+        MockTarget target = new MockTarget(props);
+        target.start();
+        return target;
+    }
+
+    private WebClient client() {
+        return WebClient.create("http://127.0.0.1:" + target.port() + "/feed");
+    }
+
+    private int post(String body) {
+        try {
+            return client().post().bodyValue(body).retrieve().toBodilessEntity()
+                    .block(Duration.ofSeconds(5)).getStatusCodeValue();
+        } catch (WebClientResponseException e) {
+            return e.getRawStatusCode();
+        }
+    }
+}
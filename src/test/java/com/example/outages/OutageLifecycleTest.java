@@ -0,0 +1,180 @@
+package com.example.outages;
+
+import com.example.outages.config.GeneratorProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutageLifecycleTest {
+    private static final List<String> STAGES = List.of("Evaluating", "Crew assigned", "Crew on site", "Restored");
+    // 40 payloads a second apart, each opening 2 outages of 3 nodes; outages live 1.25s to 8.75s
+    private static final int PAYLOADS = 40;
+    private static final int OUTAGES = 2;
+    private static final int NODES = 3;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void fullFeedCarriesEveryOpenOutageUntilItIsRestored() throws Exception {
+        OutageLifecycle lifecycle = lifecycle("full", 1000);
+        Set<String> gone = new HashSet<>();
+        Set<String> previous = new HashSet<>();
+        for (int j = 1; j <= PAYLOADS; j++) {
+            Set<String> current = new HashSet<>();
+            for (JsonNode outage : render(lifecycle, j)) {
+                String id = outage.get("id").asText();
+                current.add(id);
+                assertFalse(gone.contains(id), id + " came back after it left the feed");
+                assertNotEquals("Restored", outage.get("crewStatus").asText());
+                assertEquals(outage.get("affectedDeliveryNodes").size(),
+                        Integer.parseInt(outage.get("metadata").get("custOut").asText()));
+            }
+            assertEquals(Math.min(j, 2) * OUTAGES, opened(current, j), "the outages of this payload and the last");
+            for (String id : previous) {
+                if (!current.contains(id)) gone.add(id);
+            }
+            previous = current;
+        }
+        assertFalse(previous.contains("outage-20260101T000000-000000"), "the first outage is restored by the end");
+    }
+
+    @Test
+    void deltaFeedCarriesChangesAndRestoresEachOutageOnce() throws Exception {
+        OutageLifecycle lifecycle = lifecycle("delta", 1000);
+        Map<String, List<Integer>> stages = new HashMap<>();
+        for (int j = 1; j <= PAYLOADS; j++) {
+            for (JsonNode outage : render(lifecycle, j)) {
+                int stage = STAGES.indexOf(outage.get("crewStatus").asText());
+                List<Integer> seen = stages.computeIfAbsent(outage.get("id").asText(), id -> new ArrayList<>());
+                if (seen.isEmpty()) {
+                    assertEquals(0, stage, "an outage opens as Evaluating");
+                } else {
+                    assertTrue(stage > seen.get(seen.size() - 1), "each appearance is a change");
+                }
+                seen.add(stage);
+                if (stage == 3) {
+                    assertEquals(0, outage.get("affectedDeliveryNodes").size());
+                    assertEquals("0", outage.get("metadata").get("custOut").asText());
+                }
+            }
+        }
+        assertEquals(PAYLOADS * OUTAGES, stages.size());
+        // Outages opened in the first 30 payloads are all restored within 8.75s, before payload 40
+        for (int n = 0; n < 30 * OUTAGES; n++) {
+            List<Integer> seen = stages.get(String.format("outage-20260101T000000-%06d", n));
+            assertEquals(3, (int) seen.get(seen.size() - 1), "outage " + n + " is restored");
+        }
+    }
+
+    @Test
+    void rendersAPayloadTheSameInAnyOrder() throws Exception {
+        for (String feed : List.of("full", "delta")) {
+            OutageLifecycle inOrder = lifecycle(feed, 1000);
+            List<String> expected = new ArrayList<>();
+            for (int j = 1; j <= PAYLOADS; j++) expected.add(text(inOrder, j));
+
+            OutageLifecycle backwards = lifecycle(feed, 1000);
+            for (int j = PAYLOADS; j >= 1; j--) assertEquals(expected.get(j - 1), text(backwards, j), feed + " " + j);
+            // Jumping about on a table that already holds state rebuilds it
+            for (int j : new int[]{17, 3, 39, 18, 18, 1}) assertEquals(expected.get(j - 1), text(inOrder, j));
+        }
+    }
+
+    @Test
+    void minNodesIsALowerBoundOnWhatAPayloadCarries() throws Exception {
+        for (String feed : List.of("full", "delta")) {
+            OutageLifecycle lifecycle = lifecycle(feed, 1000);
+            for (int j = 1; j <= PAYLOADS; j++) {
+                int carried = 0;
+                for (JsonNode outage : render(lifecycle, j)) carried += outage.get("affectedDeliveryNodes").size();
+                assertTrue(carried >= lifecycle.minNodes(j), feed + " payload " + j + " carries " + carried);
+            }
+        }
+    }
+
+    @Test
+    void failsWhenMoreThanMaxActiveOutagesAreOpen() {
+        OutageLifecycle lifecycle = lifecycle("full", 5);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> {
+            for (int j = 1; j <= PAYLOADS; j++) render(lifecycle, j);
+        });
+        assertTrue(e.getMessage().contains("maxActive=5"), e.getMessage());
+    }
+
+    @Test
+    void rejectsAnUnknownFeedOrNonPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> lifecycle("sometimes", 1000));
+        GeneratorProperties.Lifecycle props = props("full", 0);
+        assertThrows(IllegalArgumentException.class, () -> lifecycle(props));
+        GeneratorProperties.Lifecycle instant = props("full", 1000);
+        instant.setMeanRestore("0s");
+        assertThrows(IllegalArgumentException.class, () -> lifecycle(instant));
+    }
+
+    /** How many of {@code ids} were opened by payloads j - 1 and j. */
+    private static int opened(Set<String> ids, int j) {
+        int count = 0;
+        for (String id : ids) {
+            long n = Long.parseLong(id.substring(id.lastIndexOf('-') + 1));
+            if (n >= (long) (j - 2) * OUTAGES) count++;
+        }
+        return count;
+    }
+
+    private static GeneratorProperties.Lifecycle props(String feed, int maxActive) {
+        GeneratorProperties.Lifecycle props = new GeneratorProperties.Lifecycle();
+        props.setEnabled(true);
+        props.setFeed(feed);
+        props.setMeanRestore("5s");
+        props.setMaxActive(maxActive);
+        return props;
+    }
+
+    private static OutageLifecycle lifecycle(String feed, int maxActive) {
+        return lifecycle(props(feed, maxActive));
+    }
+
+    private static OutageLifecycle lifecycle(GeneratorProperties.Lifecycle props) {
+        long[] offsets = new long[PAYLOADS];
+        int[] outages = new int[PAYLOADS];
+        int[] nodes = new int[PAYLOADS];
+        long[] dnOffsets = new long[PAYLOADS + 1];
+        for (int j = 1; j <= PAYLOADS; j++) {
+            offsets[j - 1] = TimeUnit.SECONDS.toNanos(j - 1);
+            outages[j - 1] = OUTAGES;
+            nodes[j - 1] = NODES;
+            dnOffsets[j] = dnOffsets[j - 1] + OUTAGES * NODES;
+        }
+        return new OutageLifecycle(props, 42, offsets, outages, nodes, dnOffsets,
+                OffsetDateTime.parse("2026-01-01T00:00:00Z"), "outage-20260101T000000-");
+    }
+
+    private JsonNode render(OutageLifecycle lifecycle, int j) throws Exception {
+        return new ObjectMapper().readTree(text(lifecycle, j)).get("outages");
+    }
+
+    private String text(OutageLifecycle lifecycle, int j) throws Exception {
+        Path sample = dir.resolve("sample.json");
+        if (!Files.exists(sample)) Files.writeString(sample, "{\"outages\":[]}");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        lifecycle.render(j, out, PayloadTemplate.compile(sample), DnPool.of(List.of("a", "b", "c", "d", "e")));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
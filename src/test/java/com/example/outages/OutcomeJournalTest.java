@@ -0,0 +1,133 @@
+package com.example.outages;
+
+import com.example.outages.config.OutputProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutcomeJournalTest {
+    private static final long MS = 1_000_000L;
+
+    @TempDir
+    Path dir;
+
+    private final OutputProperties.Journal props = new OutputProperties.Journal();
+
+    @Test
+    void summaryReadsBackWhatWasRecorded() throws Exception {
+        Instant t0 = Instant.parse("2026-01-01T00:00:00Z");
+        long t0Nanos = System.nanoTime();
+        try (OutcomeJournal journal = OutcomeJournal.open(dir, t0, t0Nanos, false, props, "journal-test")) {
+            // Second 0: two successes, one of them retried; second 1: a 503 and a transport error
+            journal.record(0, 1, t0Nanos + 100 * MS, t0Nanos + 100 * MS, t0Nanos + 110 * MS, 200, 1000, 0);
+            journal.record(1, 3, t0Nanos + 200 * MS, t0Nanos + 201 * MS, t0Nanos + 230 * MS, 201, 2000, 0);
+            journal.record(2, 1, t0Nanos + 1100 * MS, t0Nanos + 1100 * MS, t0Nanos + 1150 * MS, 503, 500, 0);
+            journal.record(3, 2, t0Nanos + 1200 * MS, t0Nanos + 1200 * MS, t0Nanos + 1300 * MS, 0, 500, 0);
+        }
+        JournalSummary summary = JournalSummary.read(dir);
+        assertEquals(t0, summary.getStartedAt());
+        assertEquals(4, summary.getRecords());
+        assertEquals(0, summary.getLost());
+        assertEquals(2, summary.getErrors());
+        assertEquals(2, summary.getRetried());
+        assertEquals(4, summary.getOverall().getCount());
+
+        List<JournalSummary.Second> seconds = summary.getSeconds();
+        assertEquals(2, seconds.size());
+        JournalSummary.Second first = seconds.get(0);
+        assertEquals(0, first.getSecond());
+        assertEquals(2, first.getCompleted());
+        assertEquals(0, first.getErrors());
+        assertEquals(1, first.getRetried());
+        assertEquals(3000, first.getBytes());
+        assertEquals(30.0, first.getMaxMs(), 0.5);
+        JournalSummary.Second second = seconds.get(1);
+        assertEquals(1, second.getSecond());
+        assertEquals(2, second.getErrors());
+        assertEquals(1000, second.getBytes());
+        assertEquals(100.0, second.getMaxMs(), 1.0);
+    }
+
+    @Test
+    void countsErrorsLikeTheLatencyReport() throws Exception {
+        Instant t0 = Instant.parse("2026-01-01T00:00:00Z");
+        long t0Nanos = System.nanoTime();
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.reset(t0Nanos, t0);
+        int[] statuses = {200, 304, 404, 503, 0};
+        try (OutcomeJournal journal = OutcomeJournal.open(dir, t0, t0Nanos, false, props, "journal-test")) {
+            for (int i = 0; i < statuses.length; i++) {
+                long intended = t0Nanos + i * MS;
+                journal.record(i, 1, intended, intended, intended + MS, statuses[i], 100, 0);
+                recorder.record(LatencyRecorder.classOf(statuses[i]), intended, intended + MS);
+            }
+        }
+        // A redirect is not an error in either
+        assertEquals(3, recorder.report(false).getErrors());
+        assertEquals(3, JournalSummary.read(dir).getErrors());
+    }
+
+    @Test
+    void rotatesFullSegments() throws Exception {
+        props.setSegmentMb(1);
+        int perSegment = (1024 * 1024 - OutcomeJournal.HEADER_BYTES) / OutcomeJournal.RECORD_BYTES;
+        int records = perSegment + 10;
+        long t0Nanos = System.nanoTime();
+        try (OutcomeJournal journal = OutcomeJournal.open(dir, Instant.now(), t0Nanos, false, props, "journal-test")) {
+            for (int i = 0; i < records; i++) {
+                journal.record(i, 1, t0Nanos, t0Nanos, t0Nanos + MS, 200, 100, 0);
+                // Stay within the ring so nothing is lost
+                while (i - journal.written() > props.getRingSize() / 2) Thread.sleep(1);
+            }
+        }
+        List<Path> segments = OutcomeJournal.segments(dir.resolve(OutcomeJournal.DIR));
+        assertEquals(2, segments.size());
+        // The last segment is trimmed to its records
+        assertEquals(OutcomeJournal.HEADER_BYTES + 10L * OutcomeJournal.RECORD_BYTES, Files.size(segments.get(1)));
+        assertEquals(records, JournalSummary.read(dir).getRecords());
+    }
+
+    @Test
+    void aResumedRunAppendsAndAFreshRunStartsOver() throws Exception {
+        long t0Nanos = System.nanoTime();
+        try (OutcomeJournal journal = OutcomeJournal.open(dir, Instant.now(), t0Nanos, false, props, "journal-test")) {
+            journal.record(0, 1, t0Nanos, t0Nanos, t0Nanos + MS, 200, 100, 0);
+        }
+        try (OutcomeJournal journal = OutcomeJournal.open(dir, Instant.now(), t0Nanos, true, props, "journal-test")) {
+            journal.record(1, 1, t0Nanos, t0Nanos, t0Nanos + MS, 200, 100, 0);
+        }
+        assertEquals(2, OutcomeJournal.segments(dir.resolve(OutcomeJournal.DIR)).size());
+        assertEquals(2, JournalSummary.read(dir).getRecords());
+
+        try (OutcomeJournal journal = OutcomeJournal.open(dir, Instant.now(), t0Nanos, false, props, "journal-test")) {
+            journal.record(2, 1, t0Nanos, t0Nanos, t0Nanos + MS, 200, 100, 0);
+        }
+        assertEquals(1, OutcomeJournal.segments(dir.resolve(OutcomeJournal.DIR)).size());
+        assertEquals(1, JournalSummary.read(dir).getRecords());
+    }
+
+    @Test
+    void outcomesAfterCloseAreCountedAsLost() throws Exception {
+        long t0Nanos = System.nanoTime();
+        OutcomeJournal journal = OutcomeJournal.open(dir, Instant.now(), t0Nanos, false, props, "journal-test");
+        journal.record(0, 1, t0Nanos, t0Nanos, t0Nanos + MS, 200, 100, 0);
+        journal.close();
+        journal.record(1, 1, t0Nanos, t0Nanos, t0Nanos + MS, 200, 100, 0);
+        assertEquals(1, journal.written());
+        assertEquals(1, journal.lost());
+    }
+
+    @Test
+    void anEmptyDirectoryHasAnEmptySummary() throws Exception {
+        JournalSummary summary = JournalSummary.read(dir);
+        assertNull(summary.getStartedAt());
+        assertEquals(0, summary.getRecords());
+        assertTrue(summary.getSeconds().isEmpty());
+    }
+}
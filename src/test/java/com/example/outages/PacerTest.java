@@ -0,0 +1,151 @@
+package com.example.outages;
+
+import com.example.outages.config.SendProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PacerTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void releasesEachPayloadAtItsDeadline() throws InterruptedException {
+        Recording target = new Recording(0);
+        long t0 = System.nanoTime() + 20 * MS;
+        pacer(WorkloadSchedule.fixedRate(10, Duration.ofMillis(5), Duration.ofMillis(50)), 0, 1, 10, t0,
+                pacing("catch-up"), target).start();
+
+        target.await();
+        assertEquals(10, target.released.size());
+        for (int i = 0; i < 10; i++) {
+            long[] r = target.released.get(i);
+            assertEquals(i, r[0]);
+            assertEquals(t0 + i * 5 * MS, r[1]);
+            assertTrue(r[2] >= r[1], "never released early");
+        }
+    }
+
+    @Test
+    void followsTheShardStride() throws InterruptedException {
+        Recording target = new Recording(0);
+        long t0 = System.nanoTime() + 20 * MS;
+        pacer(WorkloadSchedule.fixedRate(9, Duration.ofMillis(2), Duration.ofMillis(18)), 1, 3, 3, t0,
+                pacing("catch-up"), target).start();
+
+        target.await();
+        assertEquals(List.of(t0 + 2 * MS, t0 + 8 * MS, t0 + 14 * MS), target.deadlines());
+    }
+
+    @Test
+    void dropSkipsPayloadsThatAreTooLate() throws InterruptedException {
+        // The first release blocks for 50 ms, so the next payloads (every 5 ms) are more than maxLag late
+        Recording target = new Recording(50);
+        pacer(WorkloadSchedule.fixedRate(10, Duration.ofMillis(5), Duration.ofMillis(50)), 0, 1, 10,
+                System.nanoTime() + 20 * MS, pacing("drop"), target).start();
+
+        target.await();
+        assertTrue(target.skipped.size() >= 4, "skipped " + target.skipped);
+        assertEquals(10, target.released.size() + target.skipped.size());
+        assertEquals(0, target.shifts.size());
+    }
+
+    @Test
+    void shiftMovesTheRestOfTheTimeline() throws InterruptedException {
+        Recording target = new Recording(50);
+        long t0 = System.nanoTime() + 20 * MS;
+        pacer(WorkloadSchedule.fixedRate(5, Duration.ofMillis(5), Duration.ofMillis(25)), 0, 1, 5, t0,
+                pacing("shift"), target).start();
+
+        target.await();
+        assertEquals(5, target.released.size());
+        assertEquals(1, target.shifts.size());
+        long shift = target.shifts.get(0);
+        assertTrue(shift >= 35 * MS, "shifted by " + shift);
+        List<Long> deadlines = target.deadlines();
+        for (int i = 1; i < 5; i++) assertEquals(t0 + i * 5 * MS + shift, (long) deadlines.get(i));
+    }
+
+    @Test
+    void stopsWithoutFinishing() throws InterruptedException {
+        Recording target = new Recording(0);
+        Pacer pacer = pacer(WorkloadSchedule.fixedRate(3, Duration.ofSeconds(10), Duration.ofSeconds(30)), 0, 1, 3,
+                System.nanoTime(), pacing("catch-up"), target);
+        pacer.start();
+        Thread.sleep(50);
+        pacer.stop();
+
+        assertFalse(target.done.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(1, target.released.size());
+    }
+
+    @Test
+    void rejectsUnknownLagPolicies() {
+        assertEquals(Pacer.LagPolicy.SHIFT, Pacer.policyOf("SHIFT"));
+        assertEquals(Pacer.LagPolicy.CATCH_UP, Pacer.policyOf(null));
+        assertThrows(IllegalArgumentException.class, () -> Pacer.policyOf("skip"));
+    }
+
+    private static Pacer pacer(WorkloadSchedule schedule, int first, int stride, int count, long t0,
+                               SendProperties.Pacing pacing, Recording target) {
+        return new Pacer("pacer-test", schedule, first, stride, 0, count, t0, pacing, target);
+    }
+
+    private static SendProperties.Pacing pacing(String policy) {
+        SendProperties.Pacing pacing = new SendProperties.Pacing();
+        pacing.setMaxLag("10ms");
+        pacing.setLagPolicy(policy);
+        return pacing;
+    }
+
+    /** Records every callback; the first release blocks for {@code firstDelayMs}, like a slow closed-loop post. */
+    private static class Recording implements Pacer.Target {
+        final List<long[]> released = new CopyOnWriteArrayList<>();
+        final List<Integer> skipped = new CopyOnWriteArrayList<>();
+        final List<Long> shifts = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        private final long firstDelayMs;
+
+        Recording(long firstDelayMs) {
+            this.firstDelayMs = firstDelayMs;
+        }
+
+        @Override public void release(int i, long intendedNanos, long lagNanos) {
+            released.add(new long[]{i, intendedNanos, System.nanoTime()});
+            if (i == 0 && firstDelayMs > 0) {
+                try {
+                    Thread.sleep(firstDelayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override public void skip(int i, long intendedNanos, long lagNanos) {
+            skipped.add(i);
+        }
+
+        @Override public void shifted(long lagNanos) {
+            shifts.add(lagNanos);
+        }
+
+        @Override public void finished() {
+            done.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(done.await(5, TimeUnit.SECONDS), "pacer finished");
+        }
+
+        List<Long> deadlines() {
+            List<Long> deadlines = new CopyOnWriteArrayList<>();
+            for (long[] r : released) deadlines.add(r[1]);
+            return deadlines;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.outages;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayloadCodecTest {
+    private static final byte[] JSON = "{\"outages\":[{\"id\":1},{\"id\":2},{\"id\":3}]}".repeat(200)
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void gzipRoundTripsAndReusesItsDeflater() throws IOException {
+        PayloadCodec gzip = PayloadCodec.of("gzip", -1);
+        assertEquals("gzip", gzip.getContentEncoding());
+        assertEquals(".gz", gzip.getFileSuffix());
+
+        byte[] first = gzip.encode(ByteBuffer.wrap(JSON));
+        byte[] second = gzip.encode(ByteBuffer.wrap(JSON));
+        assertTrue(first.length < JSON.length / 10);
+        assertArrayEquals(first, second);
+        assertArrayEquals(JSON, gunzip(first));
+    }
+
+    @Test
+    void gzipGrowsItsBufferForIncompressibleInput() throws IOException {
+        byte[] noise = new byte[100_000];
+        new Random(7).nextBytes(noise);
+
+        assertArrayEquals(noise, gunzip(PayloadCodec.of("gzip", 9).encode(ByteBuffer.wrap(noise))));
+    }
+
+    @Test
+    void gzipEncodesOnlyTheRemainingBytesAndLeavesThemUnread() throws IOException {
+        byte[] padded = new byte[JSON.length + 10];
+        System.arraycopy(JSON, 0, padded, 5, JSON.length);
+        ByteBuffer slice = ByteBuffer.wrap(padded, 5, JSON.length);
+
+        assertArrayEquals(JSON, gunzip(PayloadCodec.of("gzip", 1).encode(slice)));
+        assertEquals(5, slice.position());
+        assertEquals(JSON.length, slice.remaining());
+    }
+
+    @Test
+    void zstdRoundTripsAndNamesItsEncoding() throws IOException {
+        PayloadCodec zstd = PayloadCodec.of("ZSTD", -1);
+        assertEquals("zstd", zstd.getContentEncoding());
+        assertEquals(".zst", zstd.getFileSuffix());
+
+        byte[] first = zstd.encode(ByteBuffer.wrap(JSON));
+        byte[] second = zstd.encode(ByteBuffer.wrap(JSON));
+        assertTrue(first.length < JSON.length / 10);
+        assertArrayEquals(first, second);
+        assertArrayEquals(JSON, Zstd.decompress(first, JSON.length));
+        assertArrayEquals(JSON, unzstd(first));
+    }
+
+    @Test
+    void zstdHandlesIncompressibleInput() throws IOException {
+        byte[] noise = new byte[100_000];
+        new Random(7).nextBytes(noise);
+
+        assertArrayEquals(noise, unzstd(PayloadCodec.of("zstd", 19).encode(ByteBuffer.wrap(noise))));
+    }
+
+    @Test
+    void zstdEncodesOnlyTheRemainingBytesAndLeavesThemUnread() throws IOException {
+        byte[] padded = new byte[JSON.length + 10];
+        System.arraycopy(JSON, 0, padded, 5, JSON.length);
+        ByteBuffer slice = ByteBuffer.wrap(padded, 5, JSON.length);
+
+        assertArrayEquals(JSON, unzstd(PayloadCodec.of("zstd", 1).encode(slice)));
+        assertEquals(5, slice.position());
+        assertEquals(JSON.length, slice.remaining());
+
+        // A direct buffer (a mapped segment) is copied out first, and left unread too
+        ByteBuffer direct = ByteBuffer.allocateDirect(JSON.length).put(JSON).flip();
+        assertArrayEquals(JSON, unzstd(PayloadCodec.of("zstd", 1).encode(direct)));
+        assertEquals(JSON.length, direct.remaining());
+    }
+
+    @Test
+    void wrappedStreamsMatchWhatTheyDecodeTo() throws IOException {
+        for (String codec : new String[]{"gzip", "zstd"}) {
+            ByteArrayOutputStream sink = new ByteArrayOutputStream();
+            try (OutputStream out = PayloadCodec.of(codec, 3).wrap(sink)) {
+                // In odd-sized pieces, as the streamed segment and file writers hand them over
+                for (int from = 0; from < JSON.length; from += 1000) {
+                    out.write(JSON, from, Math.min(1000, JSON.length - from));
+                }
+            }
+            byte[] encoded = sink.toByteArray();
+            assertArrayEquals(JSON, codec.equals("gzip") ? gunzip(encoded) : unzstd(encoded), codec);
+        }
+    }
+
+    @Test
+    void noneCopiesAndUnknownCodecsAreRejected() throws IOException {
+        assertSame(PayloadCodec.NONE, PayloadCodec.of(null, -1));
+        assertNull(PayloadCodec.NONE.getContentEncoding());
+        assertArrayEquals(JSON, PayloadCodec.NONE.encode(ByteBuffer.wrap(JSON)));
+        assertThrows(IllegalArgumentException.class, () -> PayloadCodec.of("brotli", -1));
+    }
+
+    private static byte[] unzstd(byte[] zst) throws IOException {
+        try (ZstdInputStream in = new ZstdInputStream(new ByteArrayInputStream(zst))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] gunzip(byte[] gz) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gz))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.outages;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayloadTemplateTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void keepsSampleFieldsAroundTheRenderedOutages() throws Exception {
+        Path sample = Files.writeString(dir.resolve("sample.json"),
+                "{\"feed\":\"map\",\"outages\":[{\"id\":\"old\"}],\"meta\":{\"v\":2},\"tags\":[1,2]}");
+        JsonNode payload = render(PayloadTemplate.compile(sample), 2, 2, 0, List.of("a", "b", "c"));
+
+        Iterator<String> fields = payload.fieldNames();
+        assertEquals("feed", fields.next());
+        assertEquals("outages", fields.next());
+        assertEquals("meta", fields.next());
+        assertEquals("tags", fields.next());
+        assertEquals("map", payload.get("feed").asText());
+        assertEquals(2, payload.get("meta").get("v").asInt());
+        assertEquals(2, payload.get("tags").size());
+        assertEquals(2, payload.get("outages").size());
+    }
+
+    @Test
+    void rendersIdsTimestampsAndWrappingNodeSlices() throws Exception {
+        Path sample = Files.writeString(dir.resolve("sample.json"), "{\"outages\":[]}");
+        JsonNode outages = render(PayloadTemplate.compile(sample), 3, 2, 4, List.of("a", "b", "c")).get("outages");
+
+        assertEquals("p-001", outages.get(0).get("id").asText());
+        assertEquals("p-003", outages.get(2).get("id").asText());
+        assertEquals("2026-01-01T00:00Z", outages.get(1).get("startedAt").asText());
+        assertEquals("2026-01-01T00:00Z", outages.get(1).get("updatedAt").asText());
+        // Pool positions 4..9 of a three-node pool: b c | a b | c a
+        assertEquals("b", outages.get(0).get("affectedDeliveryNodes").get(0).get("dnId").asText());
+        assertEquals("c", outages.get(0).get("affectedDeliveryNodes").get(1).get("dnId").asText());
+        assertEquals("a", outages.get(1).get("affectedDeliveryNodes").get(0).get("dnId").asText());
+        assertEquals("a", outages.get(2).get("affectedDeliveryNodes").get(1).get("dnId").asText());
+    }
+
+    @Test
+    void addsOutagesToASampleWithoutThem() throws Exception {
+        Path sample = Files.writeString(dir.resolve("sample.json"), "{\"feed\":\"map\"}");
+        JsonNode payload = render(PayloadTemplate.compile(sample), 1, 1, 0, List.of("a"));
+
+        assertEquals("map", payload.get("feed").asText());
+        assertEquals(1, payload.get("outages").size());
+    }
+
+    @Test
+    void widensIdsPastNineHundredNinetyNine() throws Exception {
+        Path sample = Files.writeString(dir.resolve("sample.json"), "{\"outages\":[]}");
+        JsonNode outages = render(PayloadTemplate.compile(sample), 1000, 1, 0, List.of("a")).get("outages");
+
+        assertEquals("p-0001", outages.get(0).get("id").asText());
+        assertEquals("p-1000", outages.get(999).get("id").asText());
+    }
+
+    private JsonNode render(PayloadTemplate template, int outages, int nodes, long dnOffset,
+                            List<String> ids) throws Exception {
+        DnPool pool = DnPool.parse(Files.write(dir.resolve("nodes.json"),
+                new ObjectMapper().writeValueAsBytes(ids)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        template.render(out, "p", "2026-01-01T00:00Z", outages, nodes, dnOffset, pool);
+        return new ObjectMapper().readTree(out.toString(StandardCharsets.UTF_8));
+    }
+}
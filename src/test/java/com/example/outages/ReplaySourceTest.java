@@ -0,0 +1,144 @@
+package com.example.outages;
+
+import com.example.outages.config.GeneratorProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplaySourceTest {
+    @TempDir
+    Path dir;
+
+    private final GeneratorProperties.Replay props = new GeneratorProperties.Replay();
+
+    @Test
+    void readsTimestampsFromFileNames() {
+        assertEquals(Instant.parse("2026-10-16T17:00:01.840Z"),
+                ReplaySource.fromName("feed-2026-10-16T17-00-01.840Z.json"));
+        assertEquals(Instant.parse("2026-10-16T15:00:00Z"),
+                ReplaySource.fromName("nested/007-outage-2026-10-16T08-00-00-0700.json"));
+        assertThrows(IllegalArgumentException.class, () -> ReplaySource.fromName("feed.json"));
+    }
+
+    @Test
+    void ordersADirectoryByRecordedTimeAndReadsGzippedRecordings() throws Exception {
+        write("b/feed-2026-10-16T17-00-02Z.json", "{\"n\":2}");
+        write("feed-2026-10-16T17-00-00Z.json", "{\"n\":0}");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(dir.resolve("feed-2026-10-16T17-00-01Z.json.gz")))) {
+            out.write("{\"n\":1}".getBytes(StandardCharsets.UTF_8));
+        }
+        write("notes.txt", "not a recording");
+        write(CorpusManifest.MANIFEST_FILE, "{}");
+        props.setSource(dir.toString());
+
+        try (ReplaySource source = ReplaySource.open(props)) {
+            assertEquals(3, source.size());
+            for (int i = 0; i < 3; i++) {
+                assertEquals("{\"n\":" + i + "}", new String(source.read(i), StandardCharsets.UTF_8));
+            }
+            assertEquals(Instant.parse("2026-10-16T17:00:00Z"), source.recordedAt(0));
+            assertEquals("b/feed-2026-10-16T17-00-02Z.json", source.name(2).replace('\\', '/'));
+        }
+    }
+
+    @Test
+    void indexesAZipByModificationTime() throws Exception {
+        Path zip = dir.resolve("feed.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            entry(out, "late.json", "{\"n\":1}", "2026-10-16T17:00:05Z");
+            entry(out, "early.json", "{\"n\":0}", "2026-10-16T17:00:00Z");
+        }
+        props.setSource(zip.toString());
+        props.setTimestamp("mtime");
+
+        try (ReplaySource source = ReplaySource.open(props)) {
+            assertEquals("early.json", source.name(0));
+            assertEquals("{\"n\":1}", new String(source.read(1), StandardCharsets.UTF_8));
+            assertEquals(Duration.ofSeconds(5), Duration.between(source.recordedAt(0), source.recordedAt(1)));
+        }
+    }
+
+    @Test
+    void readsTimestampsFromAJsonField() throws Exception {
+        write("a.json", "{\"meta\":{\"at\":\"2026-10-16T17:00:03Z\"}}");
+        write("b.json", "{\"meta\":{\"at\":" + Instant.parse("2026-10-16T17:00:01Z").toEpochMilli() + "}}");
+        props.setSource(dir.toString());
+        props.setTimestamp("field");
+        props.setTimestampField("/meta/at");
+
+        try (ReplaySource source = ReplaySource.open(props)) {
+            assertEquals("b.json", source.name(0));
+            assertEquals(Instant.parse("2026-10-16T17:00:03Z"), source.recordedAt(1));
+        }
+    }
+
+    @Test
+    void scheduleKeepsTheRecordedGapsDividedByTheTimeScale() throws Exception {
+        write("feed-2026-10-16T17-00-00Z.json", "{}");
+        write("feed-2026-10-16T17-00-04Z.json", "{}");
+        write("feed-2026-10-16T17-00-10Z.json", "{}");
+        props.setSource(dir.toString());
+
+        try (ReplaySource source = ReplaySource.open(props)) {
+            WorkloadSchedule schedule = source.schedule(2);
+            assertEquals(3, schedule.size());
+            assertEquals(0, schedule.offsetNanos(0));
+            assertEquals(Duration.ofSeconds(2).toNanos(), schedule.offsetNanos(1));
+            assertEquals(Duration.ofSeconds(5).toNanos(), schedule.offsetNanos(2));
+            assertEquals(Duration.ofSeconds(6), schedule.duration());
+            assertThrows(IllegalArgumentException.class, () -> source.schedule(0));
+        }
+    }
+
+    @Test
+    void rejectsASourceWithoutRecordings() throws Exception {
+        write("notes.txt", "nothing here");
+        props.setSource(dir.toString());
+        assertThrows(IllegalArgumentException.class, () -> ReplaySource.open(props));
+        props.setSource(dir.resolve("missing").toString());
+        assertThrows(IllegalArgumentException.class, () -> ReplaySource.open(props));
+    }
+
+    @Test
+    void rewriteSuffixesIdsAndShiftsStartedAt() throws Exception {
+        String json = "{\"id\":\"o1\",\"startedAt\":\"2026-10-16T10:00:00-07:00\","
+                + "\"nodes\":[{\"id\":\"n1\",\"startedAt\":\"2026-10-16T10:00:00.250Z\",\"count\":3}]}";
+        JsonNode out = new ObjectMapper().readTree(ReplaySource.rewrite(json.getBytes(StandardCharsets.UTF_8),
+                "-r42", Duration.ofMinutes(90)));
+
+        assertEquals("o1-r42", out.get("id").asText());
+        assertEquals("2026-10-16T11:30:00-07:00", out.get("startedAt").asText());
+        JsonNode node = out.get("nodes").get(0);
+        assertEquals("n1-r42", node.get("id").asText());
+        assertEquals("2026-10-16T11:30:00.25Z", node.get("startedAt").asText());
+        assertEquals(3, node.get("count").asInt());
+    }
+
+    private void write(String name, String content) throws Exception {
+        Path file = dir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void entry(ZipOutputStream out, String name, String content, String modified) throws Exception {
+        ZipEntry e = new ZipEntry(name);
+        e.setLastModifiedTime(FileTime.from(Instant.parse(modified)));
+        out.putNextEntry(e);
+        out.write(content.getBytes(StandardCharsets.UTF_8));
+        out.closeEntry();
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.outages;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestBodyTest {
+    private static final String TEXT = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void slicesAPayloadWithoutTouchingIt() {
+        ByteBuffer payload = ByteBuffer.wrap(TEXT.getBytes(StandardCharsets.UTF_8));
+        List<String> chunks = texts(RequestBody.slices(payload, 10));
+
+        assertEquals(List.of("0123456789", "abcdefghij", "klmnopqrst", "uvwxyz"), chunks);
+        assertEquals(0, payload.position());
+        // Every subscription starts over, as a retry would
+        assertEquals(chunks, texts(RequestBody.slices(payload, 10)));
+    }
+
+    @Test
+    void readsAFileInChunks() throws Exception {
+        Path file = Files.writeString(dir.resolve("payload.json"), TEXT);
+        assertEquals(TEXT, String.join("", texts(RequestBody.read(file, 8))));
+    }
+
+    @Test
+    void rendersIntoFullChunks() {
+        List<String> chunks = texts(RequestBody.render(out -> {
+            for (char c : TEXT.toCharArray()) out.write(c);
+        }, 16));
+        assertEquals(List.of("0123456789abcdef", "ghijklmnopqrstuv", "wxyz"), chunks);
+    }
+
+    @Test
+    void rendererWaitsForDemand() throws Exception {
+        AtomicInteger written = new AtomicInteger();
+        Flux<DataBuffer> body = RequestBody.render(out -> {
+            for (int i = 0; i < 100; i++) {
+                out.write(new byte[4]);
+                written.incrementAndGet();
+            }
+        }, 4);
+        CountDownLatch first = new CountDownLatch(1);
+        BaseSubscriber<DataBuffer> slow = new BaseSubscriber<>() {
+            @Override protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override protected void hookOnNext(DataBuffer chunk) {
+                DataBufferUtils.release(chunk);
+                first.countDown();
+            }
+        };
+        body.subscribe(slow);
+        assertTrue(first.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        // One chunk sent and the writer blocked on the next one
+        assertTrue(written.get() <= 2, "wrote " + written.get() + " chunks ahead of demand");
+        slow.dispose();
+    }
+
+    @Test
+    void surfacesRenderFailures() {
+        Flux<DataBuffer> body = RequestBody.render(out -> {
+            out.write(new byte[20]);
+            throw new IOException("boom");
+        }, 8);
+        RuntimeException e = assertThrows(RuntimeException.class, () -> texts(body));
+        assertTrue(e.getMessage().contains("boom"), e.getMessage());
+    }
+
+    @Test
+    void reportsTheBytesItSends() {
+        AtomicLong sent = new AtomicLong();
+        RequestBody whole = RequestBody.whole(ByteBuffer.wrap(TEXT.getBytes(StandardCharsets.UTF_8)));
+        assertFalse(whole.isChunked());
+        assertEquals(TEXT.length(), whole.contentLength());
+        texts(Flux.from(whole.publisher(sent::addAndGet)));
+        assertEquals(TEXT.length(), sent.get());
+
+        sent.set(0);
+        RequestBody chunked = RequestBody.chunked(
+                RequestBody.slices(ByteBuffer.wrap(TEXT.getBytes(StandardCharsets.UTF_8)), 5));
+        assertTrue(chunked.isChunked());
+        assertEquals(0, chunked.bytes());
+        texts(Flux.from(chunked.publisher(sent::addAndGet)));
+        assertEquals(TEXT.length(), sent.get());
+        assertEquals(TEXT.length(), chunked.bytes());
+    }
+
+    /** Chunk contents in order; each chunk is released once read. */
+    private static List<String> texts(Flux<DataBuffer> chunks) {
+        List<String> texts = new ArrayList<>();
+        for (DataBuffer chunk : chunks.collectList().block()) {
+            texts.add(chunk.toString(StandardCharsets.UTF_8));
+            DataBufferUtils.release(chunk);
+        }
+        return texts;
+    }
+}
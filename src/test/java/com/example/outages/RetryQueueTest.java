@@ -0,0 +1,100 @@
+package com.example.outages;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryQueueTest {
+
+    @Test
+    void runsTasksOnceTheirDelayHasElapsed() throws Exception {
+        RetryQueue queue = new RetryQueue("retry-test", 10, 2, 1.0, 10);
+        try {
+            CountDownLatch ran = new CountDownLatch(1);
+            long start = System.nanoTime();
+            assertTrue(queue.offer(() -> {
+                ran.countDown();
+                queue.done();
+            }, TimeUnit.MILLISECONDS.toNanos(50)));
+            assertTrue(ran.await(5, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+            assertEquals(1, queue.retries());
+        } finally {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void budgetGrowsWithFirstAttempts() {
+        RetryQueue queue = new RetryQueue("retry-test", 100, 1, 0.5, 1);
+        try {
+            long later = TimeUnit.SECONDS.toNanos(60);
+            assertTrue(queue.offer(() -> { }, later));
+            assertFalse(queue.offer(() -> { }, later));
+            queue.firstAttempt();
+            queue.firstAttempt();
+            assertTrue(queue.offer(() -> { }, later));
+            assertFalse(queue.offer(() -> { }, later));
+            assertEquals(2, queue.retries());
+            // Deferring does not use budget
+            queue.defer(() -> { }, later);
+            assertEquals(3, queue.size());
+            assertEquals(2, queue.retries());
+        } finally {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void refusesRetriesBeyondCapacity() {
+        RetryQueue queue = new RetryQueue("retry-test", 2, 1, 1.0, 100);
+        long later = TimeUnit.SECONDS.toNanos(60);
+        assertTrue(queue.offer(() -> { }, later));
+        assertTrue(queue.offer(() -> { }, later));
+        assertFalse(queue.offer(() -> { }, later));
+        assertEquals(2, queue.stop());
+        assertEquals(0, queue.size());
+        assertFalse(queue.offer(() -> { }, 0));
+    }
+
+    @Test
+    void limitsRetriesInFlight() throws Exception {
+        RetryQueue queue = new RetryQueue("retry-test", 10, 1, 1.0, 10);
+        try {
+            CountDownLatch first = new CountDownLatch(1);
+            CountDownLatch second = new CountDownLatch(1);
+            queue.offer(first::countDown, 0);
+            queue.offer(second::countDown, 0);
+            assertTrue(first.await(5, TimeUnit.SECONDS));
+            // The first retry has not called done() yet
+            assertFalse(second.await(100, TimeUnit.MILLISECONDS));
+            queue.done();
+            assertTrue(second.await(5, TimeUnit.SECONDS));
+        } finally {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void keepsDispatchingAfterATaskThrows() throws Exception {
+        RetryQueue queue = new RetryQueue("retry-test", 10, 1, 1.0, 10);
+        try {
+            CountDownLatch after = new CountDownLatch(1);
+            queue.offer(() -> {
+                throw new IllegalStateException("broken retry");
+            }, 0);
+            queue.offer(() -> {
+                after.countDown();
+                queue.done();
+            }, TimeUnit.MILLISECONDS.toNanos(20));
+            // The failed task's permit is released, so the next one starts with a concurrency of one
+            assertTrue(after.await(5, TimeUnit.SECONDS));
+            assertEquals(0, queue.size());
+        } finally {
+            queue.stop();
+        }
+    }
+}
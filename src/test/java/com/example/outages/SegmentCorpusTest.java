@@ -0,0 +1,103 @@
+package com.example.outages;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentCorpusTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackEveryPayloadInOrder() throws Exception {
+        try (SegmentCorpus.Writer writer = new SegmentCorpus.Writer(dir)) {
+            for (int i = 0; i < 3000; i++) writer.append(utf8("{\"n\":" + i + "}"));
+            writer.commit();
+        }
+
+        assertTrue(SegmentCorpus.exists(dir));
+        try (SegmentCorpus corpus = SegmentCorpus.open(dir)) {
+            assertEquals(3000, corpus.size());
+            assertEquals("{\"n\":0}", text(corpus.payload(0)));
+            assertEquals("{\"n\":1234}", text(corpus.payload(1234)));
+            assertEquals("{\"n\":2999}", text(corpus.payload(2999)));
+            assertEquals("corpus.seg#1", corpus.name(0));
+        }
+    }
+
+    @Test
+    void payloadsAreIndependentReadOnlyViews() throws Exception {
+        try (SegmentCorpus.Writer writer = new SegmentCorpus.Writer(dir)) {
+            writer.append(utf8("first"));
+            writer.append(utf8("second"));
+            writer.commit();
+        }
+        try (SegmentCorpus corpus = SegmentCorpus.open(dir)) {
+            ByteBuffer a = corpus.payload(1);
+            a.get();
+            assertEquals("second", text(corpus.payload(1)));
+            assertEquals(0, corpus.payload(1).position());
+        }
+    }
+
+    @Test
+    void streamedAppendsSitBetweenWholeOnes() throws Exception {
+        try (SegmentCorpus.Writer writer = new SegmentCorpus.Writer(dir)) {
+            writer.append(utf8("first"));
+            assertEquals(5, writer.lastSize());
+            try (OutputStream out = writer.append(4)) {
+                for (int i = 0; i < 10; i++) out.write(("chunk" + i).getBytes(StandardCharsets.UTF_8));
+            }
+            assertEquals(60, writer.lastSize());
+            writer.append(utf8("last"));
+            writer.commit();
+        }
+        try (SegmentCorpus corpus = SegmentCorpus.open(dir)) {
+            assertEquals(3, corpus.size());
+            assertEquals("chunk0chunk1chunk2chunk3chunk4chunk5chunk6chunk7chunk8chunk9", text(corpus.payload(1)));
+            assertEquals("last", text(corpus.payload(2)));
+            assertTrue(corpus.isLargerThan(1, 59));
+            assertFalse(corpus.isLargerThan(1, 60));
+        }
+    }
+
+    @Test
+    void unpublishedWritesLeaveNoCorpus() throws Exception {
+        try (SegmentCorpus.Writer writer = new SegmentCorpus.Writer(dir)) {
+            writer.append(utf8("never committed"));
+        }
+        assertFalse(SegmentCorpus.exists(dir));
+        assertFalse(Files.exists(dir.resolve(SegmentCorpus.SEGMENT_FILE + ".tmp")));
+    }
+
+    @Test
+    void rejectsASegmentShorterThanItsIndex() throws Exception {
+        try (SegmentCorpus.Writer writer = new SegmentCorpus.Writer(dir)) {
+            writer.append(utf8("some payload"));
+            writer.commit();
+        }
+        try (FileChannel ch = FileChannel.open(dir.resolve(SegmentCorpus.SEGMENT_FILE), StandardOpenOption.WRITE)) {
+            ch.truncate(4);
+        }
+        assertThrows(IllegalStateException.class, () -> SegmentCorpus.open(dir));
+    }
+
+    private static ByteBuffer utf8(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String text(ByteBuffer b) {
+        byte[] bytes = new byte[b.remaining()];
+        b.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.outages;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingCorpusTest {
+
+    @Test
+    void handsOutPayloadsInOrder() throws Exception {
+        try (StreamingCorpus corpus = new StreamingCorpus(5, 2, StreamingCorpusTest::render, i -> "p" + i)) {
+            assertEquals(5, corpus.size());
+            for (int i = 0; i < 5; i++) assertEquals("payload " + i, text(corpus.payload(i)));
+            assertEquals("p3", corpus.name(3));
+        }
+    }
+
+    @Test
+    void rendersAtMostALookaheadAhead() throws Exception {
+        AtomicInteger rendered = new AtomicInteger();
+        try (StreamingCorpus corpus = new StreamingCorpus(100, 3, i -> {
+            rendered.incrementAndGet();
+            return render(i);
+        }, String::valueOf)) {
+            corpus.payload(0);
+            Thread.sleep(200);
+            // Three queued plus one blocked on the full window
+            assertTrue(rendered.get() <= 5, "rendered " + rendered.get());
+            assertEquals(3, corpus.buffered());
+        }
+    }
+
+    @Test
+    void discardsPayloadsTheSenderSkipped() throws Exception {
+        try (StreamingCorpus corpus = new StreamingCorpus(10, 4, StreamingCorpusTest::render, String::valueOf)) {
+            assertEquals("payload 0", text(corpus.payload(0)));
+            // 1..6 were dropped; skipping past a full window must not stall the producer
+            assertEquals("payload 7", text(corpus.payload(7)));
+            assertEquals("payload 8", text(corpus.payload(8)));
+        }
+    }
+
+    @Test
+    void startsRenderingAtTheResumePoint() throws Exception {
+        AtomicInteger lowest = new AtomicInteger(Integer.MAX_VALUE);
+        try (StreamingCorpus corpus = new StreamingCorpus(10, 6, 2, i -> {
+            lowest.accumulateAndGet(i, Math::min);
+            return render(i);
+        }, String::valueOf)) {
+            assertEquals("payload 6", text(corpus.payload(6)));
+            assertEquals("payload 7", text(corpus.payload(7)));
+            assertEquals(6, lowest.get());
+        }
+    }
+
+    @Test
+    void rerendersAPayloadAlreadyTaken() throws Exception {
+        AtomicInteger rerendered = new AtomicInteger();
+        StreamingCorpus.Renderer renderer = new StreamingCorpus.Renderer() {
+            @Override public ByteBuffer render(int index) {
+                return StreamingCorpusTest.render(index);
+            }
+
+            @Override public ByteBuffer rerender(int index) {
+                rerendered.incrementAndGet();
+                return StreamingCorpusTest.render(index);
+            }
+        };
+        try (StreamingCorpus corpus = new StreamingCorpus(3, 2, renderer, String::valueOf)) {
+            corpus.payload(0);
+            corpus.payload(1);
+            assertEquals("payload 0", text(corpus.payload(0)));
+            assertEquals(1, rerendered.get());
+            // The stream carries on where it was
+            assertEquals("payload 2", text(corpus.payload(2)));
+        }
+    }
+
+    @Test
+    void surfacesRenderFailures() {
+        StreamingCorpus corpus = new StreamingCorpus(3, 2, i -> {
+            if (i == 1) throw new IOException("boom");
+            return render(i);
+        }, String::valueOf);
+        try {
+            IOException e = assertThrows(IOException.class, () -> {
+                corpus.payload(0);
+                corpus.payload(1);
+            });
+            assertEquals("boom", e.getCause().getMessage());
+        } finally {
+            corpus.close();
+        }
+    }
+
+    private static ByteBuffer render(int index) {
+        return ByteBuffer.wrap(("payload " + index).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String text(ByteBuffer b) {
+        return StandardCharsets.UTF_8.decode(b.duplicate()).toString();
+    }
+}
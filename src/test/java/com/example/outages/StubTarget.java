@@ -0,0 +1,60 @@
+package com.example.outages;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local HTTP endpoint for send tests: answers every POST with {@code status} after {@code delayMs}, except that the
+ * first {@code failFirst} posts get a 503.
+ */
+class StubTarget implements AutoCloseable {
+    private final HttpServer server;
+    final AtomicInteger requests = new AtomicInteger();
+    final AtomicInteger concurrent = new AtomicInteger();
+    final AtomicInteger maxConcurrent = new AtomicInteger();
+    final AtomicInteger failFirst = new AtomicInteger();
+    final AtomicLong bytes = new AtomicLong();
+    volatile int status = 200;
+    volatile long delayMs;
+
+    StubTarget(long delayMs) throws IOException {
+        this.delayMs = delayMs;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            int now = concurrent.incrementAndGet();
+            maxConcurrent.accumulateAndGet(now, Math::max);
+            try (InputStream in = exchange.getRequestBody()) {
+                bytes.addAndGet(in.readAllBytes().length);
+                requests.incrementAndGet();
+                if (this.delayMs > 0) Thread.sleep(this.delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                // Before answering: the client may send its next post as soon as it has the response
+                concurrent.decrementAndGet();
+            }
+            try {
+                exchange.sendResponseHeaders(failFirst.getAndDecrement() > 0 ? 503 : status, -1);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/feed";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.outages;
+
+import com.example.outages.config.TargetClients;
+import com.example.outages.config.TargetProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TargetsTest {
+    private final TargetClients clients = new TargetClients(WebClient.create(), null, null);
+
+    @Test
+    void aSingleEndpointIsTheDefaultTarget() {
+        TargetProperties props = new TargetProperties();
+        props.setEndpoint("http://a/feed");
+        try (Targets targets = Targets.of(props, clients)) {
+            assertEquals(1, targets.all().size());
+            assertEquals(Targets.DEFAULT_NAME, targets.first().name);
+            assertEquals("http://a/feed", targets.endpoints());
+            for (int i = 0; i < 100; i++) assertEquals(targets.all(), targets.route(i));
+        }
+    }
+
+    @Test
+    void splitSendsEachPayloadToOneTargetByWeight() {
+        TargetProperties props = props("split", target("a", 3, 1), target("b", 1, 1));
+        try (Targets targets = Targets.of(props, clients)) {
+            int[] counts = new int[2];
+            for (int i = 0; i < 10_000; i++) {
+                List<Targets.Target> route = targets.route(i);
+                assertEquals(1, route.size());
+                counts[route.get(0).ordinal]++;
+                // The same payload always goes to the same target
+                assertSame(route.get(0), targets.route(i).get(0));
+            }
+            assertEquals(7500, counts[0], 10);
+            assertEquals(2500, counts[1], 10);
+        }
+    }
+
+    @Test
+    void splitSpreadsEveryStretchOfTheRun() {
+        TargetProperties props = props("split", target("a", 1, 1), target("b", 1, 1));
+        try (Targets targets = Targets.of(props, clients)) {
+            for (int from = 0; from < 10_000; from += 100) {
+                int toA = 0;
+                for (int i = from; i < from + 100; i++) {
+                    if (targets.route(i).get(0).name.equals("a")) toA++;
+                }
+                assertEquals(50, toA, 3, "payloads " + from + ".." + (from + 99));
+            }
+        }
+    }
+
+    @Test
+    void mirrorSendsToEveryTargetWithinItsRateShare() {
+        TargetProperties props = props("mirror", target("a", 1, 1), target("b", 1, 0.25));
+        try (Targets targets = Targets.of(props, clients)) {
+            int toB = 0;
+            for (int i = 0; i < 10_000; i++) {
+                List<Targets.Target> route = targets.route(i);
+                assertEquals("a", route.get(0).name);
+                if (route.size() == 2) toB++;
+            }
+            assertEquals(2500, toB, 10);
+            assertEquals("http://a/feed,http://b/feed", targets.endpoints());
+        }
+        TargetProperties all = props("mirror", target("a", 1, 1), target("b", 1, 1));
+        try (Targets targets = Targets.of(all, clients)) {
+            assertEquals(2, targets.route(7).size());
+        }
+    }
+
+    @Test
+    void rejectsInvalidTargets() {
+        assertThrows(IllegalArgumentException.class,
+                () -> Targets.of(props("fanout", target("a", 1, 1)), clients));
+        assertThrows(IllegalArgumentException.class,
+                () -> Targets.of(props("split", target("a", 1, 1), target("a", 1, 1)), clients));
+        assertThrows(IllegalArgumentException.class, () -> Targets.of(props("split", target("a", 0, 1)), clients));
+        assertThrows(IllegalArgumentException.class, () -> Targets.of(props("mirror", target("a", 1, 1.5)), clients));
+        assertThrows(IllegalArgumentException.class, () -> Targets.of(props("mirror", target("a", 1, 0)), clients));
+    }
+
+    @Test
+    void unnamedTargetsAreNumbered() {
+        TargetProperties props = props("mirror", target(null, 1, 1), target(" ", 1, 1));
+        try (Targets targets = Targets.of(props, clients)) {
+            assertEquals("target-1", targets.all().get(0).name);
+            assertEquals("target-2", targets.all().get(1).name);
+        }
+    }
+
+    private static TargetProperties props(String mode, TargetProperties.Target... targets) {
+        TargetProperties props = new TargetProperties();
+        props.setMode(mode);
+        props.setTargets(new ArrayList<>(List.of(targets)));
+        return props;
+    }
+
+    private static TargetProperties.Target target(String name, double weight, double rateShare) {
+        TargetProperties.Target t = new TargetProperties.Target();
+        t.setName(name);
+        t.setEndpoint("http://" + (name == null || name.isBlank() ? "x" : name) + "/feed");
+        t.setWeight(weight);
+        t.setRateShare(rateShare);
+        return t;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.outages;
+
+import com.example.outages.config.SchedulerProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadScheduleTest {
+    private static final long S = 1_000_000_000L;
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void fixedRateSpacesPayloadsByThePeriod() {
+        WorkloadSchedule schedule = WorkloadSchedule.fixedRate(3, Duration.ofMillis(250), Duration.ofSeconds(1));
+
+        assertArrayEquals(new long[]{0, 250 * MS, 500 * MS}, offsets(schedule));
+        assertEquals(1f, schedule.intensity(2), 0f);
+        assertFalse(schedule.isShaped());
+    }
+
+    @Test
+    void holdSendsEvenlyFromTheStart() {
+        WorkloadSchedule schedule = compile(hold("1s", "10/s"));
+
+        assertEquals(10, schedule.size());
+        for (int i = 0; i < 10; i++) assertEquals(i * 100 * MS, schedule.offsetNanos(i), 1_000);
+        assertEquals(Duration.ofSeconds(1), schedule.duration());
+        assertTrue(schedule.isShaped());
+    }
+
+    @Test
+    void rampPlacesArrivalsWhereTheCumulativeRateReachesEachOne() {
+        // Rate 5t over 2s: area 2.5 t^2 reaches k at t = sqrt(0.4 k); k = 10 falls on the end and is not sent
+        WorkloadSchedule schedule = compile(ramp("2s", "0", "10/s"));
+
+        assertEquals(10, schedule.size());
+        for (int k = 0; k < 10; k++) {
+            assertEquals(Math.sqrt(0.4 * k) * S, schedule.offsetNanos(k), 1_000);
+        }
+        assertEquals(schedule.size() - 1, schedule.peakIndex());
+        assertTrue(schedule.intensity(0) < schedule.intensity(9));
+    }
+
+    @Test
+    void zeroRatePhasesSendNothing() {
+        WorkloadSchedule schedule = compile(hold("2s", "0"), hold("1s", "4/s"), hold("1s", "0/m"), hold("1s", "2/s"));
+
+        assertArrayEquals(new long[]{2 * S, 2250 * MS, 2500 * MS, 2750 * MS, 4 * S, 4500 * MS}, offsets(schedule));
+        for (int i = 0; i < schedule.size(); i++) assertTrue(schedule.intensity(i) > 0);
+    }
+
+    @Test
+    void spikeAndStepFollowTheirShapes() {
+        SchedulerProperties.Phase spike = hold("10s", "1/s");
+        spike.setType("spike");
+        spike.setPeak("10/s");
+        spike.setPeakDuration("2s");
+        WorkloadSchedule spiked = compile(spike);
+        assertEquals(4 + 20 + 4, spiked.size());
+        assertEquals(4 * S, spiked.offsetNanos(spiked.peakIndex()));
+
+        SchedulerProperties.Phase step = ramp("3s", "1/s", "3/s");
+        step.setType("step");
+        step.setSteps(3);
+        assertArrayEquals(new long[]{0, S, 1500 * MS, 2 * S, 2333 * MS, 2666 * MS},
+                Arrays.stream(offsets(compile(step))).map(o -> o / MS * MS).toArray());
+    }
+
+    @Test
+    void poissonArrivalsAreRepeatableForASeed() {
+        SchedulerProperties.Phase phase = hold("100s", "50/s");
+        phase.setArrivals("poisson");
+
+        WorkloadSchedule a = WorkloadSchedule.compile(List.of(phase), 42);
+        assertArrayEquals(offsets(a), offsets(WorkloadSchedule.compile(List.of(phase), 42)));
+        assertFalse(Arrays.equals(offsets(a), offsets(WorkloadSchedule.compile(List.of(phase), 43))));
+        assertEquals(5000, a.size(), 300);
+        for (int i = 1; i < a.size(); i++) assertTrue(a.offsetNanos(i) >= a.offsetNanos(i - 1));
+    }
+
+    @Test
+    void parsesRatesAndRejectsBadProfiles() {
+        assertEquals(5, WorkloadSchedule.parseRate("300/m"), 1e-9);
+        assertEquals(2, WorkloadSchedule.parseRate(" 7200 / h "), 1e-9);
+        assertEquals(50, WorkloadSchedule.parseRate("50"), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> WorkloadSchedule.parseRate("5/d"));
+        assertThrows(IllegalArgumentException.class, () -> WorkloadSchedule.parseRate("-1/s"));
+
+        assertThrows(IllegalArgumentException.class, () -> compile(hold("10s", "0")));
+        assertThrows(IllegalArgumentException.class, () -> WorkloadSchedule.compile(List.of(), 1));
+        SchedulerProperties.Phase unknown = hold("1s", "1/s");
+        unknown.setType("wave");
+        assertThrows(IllegalArgumentException.class, () -> compile(unknown));
+    }
+
+    private static WorkloadSchedule compile(SchedulerProperties.Phase... phases) {
+        return WorkloadSchedule.compile(List.of(phases), 1);
+    }
+
+    private static SchedulerProperties.Phase hold(String duration, String rate) {
+        SchedulerProperties.Phase phase = new SchedulerProperties.Phase();
+        phase.setType("hold");
+        phase.setDuration(duration);
+        phase.setRate(rate);
+        return phase;
+    }
+
+    private static SchedulerProperties.Phase ramp(String duration, String from, String to) {
+        SchedulerProperties.Phase phase = new SchedulerProperties.Phase();
+        phase.setType("ramp");
+        phase.setDuration(duration);
+        phase.setFrom(from);
+        phase.setTo(to);
+        return phase;
+    }
+
+    private static long[] offsets(WorkloadSchedule schedule) {
+        long[] offsets = new long[schedule.size()];
+        for (int i = 0; i < offsets.length; i++) offsets[i] = schedule.offsetNanos(i);
+        return offsets;
+    }
+}
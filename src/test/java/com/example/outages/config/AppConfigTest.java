@@ -0,0 +1,129 @@
+package com.example.outages.config;
+
+import com.example.outages.MockTarget;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppConfigTest {
+    private final AppConfig config = new AppConfig();
+    private final TransportProperties transport = new TransportProperties();
+    private MockTarget target;
+    private ConnectionProvider pool;
+    private LoopResources loops;
+
+    @AfterEach
+    void tearDown() {
+        if (target != null) target.stop();
+        if (pool != null) pool.dispose();
+        if (loops != null) loops.dispose();
+    }
+
+    @Test
+    void postsOverCleartextHttp2() {
+        transport.setProtocol("h2c");
+        startTarget("0ms");
+
+        assertEquals(200, client().post().bodyValue("{}").retrieve().toBodilessEntity()
+                .block(Duration.ofSeconds(5)).getStatusCodeValue());
+        assertEquals(1, target.stats().getRequests());
+    }
+
+    @Test
+    void holdsNoMoreConnectionsThanConfigured() {
+        transport.setMaxConnections(2);
+        startTarget("100ms");
+
+        WebClient client = client();
+        Flux.range(0, 6)
+                .flatMap(i -> client.post().bodyValue("{}").retrieve().toBodilessEntity())
+                .blockLast(Duration.ofSeconds(10));
+
+        assertEquals(6, target.stats().getRequests());
+        assertEquals(2, target.stats().getMaxInFlight());
+    }
+
+    @Test
+    void rejectsAnUnknownProtocol() {
+        transport.setProtocol("spdy");
+        pool = config.connectionProvider(transport);
+        loops = config.loopResources(transport);
+        assertThrows(IllegalArgumentException.class, () -> config.clientHttpConnector(pool, loops, transport));
+    }
+
+    @Test
+    void collapsesIdsInUriTags() {
+        assertEquals("/campaign/{id}/report/histogram", AppConfig.uriTag("http://w1:8080/campaign/c-17/report/histogram"));
+        assertEquals("/campaign/{id}/status", AppConfig.uriTag("/campaign/42/status?verbose=true"));
+        assertEquals("/campaign/shards", AppConfig.uriTag("/campaign/shards"));
+        assertEquals("/campaign/search/{id}/stop", AppConfig.uriTag("/campaign/search/s3/stop"));
+        assertEquals("/campaign/distributed/{id}", AppConfig.uriTag("/campaign/distributed/run-2"));
+        assertEquals("/ingest/{id}/feed", AppConfig.uriTag("/ingest/7/feed"));
+        assertEquals("/feed/{id}",
+                AppConfig.uriTag("https://t.example/feed/123e4567-e89b-12d3-a456-426614174000#x"));
+        assertEquals("/", AppConfig.uriTag("http://t.example"));
+    }
+
+    @Test
+    void clientMetersDoNotGrowWithCampaignIds() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.globalRegistry.add(registry);
+        try {
+            startTarget("0ms");
+            transport.setMetrics(true);
+            pool = AppConfig.pool("uri-tags", transport.getMaxConnections(), transport);
+            loops = config.loopResources(transport);
+            WebClient client = WebClient.builder()
+                    .clientConnector(config.clientHttpConnector(pool, loops, transport))
+                    .build();
+            for (int id = 1; id <= 5; id++) {
+                client.post().uri("http://127.0.0.1:" + target.port() + "/campaign/" + id + "/status")
+                        // The mock target answers 404 off its feed path, which is metered all the same
+                        .bodyValue("{}").exchangeToMono(r -> r.releaseBody()).block(Duration.ofSeconds(5));
+            }
+
+            Set<String> uris = new HashSet<>();
+            for (Meter meter : registry.getMeters()) {
+                String uri = meter.getId().getTag("uri");
+                // The global registry also holds the meters of other clients in this JVM
+                if (meter.getId().getName().startsWith("reactor.netty.http.client")
+                        && uri != null && uri.startsWith("/campaign")) {
+                    uris.add(uri);
+                }
+            }
+            assertEquals(Set.of("/campaign/{id}/status"), uris);
+        } finally {
+            Metrics.globalRegistry.remove(registry);
+        }
+    }
+
+    private void startTarget(String latency) {
+        MockTargetProperties props = new MockTargetProperties();
+        props.setPort(0);
+        props.getLatency().setMean(latency);
+        target = new MockTarget(props);
+        target.start();
+    }
+
+    private WebClient client() {
+        transport.setMetrics(false);
+        pool = config.connectionProvider(transport);
+        loops = config.loopResources(transport);
+        return WebClient.builder()
+                .clientConnector(config.clientHttpConnector(pool, loops, transport))
+                .baseUrl("http://127.0.0.1:" + target.port() + "/feed")
+                .build();
+    }
+}